@@ -4,8 +4,6 @@ import processing.core.PApplet;
 import processing.core.PFont;
 import processing.core.PImage;
 import processing.core.PVector;
-import processing.data.JSONArray;
-import processing.data.JSONObject;
 import processing.event.KeyEvent;
 import processing.event.MouseEvent;
 
@@ -14,7 +12,12 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * The {@code App} class is the main application class for the Inkball game.
@@ -45,21 +48,34 @@ public class App extends PApplet {
     public static final int WIDTH = TILE_SIZE * GRID_WIDTH; // 576
     public static final int HEIGHT = TILE_SIZE * GRID_HEIGHT + TOPBAR; // 576 + TOPBAR
     public static final int FPS = 30;
-    private static final int NEW_FPS = 2; // Number of frames per update for timer and level.
-    // One frame is 1/30 ~~ 0.333 per/s, 2 frames is 2x0.33 ~~ 0.067
+
+    // Kinds of timers on the timer wheel
+    private static final int TIMER_WALL_COOLDOWN = 0; // Argument is the wall's column plus its row shifted left 16 bits
+    private static final int TIMER_SPAWN = 1;
+    private static final int TIMER_LEVEL_TIMEOUT = 2;
+    private static final int TIMER_SCORE_STEP = 3;
+
+    // Spare balls and lines kept for reuse
+    public static final int BALL_POOL_SIZE = 64;
+    public static final int LINE_POOL_SIZE = 32;
+    public static final float ERASER_RADIUS = 12; // Reach of the right-drag eraser around the cursor, in pixels
 
     // Configuration and Game Resources
     public String configPath;
-    public JSONObject config;
-    public JSONArray levels;
-    public JSONObject currentLevel;
+    public GameConfig config;
+    public LevelConfig currentLevel;
     public PImage background;
     public PImage[] ballImages; // Array to hold the ball images
     public PImage yellowTileImage; // Sprite for yellow tiles
+    private PImage[] wallImages; // Wall sprites by colour index
+    private PImage[] damagedWallImages; // Damaged wall sprites by colour index
+    private PImage[] holeImages; // Hole sprites by colour index
+    private PImage entryPointImage; // Sprite for spawners
 
     // Game State Variables
     private boolean isPaused = false;
     private boolean isRestarting = false;
+    private boolean logging = true; // Off for batch runs, so no log line is built for every bounce
     public boolean isDrawing;
     public boolean levelFinish = false; // Indicates if the level has ended
     private boolean isLevelCompleting = false; // Indicates if the level is in the completion phase
@@ -68,28 +84,35 @@ public class App extends PApplet {
     public int levelStartScore = 0; // Score before the current level started
     public int currentLevelIndex;
     private int spawnFrames; // How many frames between spawns
-    private int spawnCount; // Current timer for spawning balls
+    private int spawnCount; // Frames until the next spawn while the spawn timer is stopped
     private int timeSeconds; // Total time for the level in seconds
-    public int timeLeft; // Time remaining in frames
+    private int timeLeft; // Time remaining in frames while the level timer is stopped
     private int remainTime = 0;
-    private int updateScoreFrames = NEW_FPS; // Counter to track frames until the next update
+    private int scoreSteps = 0; // Steps of the completion animation taken so far
+
+    // Timers, advanced once per tick while the game is running
+    private final TimerWheel timers = new TimerWheel(this::onTimer);
+    private TimerWheel.Timer spawnTimer; // Next spawn, null while there is nothing to spawn
+    private TimerWheel.Timer levelTimeout; // End of the level's time, null while the level timer is stopped
+    private TimerWheel.Timer scoreStepTimer; // Next step of the completion animation
 
     // Game Entities
-    private Tile[][] grid; // 2D array of tiles
-    private List<Ball> balls; // Active balls in the game
-    private List<Ball> ballsToRemove; // Balls that are marked for removal
+    private TileGrid grid; // Tiles of the board, stored in chunks
+    private LevelAnalyser analyser; // Distances from each tile to the holes, kept up to date as walls fall
+    private HoleField holeField; // Pull of the holes on nearby balls, null when magnetism is off
+    private BallList balls; // Active balls in the game
     public List<EntryPoint> spawners; // Entry points for spawning balls
-    private List<String> ballsToSpawn; // Balls that still need to be spawned
+    private SpawnQueue ballsToSpawn; // Balls that still need to be spawned
     private List<Hole> holes; // List of holes in the game
-    private List<Ball> ballsLoaded; // Balls loaded from file
+    private final ObjectPool<Ball> ballPool = new ObjectPool<>(BALL_POOL_SIZE); // Captured and cleared balls
 
     // Player Input and Interaction
-    public List<Line> Lines; // List to manage multiple player-drawn lines
+    public LineList Lines; // Player-drawn lines, filed in a spatial index of their segments
     public Line drawingLine; // The line currently being drawn
-
-    // Score and Level Configuration
-    private Map<String, Integer> scoreWon;
-    private Map<String, Integer> scoreLost;
+    private boolean erasing; // Whether a right-drag is sweeping the eraser
+    private float eraserX, eraserY; // Where the eraser last swept
+    private final List<Line> erased = new ArrayList<>(); // Lines found under the eraser
+    private final ObjectPool<Line> linePool = new ObjectPool<>(LINE_POOL_SIZE); // Consumed and cleared lines
 
     // Animation and Tile Movement Variables
     public List<PVector> edgePositions;
@@ -97,9 +120,6 @@ public class App extends PApplet {
     private int yellowTile2 = 0;
     private int totalEdgeTiles;
 
-    // Utility Fields
-    public static Random random = new Random();
-
     // Offset for shifting balls in the top bar
     private float ballOffset = 0;
     private final float ballWidth = 30.0f; // Width of one ball as a float
@@ -112,6 +132,80 @@ public class App extends PApplet {
     // Load Level
     private String levelLayout = "level1.txt";
 
+    // Background preparation of the next level while the completion animation plays
+    private final ExecutorService levelPrefetcher = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "level-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<PreparedLevel> nextLevel; // Level being prepared in the background
+    private int nextLevelIndex = -1; // Index of the level being prepared
+
+    // Replay recording and playback
+    private long seed = Long.getLong("inkball.seed", System.nanoTime()); // Seed of the session's random numbers
+    private RandomStream spawnerRandom; // Chooses the spawner of each ball
+    private RandomStream velocityRandom; // Chooses the starting direction of each ball
+    private int tickCount = 0; // Simulation ticks since the session started
+    private int[] contactedWalls = new int[8]; // Tiles a ball contact damaged this tick, as y * width + x
+    private int contactedWallCount;
+    private int contactTick = -1; // Tick the contacted walls belong to
+    private String layoutOverride; // Layout played on every level instead of the configured ones
+
+    // Metrics, exported when the inkball.metrics.port property is set
+    private final Metrics metrics = new Metrics();
+    private MetricsExporter metricsExporter;
+    private int lineCollisionsThisTick = 0;
+    private int captures = 0; // Balls that have gone into a hole this session
+    private int wrongCaptures = 0; // Of those, balls that went into a hole of another colour
+    private ReplayRecorder recorder; // Records inputs while a replay is being captured
+    private ReplayPlayer replayPlayer; // Drives the inputs while a replay is played back
+
+    // View of the board below the top bar
+    private static final float PAN_STEP = 64; // Screen pixels moved per arrow key press
+    private static final float ZOOM_STEP = 1.25f; // Zoom multiplier per key press
+    private final Camera camera = new Camera(WIDTH, HEIGHT - TOPBAR);
+
+    // Input, queued as it arrives and applied at the start of the next tick
+    private final InputQueue inputs = new InputQueue(InputQueue.DEFAULT_CAPACITY);
+    private final InputQueue.Handler inputHandler = this::applyInput;
+    private final LatencyTracker latency = new LatencyTracker(metrics);
+    private boolean debugOverlay; // Whether the latency overlay is drawn, toggled with 'D'
+
+    // Frame pacing: measured always, and done here rather than by Processing when enabled
+    private static final int UNPACED_FRAME_RATE = 1000; // Lets Processing run draw() as soon as the pacer returns
+    private final FramePacer framePacer = new FramePacer(FPS, 0, metrics.frameJitter);
+    private boolean pacingFrames;
+
+    // Fast-forward: ticks run per rendered frame, chosen with '1', '2', '8' and '0'
+    public static final int SPEED_UNCAPPED = 0; // As many ticks as fit in the frame
+    private static final long UNCAPPED_BUDGET = 1_000_000_000L / FPS * 3 / 4; // Leaves a quarter of the frame to draw
+    private volatile int speed = 1;
+    private long tickRateStart; // Start of the window the tick rate is measured over
+    private long tickRateTicks; // Ticks run before that window
+    private float ticksPerSecond;
+
+    // Adaptive quality: drawing work dropped in steps while frames overrun
+    private static final int MAX_BOARD_CACHE = WIDTH * (HEIGHT - TOPBAR); // Largest board in pixels kept as one image: a view's worth
+    private final QualityController quality = new QualityController(1_000_000_000L / FPS);
+    private boolean adaptingQuality;
+    private PImage boardCache; // Background and tiles composed into one image
+    private byte[] boardCacheSprites; // Per cell, the sprite code composed into the image
+    private int boardCacheGeneration = -1; // Board generation the image was composed from, -1 for none
+    private int boardCacheVersion;
+
+    // Rendering
+    private Simulation simulation; // Ticks the game on its own thread, null when draw() ticks it
+    private final RenderState liveState = new RenderState(); // Board and top bar each frame when there is no simulation thread
+    private TileGrid publishedGrid; // Copy of the board shared by published render states
+    private TileGrid publishedGridSource; // Board the copy was taken from
+    private int publishedGridVersion;
+    private int boardGeneration; // Bumped whenever a board is installed or restored
+    private int renderedBoardGeneration; // Board the camera was last fitted to
+
+    // Game state snapshots
+    public static final String SAVE_PATH = "savegame.bin";
+    private final GameSnapshot levelStartSnapshot = new GameSnapshot(); // State when the current level began
+
     /**
      * Constructs a new {@code App} instance with the default configuration path.
      */
@@ -131,30 +225,132 @@ public class App extends PApplet {
     /**
      * Initializes the game by setting the frame rate, loading resources,
      * initializing game entities, and loading the first level.
+     * Starts recording a replay if the {@code inkball.record} system property names a file.
+     * With {@code inkball.framePacer} set, frames are paced by a {@link FramePacer} instead of
+     * Processing's frame rate. Unless {@code inkball.adaptiveQuality} is {@code false}, a
+     * {@link QualityController} lowers the drawing quality while frames overrun.
      */
     @Override
     public void setup() {
-        frameRate(FPS);
-        loadImages();
-        loadConfig();
+        pacingFrames = FramePacer.isEnabled();
+        adaptingQuality = QualityController.isEnabled();
+        frameRate(pacingFrames ? UNPACED_FRAME_RATE : FPS);
         background = loadImage("src/main/resources/inkball/tile.png");
         yellowTileImage = loadImage("src/main/resources/inkball/wall4.png");
 
-        balls = new ArrayList<>();
-        ballsToRemove = new ArrayList<>();
+        monoFont = createFont("Courier", 20);
+        textFont(monoFont);
+
+        if (metricsExporter == null) {
+            metricsExporter = MetricsExporter.startFromProperty(metrics);
+        }
+
+        if (replayPlayer != null) {
+            // Play back from the same starting point as the recording
+            seed = replayPlayer.getReplay().getSeed();
+            setupSimulation(replayPlayer.getReplay().getLevelIndex());
+        } else {
+            setupSimulation(0);
+            String recordPath = System.getProperty("inkball.record");
+            if (recordPath != null) {
+                startRecording(recordPath);
+            }
+            if (Simulation.isEnabled()) {
+                renderedBoardGeneration = boardGeneration;
+                simulation = new Simulation(this);
+                simulation.start();
+                println("Simulation running on its own thread.");
+            }
+        }
+    }
+
+    /**
+     * Loads the configuration and sprites, initializes game entities, seeds the random numbers
+     * and loads the starting level. Needs no window, so it is also used for headless runs.
+     *
+     * @param startLevel the index of the level to start from
+     */
+    public void setupSimulation(int startLevel) {
+        loadImages();
+        loadConfig();
+
+        balls = new BallList();
         spawners = new ArrayList<>();
-        Lines = new ArrayList<>();
+        Lines = new LineList(WIDTH, HEIGHT);
         drawingLine = null;
         holes = new ArrayList<>();
 
-        monoFont = createFont("Courier", 20);
-        textFont(monoFont);
-        loadLevel(currentLevelIndex = 0);
+        seedRandom();
+        tickCount = 0;
+        println("Session seed: " + seed);
+
+        loadLevel(currentLevelIndex = startLevel);
+    }
+
+    /**
+     * Splits the session seed into independent streams for spawner choice and ball velocity.
+     * Each session owns its streams, so games running side by side neither share nor contend
+     * for random numbers, and one stream is not shifted by draws from the other.
+     */
+    private void seedRandom() {
+        SplittableRandom sessionRandom = new SplittableRandom(seed);
+        spawnerRandom = new RandomStream(sessionRandom.split());
+        velocityRandom = new RandomStream(sessionRandom.split());
     }
 
     /**
-     * Loads all necessary images for the game, including ball and wall sprites.
-     * Images are loaded from the specified resource paths.
+     * Creates a game that runs without a window, for replays and automated runs.
+     * Advance it with {@link #tick()}; nothing is drawn.
+     *
+     * @param configPath the path to the configuration JSON file
+     * @param seed       the seed for the session's random numbers
+     * @param startLevel the index of the level to start from
+     * @return the ready-to-tick game
+     */
+    public static App createHeadless(String configPath, long seed, int startLevel) {
+        return createHeadless(configPath, seed, startLevel, null);
+    }
+
+    /**
+     * Creates a game that runs without a window and plays one layout file on every level,
+     * keeping each level's time, spawns and scoring from the configuration.
+     *
+     * @param configPath the path to the configuration JSON file
+     * @param seed       the seed for the session's random numbers
+     * @param startLevel the index of the level to start from
+     * @param layout     the path of the layout file, or {@code null} for the configured layouts
+     * @return the ready-to-tick game
+     */
+    public static App createHeadless(String configPath, long seed, int startLevel, String layout) {
+        return createHeadless(configPath, seed, startLevel, layout, true);
+    }
+
+    /**
+     * Creates a game that runs without a window, optionally without logging its events.
+     * Batch runs turn logging off so the games neither format log lines nor contend for the console.
+     *
+     * @param configPath the path to the configuration JSON file
+     * @param seed       the seed for the session's random numbers
+     * @param startLevel the index of the level to start from
+     * @param layout     the path of the layout file, or {@code null} for the configured layouts
+     * @param logging    whether the game logs bounces, hits, captures and level loads
+     * @return the ready-to-tick game
+     */
+    public static App createHeadless(String configPath, long seed, int startLevel, String layout, boolean logging) {
+        App app = new App();
+        app.logging = logging;
+        app.setConfigPath(configPath);
+        app.layoutOverride = layout;
+        app.sketchPath(); // Resolve files relative to the working directory without a running sketch
+        app.seed = seed;
+        app.setupSimulation(startLevel);
+        return app;
+    }
+
+    /**
+     * Loads all necessary images for the game, including ball, wall, hole and spawner sprites.
+     * Images are loaded from the specified resource paths once and shared by every tile,
+     * so levels can be built without touching the disk for sprites.
      */
     public void loadImages() {
         // Preload ball images (indices 0 to 4)
@@ -164,46 +360,37 @@ public class App extends PApplet {
             ballImages[i] = loadImage(path);
         }
 
-        // Preload wall images (indices 0 to 4)
+        // Preload wall, damaged wall and hole images (indices 0 to 4)
+        PImage[] walls = new PImage[5];
+        PImage[] damagedWalls = new PImage[5];
+        PImage[] holeSprites = new PImage[5];
         for (int i = 0; i <= 4; i++) {
             String path = "src/main/resources/inkball/wall" + i + ".png";
-            PImage wallImage = loadImage(path);
-            if (wallImage == null) {
+            walls[i] = loadImage(path);
+            if (walls[i] == null) {
                 System.err.println("Failed to load wall from: " + path);
             } else {
                 System.out.println("Loaded wall from: " + path);
             }
+            damagedWalls[i] = loadImage("src/main/resources/inkball/walld" + i + ".png");
+            holeSprites[i] = loadImage("src/main/resources/inkball/hole" + i + ".png");
         }
+        entryPointImage = loadImage("src/main/resources/inkball/entrypoint.png");
+        damagedWallImages = damagedWalls;
+        holeImages = holeSprites;
+        wallImages = walls;
     }
 
     /**
      * Loads the game configuration from a JSON file.
-     * Initializes scoring maps based on the configuration.
+     * The file is parsed and validated once into a {@link GameConfig}.
+     *
+     * @throws IllegalArgumentException if the configuration is invalid
      */
     public void loadConfig() {
-        config = loadJSONObject(configPath);
-        levels = config.getJSONArray("levels");
-
-        // Initialize scoring maps
-        scoreWon = new HashMap<>();
-        JSONObject increaseScores = config.getJSONObject("score_increase_from_hole_capture");
-        if (increaseScores != null) {
-            Set<?> keys = increaseScores.keys(); // Use Set<?> to parameterize the raw type
-            for (Object keyObj : keys) {
-                String colour = keyObj.toString();
-                int score = increaseScores.getInt(colour); // Default to 10 if not found
-                scoreWon.put(colour.toLowerCase(), score);
-            }
-        }
-        scoreLost = new HashMap<>();
-        JSONObject decreaseScores = config.getJSONObject("score_decrease_from_wrong_hole");
-        if (decreaseScores != null) {
-            Set<?> keys = decreaseScores.keys(); // Use Set<?> here as well
-            for (Object keyObj : keys) {
-                String color = keyObj.toString();
-                int penalty = decreaseScores.getInt(color, 5); // Default to 5 if not found
-                scoreLost.put(color.toLowerCase(), penalty);
-            }
+        config = GameConfig.parse(loadJSONObject(configPath));
+        if (layoutOverride != null) {
+            config = config.withLayout(layoutOverride);
         }
         println("Config load finishes!");
     }
@@ -215,40 +402,60 @@ public class App extends PApplet {
      * @param i the index of the level to load
      */
     public void loadLevel(int i) {
-        if (i >= levels.size()) {
+        if (i >= config.getLevelCount()) {
             println("All Levels loaded. Game finishes!");
             noLoop(); // Stop the game loop
             return;
         }
 
-        Lines.clear();
+        GameEvents.LevelLoad event = new GameEvents.LevelLoad();
+        event.begin();
+
+        // Use the level prepared in the background if there is one, otherwise build it now
+        PreparedLevel level = takePrefetchedLevel(i);
+        event.prefetched = level != null;
+        if (level == null) {
+            level = PreparedLevel.prepare(this, i);
+        }
+
+        clearLines();
 
-        currentLevel = levels.getJSONObject(i);
-        levelLayout = currentLevel.getString("layout");
-        loadLevelLayout();
+        currentLevel = level.getConfig();
+        levelLayout = level.getLayout();
+        installLayout(level);
 
         // Store the current score as the starting score for the level
         levelStartScore = score;
 
+        // Timers of the previous level no longer apply
+        timers.clear();
+        spawnTimer = null;
+        levelTimeout = null;
+        scoreStepTimer = null;
+
         // Initialize spawn interval
-        int spwanTime = currentLevel.getInt("spawn_interval");
-        spawnFrames = spwanTime * FPS;
+        spawnFrames = level.getSpawnInterval() * FPS;
         spawnCount = spawnFrames;
 
         // Load balls to spawn
-        ballsToSpawn = new ArrayList<>();
-        JSONArray ballsArray = currentLevel.getJSONArray("balls");
-        for (int j = 0; j < ballsArray.size(); j++) {
-            ballsToSpawn.add(ballsArray.getString(j));
+        ballsToSpawn = level.getBallsToSpawn();
+        if (!analyser.isCompletable(ballsToSpawn)) {
+            System.err.println("Warning: level " + i + " has balls that cannot reach a matching hole from every spawner.");
         }
+        startSpawnTimer();
 
         // Initialize level timer
-        timeSeconds = currentLevel.getInt("time"); // Default to 120 seconds if not specified
+        timeSeconds = level.getTime();
         timeLeft = timeSeconds * FPS;
+        startLevelTimer();
 
         // Reset level flags
         levelFinish = false;
         isLevelCompleting = false;
+
+        // Cache the starting state so a restart does not need to rebuild the level
+        levelStartSnapshot.capture(this);
+        commitLevelLoad(event, i, false);
     }
 
     /**
@@ -256,74 +463,474 @@ public class App extends PApplet {
      * Initializes tiles, spawners, holes, and preloaded balls based on the layout.
      */
     public void loadLevelLayout() {
+        GameEvents.LevelLoad event = new GameEvents.LevelLoad();
+        event.begin();
+        installLayout(PreparedLevel.prepareLayout(this, levelLayout));
+        commitLevelLoad(event, currentLevelIndex, true);
+    }
+
+    private void commitLevelLoad(GameEvents.LevelLoad event, int index, boolean layoutOnly) {
+        if (event.shouldCommit()) {
+            event.level = index;
+            event.layout = levelLayout;
+            event.layoutOnly = layoutOnly;
+            event.width = grid.getWidth();
+            event.height = grid.getHeight();
+            event.balls = balls.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Swaps the tiles, spawners, holes and preloaded balls of a prepared level into the game.
+     *
+     * @param level the prepared level to install
+     */
+    private void installLayout(PreparedLevel level) {
         holes.clear(); // Clear existing holes
+        holes.addAll(level.getHoles());
         spawners.clear(); // Clear existing spawners
-        ballsLoaded = new ArrayList<>(); // Initialize the list of balls from the file
-        List<String> tokens = Arrays.asList(loadStrings(levelLayout));
-        grid = new Tile[GRID_HEIGHT][GRID_WIDTH]; // 2D ArrayList
-
-        for (int y = 0; y < GRID_HEIGHT; y++) {
-            String line = y < tokens.size() ? tokens.get(y) : "";
-            for (int x = 0; x < GRID_WIDTH; x++) {
-                Tile tile = null;
-                if (x < line.length()) {
-                    char c = line.charAt(x);
-
-                    if (c == 'X') {
-                        tile = new GreyTile(x, y, this);
-                        System.out.println("Created Wall at (" + x + ", " + y + ")");
-                    } else if (c == '1' || c == '2' || c == '3' || c == '4') {
-                        int colour = Character.getNumericValue(c);
-                        tile = new ColourTile(x, y, colour, this);
-                    } else if (c == 'S') {
-                        tile = new EntryPoint(x, y, this);
-                        spawners.add((EntryPoint) tile); // Collect spawners
-                        System.out.println("Created EntryPoint/Spawner at (" + x + ", " + y + ")");
-                    } else if (c == 'H' && x + 1 < line.length()) {
-                        char colourChar = line.charAt(x + 1);
-                        int holeColour = Character.getNumericValue(colourChar);
-                        putHoles(x, y, holeColour);
-                        System.out.println("Created Hole at (" + x + ", " + y + ") with color index: " + holeColour);
-                        x++; // Skip the next character since it's part of the hole definition
-                        continue;
-                    } else if (c == 'B' && x + 1 < line.length()) {
-                        char colourChar = line.charAt(x + 1);
-                        int ballColour = Character.getNumericValue(colourChar);
-                        Ball ball = new Ball(x * TILE_SIZE, y * TILE_SIZE, ballColour, this);
-                        balls.add(ball); // Add to the list of active balls
-                        ballsLoaded.add(ball); // Track that this ball was loaded from the file
-                        System.out.println("Created Ball at (" + x + ", " + y + ") with color index: " + ballColour);
-                        x++; // Skip the next character since it's part of the ball definition
-                    } else {
-                        tile = null;
-                    }
+        spawners.addAll(level.getSpawners());
+        for (Ball ball : level.getLoadedBalls()) {
+            ball.launch(); // Drawn here so a level built in the background leaves the stream untouched
+            balls.add(ball); // Balls from the file
+        }
+        grid = level.getGrid();
+        analyser = level.getAnalyser();
+        holeField = level.getHoleField();
+        contactedWallCount = 0;
+        Lines.getIndex().resize(getBoardRight(), getBoardBottom());
+        boardGeneration++;
+        if (simulation == null) {
+            camera.reset(getBoardRight(), getBoardBottom() - TOPBAR); // Otherwise the renderer refits it
+        }
+        if (logging) {
+            System.out.println("Level layout loaded from: " + levelLayout);
+            System.out.println("Number of holes loaded: " + holes.size());
+        }
+    }
 
-                    grid[y][x] = tile;
-                } else {
-                    grid[y][x] = null;
-                }
-            }
+    /**
+     * Starts preparing a level on the background thread so it is ready when the
+     * level-complete animation ends.
+     *
+     * @param i the index of the level to prepare
+     */
+    public void prefetchLevel(int i) {
+        if (i >= config.getLevelCount() || (nextLevel != null && nextLevelIndex == i)) {
+            return;
+        }
+        if (nextLevel != null) {
+            nextLevel.cancel(true);
+        }
+        nextLevelIndex = i;
+        nextLevel = levelPrefetcher.submit(() -> PreparedLevel.prepare(this, i));
+        println("Preparing level " + i + " in the background.");
+    }
+
+    /**
+     * Takes the level prepared in the background if it matches the requested index.
+     * Waits for it if it is still being built.
+     *
+     * @param i the index of the level that is about to be loaded
+     * @return the prepared level, or {@code null} if none is available for that index
+     */
+    private PreparedLevel takePrefetchedLevel(int i) {
+        Future<PreparedLevel> pending = nextLevel;
+        int pendingIndex = nextLevelIndex;
+        nextLevel = null;
+        nextLevelIndex = -1;
+        if (pending == null) {
+            return null;
+        }
+        if (pendingIndex != i) {
+            pending.cancel(true);
+            return null;
+        }
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            System.err.println("Failed to prepare level " + i + " in the background: " + e.getCause());
+            return null;
         }
-        System.out.println("Level layout loaded from: " + levelLayout);
-        System.out.println("Number of holes loaded: " + holes.size());
     }
 
     /**
      * The main drawing loop that is called repeatedly to render the game.
-     * It handles rendering of UI components, game elements, and updates game logic.
+     * Advances the game logic by one tick, or several when fast-forwarding, then renders the result.
+     * With {@code inkball.framePacer} set, first waits for the frame's deadline.
      */
     @Override
     public void draw() {
-        drawTopBar();
-        drawBackground();
-        drawGrid();
-        drawLines();
-        spawnCountdown();
-        timeDisplay();
+        long start = pacingFrames ? framePacer.await() : framePacer.mark(System.nanoTime());
+        if (advanceFrame(start) < 0) {
+            return;
+        }
+        boolean drawn = quality.shouldDraw(frameCount);
+        if (drawn) {
+            render();
+        }
+        long work = System.nanoTime() - start;
+        if (work > 1_000_000_000L / FPS) {
+            metrics.frameOverruns.increment();
+        }
+        if (drawn && adaptingQuality && speed == 1) { // Fast-forward fills frames on purpose
+            quality.observe(work);
+            metrics.qualityLevel.set(quality.getLevel().ordinal());
+        }
+    }
+
+    /**
+     * Runs the ticks of one frame at the chosen speed, feeding in the inputs of a replay being played.
+     *
+     * @param frameStart the {@link System#nanoTime()} the frame started at
+     * @return the number of ticks run, or -1 if a replay had already ended and there is nothing to draw
+     */
+    int advanceFrame(long frameStart) {
+        int ticks = 0;
+        do {
+            if (replayPlayer != null) {
+                if (replayPlayer.isFinished(this)) {
+                    finishReplay();
+                    if (ticks == 0) {
+                        return -1;
+                    }
+                    break; // Show where the replay ended
+                }
+                replayPlayer.feed(this);
+            }
+            if (simulation != null) {
+                break; // The simulation thread ticks at its own speed
+            }
+            tick();
+            ticks++;
+        } while (wantsAnotherTick(ticks, frameStart));
+        return ticks;
+    }
+
+    /**
+     * Decides whether one more tick belongs to the current frame at the chosen speed.
+     * Each tick is the same fixed step whatever the speed, so fast-forwarding never changes the outcome.
+     *
+     * @param ticksRun   the ticks already run for the frame
+     * @param frameStart the {@link System#nanoTime()} the frame started at
+     * @return {@code true} if another tick should run before the frame is drawn
+     */
+    public boolean wantsAnotherTick(int ticksRun, long frameStart) {
+        int ticksPerFrame = speed;
+        if (ticksPerFrame == SPEED_UNCAPPED) {
+            return System.nanoTime() - frameStart < UNCAPPED_BUDGET;
+        }
+        return ticksRun < ticksPerFrame;
+    }
+
+    /**
+     * Sets how many ticks run for each rendered frame.
+     *
+     * @param speed the ticks per frame, or {@link #SPEED_UNCAPPED} for as many as fit in a frame
+     */
+    public void setSpeed(int speed) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Speed must not be negative: " + speed);
+        }
+        this.speed = speed;
+    }
+
+    public int getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Retrieves the tick rate achieved over the last full second of frames.
+     *
+     * @return the ticks per second, 0 until a second has been measured
+     */
+    public float getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    private void measureTickRate(long now) {
+        long ticks = metrics.ticks.get();
+        if (tickRateStart == 0) {
+            tickRateStart = now;
+            tickRateTicks = ticks;
+        } else if (now - tickRateStart >= 1_000_000_000L) {
+            ticksPerSecond = (ticks - tickRateTicks) * 1e9f / (now - tickRateStart);
+            tickRateStart = now;
+            tickRateTicks = ticks;
+        }
+    }
+
+    /**
+     * Advances the game logic by one fixed step without drawing anything:
+     * spawning, timers, ball movement and collisions, scoring and level transitions.
+     */
+    public void tick() {
+        long start = System.nanoTime();
+        inputs.drain(inputHandler);
+        GameEvents.Tick event = new GameEvents.Tick();
+        event.begin();
+        GameEvents.TickPhase phase = GameEvents.TickPhase.start("topBarShift", tickCount);
+        updateTopBarShift();
+        phase = phase.next("timers", balls.size());
+        advanceTimers();
+        phase = phase.next("balls", balls.size());
         updateBalls();
-        HitAnimation();
-        scoreUpdates();
+        phase = phase.next("levelComplete", balls.size());
         levelCompleteAnimation();
+        phase.finish(balls.size());
+        if (event.shouldCommit()) {
+            event.tick = tickCount;
+            event.level = currentLevelIndex;
+            event.balls = balls.size();
+            event.lines = Lines.size();
+            event.segments = countSegments();
+            event.commit();
+        }
+        tickCount++;
+        metrics.ticks.increment();
+        metrics.tickNanos.observe(System.nanoTime() - start);
+    }
+
+    /**
+     * Draws the current game state: top bar, board, lines, balls and the completion animation.
+     * With a simulation thread this draws the newest state it has published; otherwise the
+     * balls and lines are drawn straight from the live game, so only those in view cost anything.
+     */
+    public void render() {
+        RenderState state;
+        if (simulation != null) {
+            state = simulation.getLatest();
+            if (state.boardGeneration != renderedBoardGeneration) {
+                camera.reset(state.boardRight, state.boardBottom - TOPBAR);
+                renderedBoardGeneration = state.boardGeneration;
+            }
+            render(state, false);
+        } else {
+            state = captureLiveState();
+            render(state, true);
+        }
+        measureTickRate(System.nanoTime());
+        if (speed != 1) {
+            drawSpeed();
+        }
+        if (debugOverlay) {
+            drawDebugOverlay();
+        }
+        latency.presented(state.tick, System.nanoTime());
+    }
+
+    /**
+     * Draws the fast-forward speed and the tick rate it achieves in the corner under the top bar.
+     */
+    public void drawSpeed() {
+        fill(0);
+        textSize(16);
+        textAlign(RIGHT, TOP);
+        String label = speed == SPEED_UNCAPPED ? "turbo" : speed + "x";
+        text(String.format("%s  %.0f ticks/s", label, ticksPerSecond), WIDTH - 10, TOPBAR + 5);
+    }
+
+    /**
+     * Draws the input latency of each event type over the board: the time until the event was
+     * applied by a tick and until it was first drawn, as bucketed medians and 99th percentiles,
+     * followed by the jitter of frames and simulation thread ticks.
+     */
+    public void drawDebugOverlay() {
+        int rowHeight = 18;
+        int x = 10;
+        int y = TOPBAR + 10;
+        fill(0, 180);
+        noStroke();
+        rect(x, y, 420, rowHeight * 8 + 10);
+        fill(255);
+        textSize(14);
+        textAlign(LEFT, TOP);
+        text(String.format("input latency ms  tick p50/p99  frame p50/p99  count  %.0f fps %.0f tps",
+                frameRate, ticksPerSecond), x + 5, y + 5);
+        for (byte type = Replay.MOUSE_PRESS; type <= Replay.KEY_RELEASE; type++) {
+            Metrics.Histogram applied = latency.getApplied(type);
+            Metrics.Histogram presented = latency.getPresented(type);
+            text(String.format("%-16s  %5s/%-6s  %6s/%-6s  %d", LatencyTracker.getName(type),
+                    millis(applied.quantile(0.5)), millis(applied.quantile(0.99)),
+                    millis(presented.quantile(0.5)), millis(presented.quantile(0.99)), presented.getCount()),
+                    x + 5, y + 5 + rowHeight * type);
+        }
+        text("unpresented " + latency.getUnpresented() + ", dropped " + metrics.inputsDropped.get(),
+                x + 5, y + 5 + rowHeight * 6);
+        text(String.format("jitter ms  frame %s/%s  tick %s/%s%s  quality %s",
+                millis(metrics.frameJitter.quantile(0.5)), millis(metrics.frameJitter.quantile(0.99)),
+                millis(metrics.tickJitter.quantile(0.5)), millis(metrics.tickJitter.quantile(0.99)),
+                pacingFrames ? "  paced" : "", quality.getLevel()), x + 5, y + 5 + rowHeight * 7);
+    }
+
+    private static String millis(long nanos) {
+        return nanos == Long.MAX_VALUE ? "slow" : String.format("%.1f", nanos / 1_000_000.0);
+    }
+
+    /**
+     * Draws a frame from a render state.
+     *
+     * @param state the state to draw
+     */
+    public void render(RenderState state) {
+        render(state, false);
+    }
+
+    /**
+     * Draws a frame.
+     *
+     * @param state the state to draw the board, completion animation and top bar from
+     * @param live  whether to draw the balls and lines from the live game instead of the state
+     */
+    private void render(RenderState state, boolean live) {
+        if (camera.getRight() > state.boardRight || camera.getBottom() > state.boardBottom) {
+            background(200); // Clear around a board smaller than the view
+        }
+        pushMatrix();
+        camera.apply(this);
+        if (!quality.cachesBoard() || !drawCachedBoard(state)) {
+            drawBackground(state);
+            drawGrid(state);
+        }
+        if (live) {
+            drawLines();
+            drawBalls();
+        } else {
+            drawLines(state);
+            drawBalls(state);
+        }
+        if (state.completing) {
+            drawYellowTiles(state);
+        }
+        popMatrix();
+        drawTopBar(state); // Drawn last so the board never covers it when zoomed
+    }
+
+    /**
+     * Fills the live state with the board and the top bar, which take the same time to copy
+     * however much is on the board. Balls and lines are left out; they are drawn from the game.
+     */
+    private RenderState captureLiveState() {
+        captureFrame(liveState, false);
+        liveState.ballCount = 0;
+        liveState.lineCount = 0;
+        liveState.pointCount = 0;
+        return liveState;
+    }
+
+    /**
+     * Copies what the renderer needs out of the game.
+     *
+     * @param state     the state to fill
+     * @param copyBoard whether the state is drawn on another thread, so it needs its own copy of the
+     *                  board; the copy is only taken again when the board has changed
+     */
+    void captureRenderState(RenderState state, boolean copyBoard) {
+        captureFrame(state, copyBoard);
+
+        state.ensureBalls(balls.size());
+        int ballCount = 0;
+        for (int i = 0; i < balls.size(); i++) {
+            Ball ball = balls.get(i);
+            if (ball.isCaptured()) {
+                continue;
+            }
+            PVector position = ball.getPosition();
+            state.ballX[ballCount] = position.x;
+            state.ballY[ballCount] = position.y;
+            state.ballSize[ballCount] = ball.getCurrentSize();
+            state.ballColour[ballCount] = ball.getColour();
+            ballCount++;
+        }
+        state.ballCount = ballCount;
+
+        int pointCount = 0;
+        for (Line line : Lines) {
+            pointCount += line.getPoints().size();
+        }
+        state.ensureLines(Lines.size(), pointCount);
+        int point = 0;
+        for (int i = 0; i < Lines.size(); i++) {
+            for (PVector p : Lines.get(i).getPoints().values()) {
+                state.pointX[point] = p.x;
+                state.pointY[point] = p.y;
+                point++;
+            }
+            state.lineEnds[i] = point;
+        }
+        state.lineCount = Lines.size();
+        state.pointCount = point;
+    }
+
+    /**
+     * Copies the board, the completion animation and the top bar out of the game.
+     */
+    private void captureFrame(RenderState state, boolean copyBoard) {
+        if (!copyBoard) {
+            state.grid = grid; // Drawn on this thread, so the live board can be used
+        } else {
+            if (publishedGridSource != grid || publishedGridVersion != grid.getVersion()) {
+                publishedGrid = grid.copy();
+                publishedGridSource = grid;
+                publishedGridVersion = grid.getVersion();
+            }
+            state.grid = publishedGrid;
+        }
+        state.boardRight = getBoardRight();
+        state.boardBottom = getBoardBottom();
+        state.boardGeneration = boardGeneration;
+
+        state.completing = isLevelCompleting && edgePositions != null;
+        if (edgePositions != null && !edgePositions.isEmpty()) {
+            PVector p1 = edgePositions.get(yellowTile1);
+            PVector p2 = edgePositions.get(yellowTile2);
+            state.yellowX1 = (int) p1.x;
+            state.yellowY1 = (int) p1.y;
+            state.yellowX2 = (int) p2.x;
+            state.yellowY2 = (int) p2.y;
+        } else {
+            state.yellowX1 = -1;
+        }
+
+        state.tick = tickCount;
+        state.score = score;
+        state.timeLeft = getTimeLeft();
+        state.spawnCount = getSpawnCount();
+        state.queued = ballsToSpawn.size();
+        for (int i = 0; i < Math.min(state.queued, RenderState.QUEUE_SHOWN); i++) {
+            state.queue[i] = ballsToSpawn.peek(i);
+        }
+        state.ballOffset = ballOffset;
+        state.levelFinish = levelFinish;
+        state.gameEnded = currentLevelIndex >= config.getLevelCount();
+        state.paused = isPaused;
+    }
+
+    /**
+     * Advances the shift animation of the upcoming balls in the top bar.
+     * The spawned ball leaves the queue once the shift completes.
+     */
+    public void updateTopBarShift() {
+        // Shift balls when shiftRemaining > 0
+        if (shiftRemaining > 0) {
+            float shiftAmount = ballWidth / totalShiftFrames;
+            ballOffset += shiftAmount;
+            shiftRemaining--;
+            if (shiftRemaining == 0) {
+                ballOffset = 0;
+                // Remove the first ball from ballsToSpawn after shift completes
+                if (!ballsToSpawn.isEmpty()) {
+                    ballsToSpawn.pop();
+                }
+                if (ballsToSpawn.isEmpty()) {
+                    stopSpawnTimer(); // The countdown waits for the next refill
+                }
+            }
+        }
     }
 
     /**
@@ -331,6 +938,15 @@ public class App extends PApplet {
      * and game status indicators such as pause and level finish.
      */
     public void drawTopBar() {
+        drawTopBar(captureLiveState());
+    }
+
+    /**
+     * Draws the top bar from a render state.
+     *
+     * @param state the state to draw
+     */
+    public void drawTopBar(RenderState state) {
         fill(192);
         noStroke(); // No outline (stroke) around shapes.
         rect(0, 0, WIDTH, TOPBAR);
@@ -345,43 +961,27 @@ public class App extends PApplet {
         fill(0); // Black color
         rect(rectX, rectY, rectWidth, rectHeight); // Draw at fixed position with updated width
 
-        // Shift balls when shiftRemaining > 0
-        if (shiftRemaining > 0) {
-            float shiftAmount = ballWidth / totalShiftFrames;
-            ballOffset += shiftAmount;
-            shiftRemaining--;
-            if (shiftRemaining == 0) {
-                ballOffset = 0;
-                // Remove the first ball from ballsToSpawn after shift completes
-                if (!ballsToSpawn.isEmpty()) {
-                    ballsToSpawn.remove(0);
-                }
-            }
-        }
-
         // Draw up to 5 upcoming balls in the black rectangle
-        int max = 5;
-        int ballsToShow = Math.min(ballsToSpawn.size(), max);
+        int ballsToShow = Math.min(state.queued, RenderState.QUEUE_SHOWN);
 
         for (int i = 0; i < ballsToShow; i++) {
-            String colorString = ballsToSpawn.get(i);
-            int colorInt = colourToInt(colorString);
+            int colorInt = state.queue[i];
             PImage ballImage = ballImages[colorInt]; // Use preloaded sprites
             int startY = (TOPBAR - 25) / 2; // Center the balls vertically
 
-            float x = rectX + 5 + i * ballWidth - ballOffset;
+            float x = rectX + 5 + i * ballWidth - state.ballOffset;
             if (x >= rectX && x <= rectX + rectWidth - ballWidth) {
                 image(ballImage, x, startY); // Draw the ball at the updated position
             }
         }
 
         // Draw spawn interval countdown only if there are balls to spawn
-        if (!ballsToSpawn.isEmpty()) {
+        if (state.queued > 0) {
             fill(0); // Black color for text
             textSize(20);
             textAlign(LEFT, CENTER);
             int countdownX = rectX + rectWidth + 10; // Position to the right of the black rectangle
-            String countdownText = String.format("%.1f", spawnCount / (float)FPS); // Show as a decimal
+            String countdownText = String.format("%.1f", state.spawnCount / (float)FPS); // Show as a decimal
             text(countdownText, countdownX, TOPBAR / 2);
         }
 
@@ -398,20 +998,20 @@ public class App extends PApplet {
         float timerY = TOPBAR / 2 + 10; // y position for timer
 
         // Display score with fixed alignment and leading zeros
-        String scoreText = String.format("Score: %03d", score); // Pads score with leading zeros to 3 digits
+        String scoreText = String.format("Score: %03d", state.score); // Pads score with leading zeros to 3 digits
         text(scoreText, scoreX, scoreY); // Fixed position
 
         // Display timer with fixed alignment and leading zeros
-        int timeRemaining = timeLeft / FPS;
+        int timeRemaining = state.timeLeft / FPS;
         String timerText = String.format("Time: %03d", timeRemaining); // Pads time with leading zeros to 3 digits
         text(timerText, timerX, timerY); // Fixed position
 
         // Display end game messages
-        if (levelFinish) {
+        if (state.levelFinish) {
             fill(255, 0, 0); // Red color
             textSize(16);
             textAlign(CENTER, CENTER);
-            if (currentLevelIndex >= levels.size()) {
+            if (state.gameEnded) {
                 // Game has ended after the last level
                 text("===ENDED===", WIDTH / 2, TOPBAR / 2);
             } else {
@@ -421,7 +1021,7 @@ public class App extends PApplet {
         }
 
         // Display pause indicator if the game is paused
-        if (isPaused) {
+        if (state.paused) {
             fill(255, 0, 0); // Red color for emphasis
             textSize(16);
             textAlign(CENTER, CENTER);
@@ -434,60 +1034,348 @@ public class App extends PApplet {
      * This method is used for visual effects during level completion.
      */
     public void drawYellowTiles() {
+        drawYellowTiles(captureLiveState());
+    }
+
+    /**
+     * Draws the yellow tiles of a render state.
+     *
+     * @param state the state to draw
+     */
+    public void drawYellowTiles(RenderState state) {
+        if (state.yellowX1 < 0) {
+            return; // No edges to move along
+        }
         // Draw yellow tile 1
-        PVector p1 = edgePositions.get(yellowTile1);
-        int x1 = (int) p1.x * TILE_SIZE;
-        int y1 = (int) p1.y * TILE_SIZE + TOPBAR;
+        int x1 = state.yellowX1 * TILE_SIZE;
+        int y1 = state.yellowY1 * TILE_SIZE + TOPBAR;
         image(yellowTileImage, x1, y1, TILE_SIZE, TILE_SIZE); // Draw the sprite at the current position
 
         // Draw yellow tile 2
-        PVector p2 = edgePositions.get(yellowTile2);
-        int x2 = (int) p2.x * TILE_SIZE;
-        int y2 = (int) p2.y * TILE_SIZE + TOPBAR;
+        int x2 = state.yellowX2 * TILE_SIZE;
+        int y2 = state.yellowY2 * TILE_SIZE + TOPBAR;
         image(yellowTileImage, x2, y2, TILE_SIZE, TILE_SIZE); // Draw the sprite at the current position
     }
 
     /**
-     * Draws all player-drawn lines on the game area.
+     * Draws the player-drawn lines in view straight from the game.
      * Lines are not drawn if the level has finished.
      */
     public void drawLines() {
         if (!levelFinish) {
+            float left = camera.getLeft();
+            float top = camera.getTop();
+            float right = camera.getRight();
+            float bottom = camera.getBottom();
+            int step = quality.getLineStep();
             for (Line line : Lines) {
-                line.draw(this);
+                line.draw(this, step, left, top, right, bottom);
+            }
+        }
+    }
+
+    /**
+     * Draws the lines of a render state that are in view.
+     *
+     * @param state the state to draw
+     */
+    public void drawLines(RenderState state) {
+        if (!state.levelFinish) {
+            float left = camera.getLeft();
+            float top = camera.getTop();
+            float right = camera.getRight();
+            float bottom = camera.getBottom();
+            for (int i = 0; i < state.lineCount; i++) {
+                Line.drawPath(this, state.pointX, state.pointY, state.lineStart(i), state.lineEnds[i],
+                        quality.getLineStep(), left, top, right, bottom);
             }
         }
     }
 
     /**
-     * Renders the background tiles across the entire game grid.
+     * Renders the background tiles of the part of the board in view.
      */
-    private void drawBackground() {
-        for (int y = 0; y < GRID_HEIGHT; y++) {
-            for (int x = 0; x < GRID_WIDTH; x++) {
+    private void drawBackground(RenderState state) {
+        int maxX = Math.min(state.grid.getWidth() - 1, getLastVisibleColumn());
+        int maxY = Math.min(state.grid.getHeight() - 1, getLastVisibleRow());
+        for (int y = getFirstVisibleRow(); y <= maxY; y++) {
+            for (int x = getFirstVisibleColumn(); x <= maxX; x++) {
                 image(background, x * TILE_SIZE, y * TILE_SIZE + TOPBAR);
             }
         }
     }
 
     /**
-     * Draws all tiles present in the game grid.
-     * Also updates cooldowns for GreyTiles and ColourTiles.
+     * Draws the tiles of the part of the board in view.
      */
     public void drawGrid() {
-        for (int y = 0; y < GRID_HEIGHT; y++) {
-            for (int x = 0; x < GRID_WIDTH; x++) {
-                Tile tile = grid[y][x];
-                if (tile != null) {
-                    tile.draw(this);
+        drawGrid(captureLiveState());
+    }
+
+    /**
+     * Draws the tiles of a render state's board that are in view.
+     *
+     * @param state the state to draw
+     */
+    public void drawGrid(RenderState state) {
+        state.grid.forEachCellIn(getFirstVisibleColumn(), getFirstVisibleRow(),
+                getLastVisibleColumn(), getLastVisibleRow(), this::drawCell);
+    }
+
+    private void drawCell(int x, int y, byte type, byte colour, byte damage) {
+        PImage sprite = getCellSprite(type, colour, damage);
+        if (sprite != null) {
+            image(sprite, x * TILE_SIZE, y * TILE_SIZE + TOPBAR);
+        }
+    }
+
+    private PImage getCellSprite(byte type, byte colour, byte damage) {
+        switch (type) {
+            case TileGrid.WALL:
+                return damage >= 2 ? getDamagedWallImage(colour) : getWallImage(colour);
+            case TileGrid.HOLE:
+                return getHoleImage(colour);
+            case TileGrid.SPAWNER:
+                return getEntryPointImage();
+            default:
+                return null; // The rest of a hole is covered by its top-left sprite
+        }
+    }
+
+    /**
+     * Draws the part in view of an image of the board's background and tiles. When tiles change,
+     * only their cells are composed again; the whole image is only composed for a new board,
+     * told apart by the state's board generation.
+     *
+     * @param state the state to draw
+     * @return {@code false} if the board is larger than a view, so nothing was drawn
+     */
+    private boolean drawCachedBoard(RenderState state) {
+        TileGrid board = state.grid;
+        int width = board.getWidth() * TILE_SIZE;
+        int height = board.getHeight() * TILE_SIZE;
+        if (width * height > MAX_BOARD_CACHE) {
+            return false;
+        }
+        if (boardCache == null || boardCache.width != width || boardCache.height != height) {
+            boardCache = createImage(width, height, RGB);
+            boardCacheSprites = new byte[board.getWidth() * board.getHeight()];
+            boardCacheGeneration = -1;
+        }
+        if (boardCacheGeneration != state.boardGeneration) {
+            composeBoard(board); // Versions of different boards say nothing about each other
+            boardCache.updatePixels();
+            boardCacheGeneration = state.boardGeneration;
+            boardCacheVersion = board.getVersion();
+        } else if (boardCacheVersion != board.getVersion()) {
+            if (!recomposeChangedCells(board)) {
+                composeBoard(board);
+            }
+            boardCache.updatePixels();
+            boardCacheVersion = board.getVersion();
+        }
+        int left = Math.max(0, (int) camera.getLeft());
+        int top = Math.max(0, (int) camera.getTop() - TOPBAR);
+        int right = Math.min(width, (int) Math.ceil(camera.getRight()));
+        int bottom = Math.min(height, (int) Math.ceil(camera.getBottom()) - TOPBAR);
+        if (right > left && bottom > top) {
+            image(boardCache, left, top + TOPBAR, right - left, bottom - top, left, top, right, bottom);
+        }
+        return true;
+    }
+
+    /**
+     * Composes the whole board into the cached image. Composed pixel by pixel, so the image needs
+     * no renderer of its own.
+     */
+    private void composeBoard(TileGrid board) {
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int x = 0; x < board.getWidth(); x++) {
+                boardCache.copy(background, 0, 0, background.width, background.height,
+                        x * TILE_SIZE, y * TILE_SIZE, background.width, background.height);
+                boardCacheSprites[y * board.getWidth() + x] = 0;
+            }
+        }
+        board.forEachCell((x, y, type, colour, damage) -> {
+            blendCell(x, y, type, colour, damage);
+            boardCacheSprites[y * board.getWidth() + x] = getSpriteCode(type, colour, damage);
+        });
+    }
+
+    /**
+     * Composes again the cells of the cached image whose sprite has changed.
+     *
+     * @return {@code false} if a hole changed; its sprite covers several cells, so the whole
+     *         board has to be composed again
+     */
+    private boolean recomposeChangedCells(TileGrid board) {
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int x = 0; x < board.getWidth(); x++) {
+                int cell = y * board.getWidth() + x;
+                byte type = board.getType(x, y);
+                byte colour = (byte) board.getColour(x, y);
+                byte damage = (byte) board.getDamage(x, y);
+                byte code = getSpriteCode(type, colour, damage);
+                byte composed = boardCacheSprites[cell];
+                if (code == composed) {
+                    continue;
                 }
-                if (tile instanceof GreyTile) {
-                    ((GreyTile) tile).updateCooldown();
-                } else if (tile instanceof ColourTile) {
-                    ((ColourTile) tile).updateCooldown();
+                if (isHoleType((byte) (composed >> 4)) || isHoleType(type)) {
+                    return false;
                 }
+                boardCache.copy(background, 0, 0, background.width, background.height,
+                        x * TILE_SIZE, y * TILE_SIZE, background.width, background.height);
+                blendCell(x, y, type, colour, damage);
+                boardCacheSprites[cell] = code;
             }
         }
+        return true;
+    }
+
+    private void blendCell(int x, int y, byte type, byte colour, byte damage) {
+        PImage sprite = getCellSprite(type, colour, damage);
+        if (sprite != null) {
+            boardCache.blend(sprite, 0, 0, sprite.width, sprite.height,
+                    x * TILE_SIZE, y * TILE_SIZE, sprite.width, sprite.height, BLEND);
+        }
+    }
+
+    /**
+     * Packs what decides a cell's sprite into a byte: the type, the colour and whether it is damaged.
+     */
+    private static byte getSpriteCode(byte type, byte colour, byte damage) {
+        return (byte) (type << 4 | (colour & 7) << 1 | (damage >= 2 ? 1 : 0));
+    }
+
+    private static boolean isHoleType(byte type) {
+        return type == TileGrid.HOLE || type == TileGrid.HOLE_PART;
+    }
+
+    private int getFirstVisibleColumn() {
+        return Math.max(0, (int) (camera.getLeft() / TILE_SIZE));
+    }
+
+    private int getFirstVisibleRow() {
+        return Math.max(0, (int) ((camera.getTop() - TOPBAR) / TILE_SIZE));
+    }
+
+    private int getLastVisibleColumn() {
+        return (int) (camera.getRight() / TILE_SIZE);
+    }
+
+    private int getLastVisibleRow() {
+        return (int) ((camera.getBottom() - TOPBAR) / TILE_SIZE);
+    }
+
+    /**
+     * Moves the timers forward by one tick, running the wall cooldowns, spawns, level timeout
+     * and completion steps that are due. Time stands still while paused and once the level has ended.
+     */
+    public void advanceTimers() {
+        if (!isPaused && !levelFinish) {
+            timers.advance();
+        }
+    }
+
+    /**
+     * Runs a timer that has come due.
+     *
+     * @param timer the timer
+     */
+    private void onTimer(TimerWheel.Timer timer) {
+        switch (timer.getKind()) {
+            case TIMER_WALL_COOLDOWN:
+                grid.endCooldown(timer.getArg() & 0xFFFF, timer.getArg() >>> 16);
+                break;
+            case TIMER_SPAWN:
+                spawnTimer = null;
+                spawnCount = 0;
+                spawnCountdown();
+                break;
+            case TIMER_LEVEL_TIMEOUT:
+                levelTimeout = null;
+                timeLeft = 0;
+                timeDisplay();
+                break;
+            case TIMER_SCORE_STEP:
+                scoreStepTimer = null;
+                scoreUpdates();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Keeps hold of the timers restored from a snapshot that the game needs to find again.
+     *
+     * @param timer the restored timer
+     */
+    private void bindTimer(TimerWheel.Timer timer) {
+        switch (timer.getKind()) {
+            case TIMER_SPAWN:
+                spawnTimer = timer;
+                break;
+            case TIMER_LEVEL_TIMEOUT:
+                levelTimeout = timer;
+                break;
+            case TIMER_SCORE_STEP:
+                scoreStepTimer = timer;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Starts counting down to the next spawn from {@code spawnCount}, if there is a ball to spawn
+     * and the countdown is not already running.
+     */
+    private void startSpawnTimer() {
+        if (spawnTimer == null && !ballsToSpawn.isEmpty()) {
+            // A countdown of n frames spawns on the tick after it reaches zero
+            spawnTimer = timers.schedule(spawnCount + 1, TIMER_SPAWN, 0);
+        }
+    }
+
+    /**
+     * Stops the spawn countdown, keeping the frames left in {@code spawnCount}.
+     */
+    private void stopSpawnTimer() {
+        if (spawnTimer != null) {
+            spawnCount = getSpawnCount();
+            timers.cancel(spawnTimer);
+            spawnTimer = null;
+        }
+    }
+
+    /**
+     * Starts the level timer from {@code timeLeft}, replacing a running one.
+     */
+    private void startLevelTimer() {
+        timers.cancel(levelTimeout);
+        // Time runs out on the tick after the last frame is used up
+        levelTimeout = timers.schedule(Math.max(0, timeLeft) + 1, TIMER_LEVEL_TIMEOUT, 0);
+    }
+
+    /**
+     * Stops the level timer, keeping the frames left in {@code timeLeft}.
+     */
+    private void stopLevelTimer() {
+        if (levelTimeout != null) {
+            timeLeft = getTimeLeft();
+            timers.cancel(levelTimeout);
+            levelTimeout = null;
+        }
+    }
+
+    /**
+     * Retrieves the frames left until the next ball spawns.
+     *
+     * @return the frames left, 0 once the spawn is due
+     */
+    public int getSpawnCount() {
+        return spawnTimer != null ? Math.max(0, timers.getRemaining(spawnTimer) - 1) : spawnCount;
     }
 
     /**
@@ -505,30 +1393,7 @@ public class App extends PApplet {
      * @param colour the color index of the hole
      */
     public void putHoles(int x, int y, int colour) {
-        for (int dy = 0; dy < 2; dy++) {
-            for (int dx = 0; dx < 2; dx++) {
-                int nx = x + dx;
-                int ny = y + dy;
-                if (nx < GRID_WIDTH && ny < GRID_HEIGHT) {
-                    if (grid[ny][nx] == null) {
-                        boolean isDefult = (dx == 0 && dy == 0); // Only true for top-left tile
-                        grid[ny][nx] = new HoleTile(nx, ny, colour, this, isDefult);
-                        if (isDefult) {
-                            // Compute the rectangular area of the hole using PVector
-                            PVector holePosition = new PVector(x * TILE_SIZE, y * TILE_SIZE + TOPBAR);
-                            PVector holeDimensions = new PVector(TILE_SIZE * 2, TILE_SIZE * 2);
-
-                            // Create the Hole object with position and dimensions
-                            Hole hole = new Hole(holePosition, holeDimensions, colour);
-                            holes.add(hole);
-                            System.out.println("Put Hole at center: " + hole.getCenter() + " with colour " + colour);
-                        }
-                    } else {
-                        System.err.println("Warning: Overlapping hole at (" + nx + ", " + ny + ")");
-                    }
-                }
-            }
-        }
+        PreparedLevel.putHoles(grid, holes, x, y, colour, logging);
     }
 
     /**
@@ -537,18 +1402,25 @@ public class App extends PApplet {
      */
     public void spawnBall() {
         if (!ballsToSpawn.isEmpty() && !spawners.isEmpty()) {
-            // Get the first ball from the list of balls to spawn
-            String nextBallColour = ballsToSpawn.get(0); // Do not remove yet
-
-            // Convert the colour to the corresponding integer (0-4)
-            int colourInt = colourToInt(nextBallColour);
+            // Get the colour index (0-4) of the first ball to spawn
+            int colourInt = ballsToSpawn.peek(0); // Do not remove yet
 
             // Select a random spawner to spawn the ball from
-            EntryPoint spawner = spawners.get(random.nextInt(spawners.size()));
+            EntryPoint spawner = spawners.get(spawnerRandom.nextInt(spawners.size()));
 
             // Create and add the new ball
-            Ball newBall = new Ball(spawner.getX() * TILE_SIZE, spawner.getY() * TILE_SIZE, colourInt, this);
+            Ball newBall = newBall(spawner.getX() * TILE_SIZE, spawner.getY() * TILE_SIZE, colourInt);
             balls.add(newBall);
+            metrics.spawns.increment();
+            GameEvents.Spawn event = new GameEvents.Spawn();
+            if (event.shouldCommit()) {
+                event.colour = colourInt;
+                event.x = spawner.getX();
+                event.y = spawner.getY();
+                event.queued = ballsToSpawn.size();
+                event.balls = balls.size();
+                event.commit();
+            }
 
             // Trigger the gradual shift to the left for remaining balls
             shiftRemaining = totalShiftFrames; // Start shifting by 40 pixels (one ball width)
@@ -556,58 +1428,212 @@ public class App extends PApplet {
     }
 
     /**
-     * Manages the countdown for spawning balls.
-     * Decrements the spawn counter and spawns a new ball when the counter reaches zero.
+     * Creates a ball, reusing one from the pool if there is one.
+     *
+     * @param x      the x-coordinate of the ball's tile, in pixels
+     * @param y      the y-coordinate of the ball's tile, in pixels, excluding the top bar
+     * @param colour the colour index of the ball
+     * @return the ball
+     */
+    private Ball newBall(float x, float y, int colour) {
+        Ball ball = ballPool.poll();
+        if (ball == null) {
+            return new Ball(x, y, colour, this);
+        }
+        ball.reset(x, y, colour);
+        return ball;
+    }
+
+    /**
+     * Creates an empty line on the current board, reusing one from the pool if there is one.
+     *
+     * @return the line
+     */
+    private Line newLine() {
+        Line line = linePool.poll();
+        if (line == null) {
+            return new Line(getBoardRight(), getBoardBottom());
+        }
+        line.reset(getBoardRight(), getBoardBottom());
+        return line;
+    }
+
+    /**
+     * Removes every ball from the board and returns them to the pool.
+     */
+    private void clearBalls() {
+        for (Ball ball : balls) {
+            ballPool.release(ball);
+        }
+        balls.clear();
+    }
+
+    /**
+     * Removes every player-drawn line and returns them to the pool.
+     */
+    private void clearLines() {
+        for (Line line : Lines) {
+            if (line != drawingLine) {
+                linePool.release(line);
+            }
+        }
+        Lines.clear();
+    }
+
+    /**
+     * Returns a line taken off the board to the pool, unless it is still on the board
+     * or still being drawn.
+     */
+    private void releaseLine(Line line) {
+        if (line != drawingLine && !Lines.contains(line)) {
+            linePool.release(line);
+        }
+    }
+
+    /**
+     * Spawns a new ball once the spawn countdown has run out and starts the next countdown.
+     * Called by the spawn timer; does nothing while the countdown is still running.
      */
     public void spawnCountdown() {
         if (!isPaused && !levelFinish && !isLevelCompleting) {
-            if (spawnCount <= 0 && !ballsToSpawn.isEmpty()) {
+            if (getSpawnCount() <= 0 && spawnTimer == null && !ballsToSpawn.isEmpty()) {
                 spawnBall();
                 spawnCount = spawnFrames; // Reset counter after spawning
-            } else if (!ballsToSpawn.isEmpty()) {
-                spawnCount--;
+                startSpawnTimer();
             }
         }
     }
 
     /**
-     * Displays and updates the remaining time for the current level.
-     * Handles level termination when time runs out.
+     * Ends the level as a loss once its time has run out.
+     * Called by the level timer; does nothing while there is time left.
      */
     public void timeDisplay() {
         if (!isPaused && !levelFinish && !isLevelCompleting) {
-            // Decrease level time remaining
-            if (timeLeft > 0) {
-                timeLeft--;
-            } else if (!levelFinish) {
+            if (getTimeLeft() <= 0) {
                 // Level time is up, handle level end as a loss
                 checkLoseOrNot();
             }
         }
-}
+    }
 
     /**
-     * Updates the state of all active balls, including their positions and rendering.
+     * Updates the state of all active balls, including their positions.
      * Also checks for level completion conditions.
      */
     public void updateBalls() {
         if (!levelFinish) {
-            for (Ball ball : balls) {
+            // A captured ball leaves the list straight away and the last ball takes its place
+            for (int i = 0; i < balls.size(); ) {
+                Ball ball = balls.get(i);
                 ball.update();
-                ball.draw();
+                if (i < balls.size() && balls.get(i) == ball) {
+                    i++;
+                }
             }
-            balls.removeIf(ball -> ball.isCaptured()); // Remove captured balls
-            balls.removeAll(ballsToRemove);
-            ballsToRemove.clear();
 
             // Check for level completion (win condition)
             if (!isLevelCompleting && ballsToSpawn.isEmpty() && balls.isEmpty()) {
                 checkWinOrNot();
             }
-        } else {
-            // Draw balls without updating to keep them on screen
-            for (Ball ball : balls) {
-                ball.draw();
+        }
+        updateMetrics();
+    }
+
+    private int countSegments() {
+        int segmentCount = 0;
+        for (Line line : Lines) {
+            segmentCount += Math.max(0, line.getPoints().size() - 1);
+        }
+        return segmentCount;
+    }
+
+    /**
+     * Records this tick's ball, line and collision figures.
+     */
+    private void updateMetrics() {
+        metrics.balls.set(balls.size());
+        metrics.lines.set(Lines.size());
+        metrics.segments.set(countSegments());
+        metrics.pooledBalls.set(ballPool.size());
+        metrics.pooledLines.set(linePool.size());
+        metrics.collisionsPerTick.observe(lineCollisionsThisTick);
+        lineCollisionsThisTick = 0;
+    }
+
+    /**
+     * Counts a ball bouncing off a player-drawn line.
+     */
+    public void countLineCollision() {
+        metrics.lineCollisions.increment();
+        lineCollisionsThisTick++;
+    }
+
+    /**
+     * Retrieves the game's metrics.
+     *
+     * @return the metrics registry
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Retrieves the spare balls kept for reuse.
+     *
+     * @return the ball pool
+     */
+    public ObjectPool<Ball> getBallPool() {
+        return ballPool;
+    }
+
+    /**
+     * Retrieves the spare lines kept for reuse.
+     *
+     * @return the line pool
+     */
+    public ObjectPool<Line> getLinePool() {
+        return linePool;
+    }
+
+    /**
+     * Draws the balls in view straight from the game. Balls stay on screen after the level has finished.
+     */
+    public void drawBalls() {
+        for (int i = 0; i < balls.size(); i++) {
+            Ball ball = balls.get(i);
+            PVector position = ball.getPosition();
+            float size = ball.getCurrentSize();
+            if (camera.isVisible(position.x, position.y, position.x + size, position.y + size)) {
+                ball.draw(); // Captured balls draw nothing
+            }
+        }
+    }
+
+    /**
+     * Draws the balls of a render state that are in view.
+     *
+     * @param state the state to draw
+     */
+    public void drawBalls(RenderState state) {
+        for (int i = 0; i < state.ballCount; i++) {
+            float x = state.ballX[i];
+            float y = state.ballY[i];
+            float size = state.ballSize[i];
+            if (!camera.isVisible(x, y, x + size, y + size)) {
+                continue;
+            }
+            int colour = state.ballColour[i];
+            if (colour >= 0 && colour < ballImages.length) {
+                if (quality.scalesBalls()) {
+                    image(ballImages[colour], x, y, size, size);
+                } else {
+                    image(ballImages[colour], x, y); // Sprite size, so no resampling
+                }
+            } else {
+                noStroke();
+                fill(255, 0, 0);
+                ellipse(x + size / 2.0f, y + size / 2.0f, size, size);
             }
         }
     }
@@ -622,9 +1648,6 @@ public class App extends PApplet {
 
         // Move yellow tile 2 clockwise
         yellowTile2 = (yellowTile2 + 1) % totalEdgeTiles;
-
-        // Draw yellow tiles at their new positions
-        drawYellowTiles();
     }
 
     /**
@@ -634,19 +1657,21 @@ public class App extends PApplet {
      */
     public void scoreUpdateDetection() {
         // Only perform updates if there is remaining time
-        if (timeLeft > 0) {
+        if (getTimeLeft() > 0) {
             // 1. Decrease Timer by 1 second
-            timeLeft -= FPS; // Since timeLeft is in frames
-            println("Timer decreased by 1 second. Time remaining: " + (timeLeft / FPS) + "s");
+            setTimeLeft(getTimeLeft() - FPS); // Since timeLeft is in frames
 
             // 2. Increase Score by 1
             score += 1;
-            System.out.println("\n\n");
-            println("Score increased by 1. Current score: " + score);
 
             // 3. Move Yellow Tiles by 1 tile
             moveYellowTiles();
-            println("Yellow tiles moved by 1 tile.");
+            if (logging) {
+                println("Timer decreased by 1 second. Time remaining: " + (getTimeLeft() / FPS) + "s");
+                System.out.println("\n\n");
+                println("Score increased by 1. Current score: " + score);
+                println("Yellow tiles moved by 1 tile.");
+            }
 
             // Decrement the remaining time to add
             if (remainTime > 0) {
@@ -659,16 +1684,16 @@ public class App extends PApplet {
     }
 
     /**
-     * Handles periodic score updates based on the game's frame rate.
-     * This method is called within the main draw loop to ensure timely updates.
+     * Takes one step of the completion animation and schedules the next one.
+     * Called by the score step timer, which runs on two of every three ticks.
      */
     public void scoreUpdates() {
         if (isLevelCompleting && !isPaused) {
-            if (updateScoreFrames <= 0) {
-                scoreUpdateDetection();
-                updateScoreFrames = NEW_FPS; // Reset the counter
-            } else {
-                updateScoreFrames--;
+            scoreUpdateDetection();
+            scoreSteps++;
+            if (isLevelCompleting) { // The step may have finished the level
+                timers.cancel(scoreStepTimer);
+                scoreStepTimer = timers.schedule(scoreSteps % 2 == 1 ? 1 : 2, TIMER_SCORE_STEP, 0);
             }
         }
     }
@@ -681,20 +1706,22 @@ public class App extends PApplet {
      */
     public List<PVector> createEdges() {
         List<PVector> positions = new ArrayList<>();
+        int width = getBoardWidth();
+        int height = getBoardHeight();
         // Top edge (left to right)
-        for (int x = 0; x < GRID_WIDTH; x++) {
+        for (int x = 0; x < width; x++) {
             positions.add(new PVector(x, 0));
         }
         // Right edge (top to bottom)
-        for (int y = 1; y < GRID_HEIGHT; y++) {
-            positions.add(new PVector(GRID_WIDTH - 1, y));
+        for (int y = 1; y < height; y++) {
+            positions.add(new PVector(width - 1, y));
         }
         // Bottom edge (right to left)
-        for (int x = GRID_WIDTH - 2; x >= 0; x--) {
-            positions.add(new PVector(x, GRID_HEIGHT - 1));
+        for (int x = width - 2; x >= 0; x--) {
+            positions.add(new PVector(x, height - 1));
         }
         // Left edge (bottom to top)
-        for (int y = GRID_HEIGHT - 2; y > 0; y--) {
+        for (int y = height - 2; y > 0; y--) {
             positions.add(new PVector(0, y));
         }
         return positions;
@@ -708,6 +1735,10 @@ public class App extends PApplet {
         isLevelCompleting = true;
         println("Level completed successfully!");
 
+        // The clock stops; the time left is counted into the score instead
+        stopLevelTimer();
+        stopSpawnTimer();
+
         // Add remaining time to score at the specified rate
         remainTime = timeLeft / FPS; // Convert remaining frames to seconds
         println("Remaining time to add: " + remainTime + " seconds");
@@ -720,12 +1751,17 @@ public class App extends PApplet {
         yellowTile2 = totalEdgeTiles / 2; // Starting position for the second yellow tile
         println("Yellow Tiles starting at indices: " + yellowTile1 + ", " + yellowTile2);
 
-        // Reset frame counters for animation
-        updateScoreFrames = 2; // 1 unit every 0.067 seconds at ~30 FPS
+        // Start the animation on the next tick
+        scoreSteps = 0;
+        timers.cancel(scoreStepTimer);
+        scoreStepTimer = timers.schedule(1, TIMER_SCORE_STEP, 0);
 
         // Stop spawning and updating balls
         ballsToSpawn.clear();
-        balls.clear();
+        clearBalls();
+
+        // Build the next level while the animation plays
+        prefetchLevel(currentLevelIndex + 1);
     }
 
     /**
@@ -734,6 +1770,7 @@ public class App extends PApplet {
      */
     public void checkLoseOrNot() {
         levelFinish = true;
+        stopLevelTimer();
         timeLeft = 0; // Ensure the timer is exactly zero
         println("No time left! Level ended!.");
     }
@@ -743,22 +1780,10 @@ public class App extends PApplet {
      * If so, proceeds to the next level or ends the game.
      */
     public void checkCompleteOrNot() {
-        // Check if it's time to update
-        if (updateScoreFrames <= 0) {
-            // Perform score update
-            scoreUpdateDetection();
-            updateScoreFrames = NEW_FPS; // Reset the counter
-        } else {
-            updateScoreFrames--;
-        }
-
-        // Draw yellow tiles
-        drawYellowTiles();
-
         // Check if all remaining time has been added and tiles have completed a full loop
         if (remainTime <= 0 && yellowTile1 == 0 && yellowTile2 == totalEdgeTiles / 2) {
             // Proceed to next level or end game
-            if (currentLevelIndex + 1 < levels.size()) {
+            if (currentLevelIndex + 1 < config.getLevelCount()) {
                 currentLevelIndex++;
                 loadLevel(currentLevelIndex);
                 isLevelCompleting = false;
@@ -773,7 +1798,7 @@ public class App extends PApplet {
 
     /**
      * Manages the level completion animations and transitions.
-     * Called within the main draw loop to ensure smooth animations.
+     * Called on every tick to advance the animation.
      */
     public void levelCompleteAnimation() {
         if (isLevelCompleting) {
@@ -791,62 +1816,211 @@ public class App extends PApplet {
         println("\n\n");
 
         // Proceed to the next level or end the game
-        if (currentLevelIndex + 1 < levels.size()) {
+        if (currentLevelIndex + 1 < config.getLevelCount()) {
             currentLevelIndex++;
             loadLevel(currentLevelIndex);
             println("Proceed to the next level: " + currentLevelIndex);
             println("\n\n");
         } else {
             levelFinish = true;
-            currentLevelIndex = levels.size();
+            currentLevelIndex = config.getLevelCount();
             println("All level loaded. Game ended!");
         }
     }
 
     /**
-     * Handles collision detection and response between balls and tiles.
-     * Applies damage or captures balls based on tile types and interactions.
+     * Handles key press events.
+     * Listens for the 'R' key to restart the game, 'S' to save it and 'L' to load the saved game.
+     * The arrow keys pan the view, '=' and '-' zoom it and 'D' shows the input latency overlay.
+     * '1', '2', '8' and '0' set the fast-forward speed.
+     *
+     * @param event the key event triggered by the user
      */
-    public void HitAnimation() {
-        for (Ball ball : balls) {
-            // Determine which tile the ball is over
-            int tileX = (int)(ball.getPosition().x / Tile.TILE_SIZE);
-            int tileY = (int)((ball.getPosition().y - TOPBAR) / Tile.TILE_SIZE);
-
-            // Boundary checks
-            if (tileX < 0 || tileX >= GRID_WIDTH || tileY < 0 || tileY >= GRID_HEIGHT) {
-                continue;
+    @Override
+    public void keyPressed(KeyEvent event) {
+        char pressedKey = key;
+        if (pressedKey == 'd' || pressedKey == 'D') {
+            debugOverlay = !debugOverlay; // The overlay belongs to the rendering thread
+            return;
+        }
+        if (handleSpeedKey(pressedKey)) {
+            return; // Speed never changes the outcome, so it is not game input; works during replays too
+        }
+        if (replayPlayer == null) {
+            int pressedKeyCode = keyCode;
+            if (simulation != null && handleCameraKey(pressedKey, pressedKeyCode)) {
+                return; // The camera belongs to the rendering thread
             }
+            queueInput(Replay.KEY_PRESS, pressedKey, pressedKeyCode, 0, false);
+        }
+    }
 
-            Tile tile = grid[tileY][tileX];
-            if (tile instanceof GreyTile) {
-                GreyTile wall = (GreyTile) tile;
-                wall.getsHit(ball); // Pass the Ball object to the hit method
-                if (tile instanceof ColourTile) {
-                    ColourTile Cwall = (ColourTile) tile;
-                    Cwall.getsHit(ball); // Apply damage based on color matching
-                } else {
-                    wall.getsHit(ball); // Apply damage for grey walls
-                }
-            }
+    /**
+     * Queues an input event for the start of the next tick, so it never changes the game while a
+     * tick is running.
+     *
+     * @param type    the {@link Replay} event type
+     * @param first   the mouse x-coordinate or the key character
+     * @param second  the mouse y-coordinate or the key code
+     * @param button  the mouse button, 0 for keys
+     * @param control whether Ctrl was held on a mouse press
+     */
+    private void queueInput(byte type, int first, int second, int button, boolean control) {
+        if (!inputs.offer(type, first, second, button, control)) {
+            metrics.inputsDropped.increment();
         }
     }
 
     /**
-     * Handles key press events.
-     * Currently listens for the 'R' key to restart the game.
+     * Applies one input event to the game, whether it comes from the input queue or a replay.
      *
-     * @param event the key event triggered by the user
+     * @param type    the {@link Replay} event type
+     * @param first   the mouse x-coordinate or the key character
+     * @param second  the mouse y-coordinate or the key code
+     * @param button  the mouse button, 0 for keys
+     * @param control whether Ctrl was held on a mouse press
+     * @param stamp   the {@link System#nanoTime()} the event arrived at, or 0 if it was not live
+     */
+    void applyInput(byte type, int first, int second, int button, boolean control, long stamp) {
+        if (stamp != 0) {
+            latency.applied(type, stamp, tickCount);
+        }
+        switch (type) {
+            case Replay.MOUSE_PRESS:
+                handleMousePress(first, second, button, control);
+                break;
+            case Replay.MOUSE_DRAG:
+                handleMouseDrag(first, second, button);
+                break;
+            case Replay.MOUSE_RELEASE:
+                handleMouseRelease(first, second, button);
+                break;
+            case Replay.KEY_PRESS:
+                handleKeyPress((char) first, second);
+                break;
+            case Replay.KEY_RELEASE:
+                handleKeyRelease((char) first, second);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Retrieves the controller that lowers the drawing quality under load.
+     *
+     * @return the quality controller
      */
-    @Override
-    public void keyPressed(KeyEvent event) {
-        if (key == 'r' || key == 'R') {
+    public QualityController getQualityController() {
+        return quality;
+    }
+
+    /**
+     * Retrieves the tracker measuring how long input takes to reach the screen.
+     *
+     * @return the latency tracker
+     */
+    public LatencyTracker getLatencyTracker() {
+        return latency;
+    }
+
+    /**
+     * Retrieves the queue input events wait in until the next tick.
+     *
+     * @return the input queue
+     */
+    public InputQueue getInputQueue() {
+        return inputs;
+    }
+
+    /**
+     * Applies a key press to the game.
+     *
+     * @param pressedKey     the character of the key
+     * @param pressedKeyCode the code of the key
+     */
+    public void handleKeyPress(char pressedKey, int pressedKeyCode) {
+        if (recorder != null) {
+            recorder.recordKey(tickCount, Replay.KEY_PRESS, pressedKey, pressedKeyCode);
+        }
+        if (pressedKey == 'r' || pressedKey == 'R') {
             if (!isRestarting) {
                 isRestarting = true;
                 restart();
                 isRestarting = false;
             }
+        } else if (pressedKey == 's' || pressedKey == 'S') {
+            saveGame();
+        } else if (pressedKey == 'l' || pressedKey == 'L') {
+            loadGame();
+        } else {
+            handleCameraKey(pressedKey, pressedKeyCode);
+        }
+    }
+
+    /**
+     * Changes the fast-forward speed if a key is one of the speed keys:
+     * '1' for normal speed, '2' and '8' for that many ticks per frame and '0' for turbo.
+     *
+     * @param pressedKey the character of the key
+     * @return {@code true} if the key set the speed
+     */
+    private boolean handleSpeedKey(char pressedKey) {
+        int ticksPerFrame;
+        switch (pressedKey) {
+            case '1':
+                ticksPerFrame = 1;
+                break;
+            case '2':
+                ticksPerFrame = 2;
+                break;
+            case '8':
+                ticksPerFrame = 8;
+                break;
+            case '0':
+                ticksPerFrame = SPEED_UNCAPPED;
+                break;
+            default:
+                return false;
+        }
+        setSpeed(ticksPerFrame);
+        println("Speed: " + (ticksPerFrame == SPEED_UNCAPPED ? "turbo" : ticksPerFrame + "x"));
+        return true;
+    }
+
+    /**
+     * Pans or zooms the camera if a key is one of the camera keys.
+     *
+     * @param pressedKey     the character of the key
+     * @param pressedKeyCode the key code, for coded keys such as the arrows
+     * @return {@code true} if the key moved the camera
+     */
+    private boolean handleCameraKey(char pressedKey, int pressedKeyCode) {
+        if (pressedKey == '=' || pressedKey == '+') {
+            camera.zoomBy(ZOOM_STEP);
+        } else if (pressedKey == '-') {
+            camera.zoomBy(1 / ZOOM_STEP);
+        } else if (pressedKey == CODED) {
+            switch (pressedKeyCode) {
+                case LEFT:
+                    camera.pan(-PAN_STEP, 0);
+                    break;
+                case RIGHT:
+                    camera.pan(PAN_STEP, 0);
+                    break;
+                case UP:
+                    camera.pan(0, -PAN_STEP);
+                    break;
+                case DOWN:
+                    camera.pan(0, PAN_STEP);
+                    break;
+                default:
+                    return false;
+            }
+        } else {
+            return false;
         }
+        return true;
     }
 
     /**
@@ -857,7 +2031,24 @@ public class App extends PApplet {
      */
     @Override
     public void keyReleased(KeyEvent event){
-        if (event.getKey() == ' ') {
+        if (replayPlayer == null) {
+            char releasedKey = event.getKey();
+            int releasedKeyCode = event.getKeyCode();
+            queueInput(Replay.KEY_RELEASE, releasedKey, releasedKeyCode, 0, false);
+        }
+    }
+
+    /**
+     * Applies a key release to the game.
+     *
+     * @param releasedKey     the character of the key
+     * @param releasedKeyCode the code of the key
+     */
+    public void handleKeyRelease(char releasedKey, int releasedKeyCode) {
+        if (recorder != null) {
+            recorder.recordKey(tickCount, Replay.KEY_RELEASE, releasedKey, releasedKeyCode);
+        }
+        if (releasedKey == ' ') {
             Pause();
         }
     }
@@ -868,26 +2059,59 @@ public class App extends PApplet {
      */
     @Override
     public void mousePressed() {
+        if (replayPlayer == null) {
+            boolean controlHeld = keyPressed && (key == CODED || keyCode == CONTROL);
+            queueInput(Replay.MOUSE_PRESS, boardMouseX(), boardMouseY(), mouseButton, controlHeld);
+        }
+    }
+
+    /**
+     * Converts the mouse position to board coordinates through the camera.
+     * Positions over the top bar are passed through unchanged, so they stay above the board.
+     */
+    private int boardMouseX() {
+        return mouseY <= TOPBAR ? mouseX : (int) camera.toBoardX(mouseX);
+    }
+
+    private int boardMouseY() {
+        return mouseY <= TOPBAR ? mouseY : (int) camera.toBoardY(mouseY);
+    }
+
+    /**
+     * Applies a mouse press to the game.
+     *
+     * @param x           the x-coordinate of the mouse
+     * @param y           the y-coordinate of the mouse
+     * @param button      the mouse button ({@code LEFT} or {@code RIGHT})
+     * @param controlHeld whether Ctrl was held, which suppresses starting a new line
+     */
+    public void handleMousePress(int x, int y, int button, boolean controlHeld) {
+        if (recorder != null) {
+            recorder.recordMouse(tickCount, Replay.MOUSE_PRESS, x, y, button, controlHeld);
+        }
 
         if (levelFinish || isLevelCompleting) {
             return; // Prevent drawing lines when the game is paused, ended, or completing
         }
 
-        if (mouseButton == LEFT) {
+        if (button == LEFT) {
             // Check if the mouse is below the top bar
-            if (mouseY > TOPBAR) {
+            if (y > TOPBAR) {
                 // Start a new line if Ctrl is not pressed
-                if (!keyPressed || (key != CODED && keyCode != CONTROL)) {
-                    drawingLine = new Line();
-                    drawingLine.addPoint(new PVector(mouseX, mouseY));
+                if (!controlHeld) {
+                    drawingLine = newLine();
+                    drawingLine.addPoint(x, y);
                     Lines.add(drawingLine);
                 }
             }
-        } else if (mouseButton == RIGHT) {
+        } else if (button == RIGHT) {
             // Only allow removing lines if clicked below the top bar
-            if (mouseY > TOPBAR) {
+            if (y > TOPBAR) {
                 // Remove the nearest line upon right-click
-                removeLine(new PVector(mouseX, mouseY));
+                removeLine(new PVector(x, y));
+                erasing = true;
+                eraserX = x;
+                eraserY = y;
             }
         }
     }
@@ -898,19 +2122,70 @@ public class App extends PApplet {
      */
     @Override
     public void mouseDragged() {
+        if (replayPlayer == null) {
+            queueInput(Replay.MOUSE_DRAG, boardMouseX(), boardMouseY(), mouseButton, false);
+        }
+    }
+
+    /**
+     * Applies a mouse drag to the game.
+     *
+     * @param x      the x-coordinate of the mouse
+     * @param y      the y-coordinate of the mouse
+     * @param button the mouse button held while dragging
+     */
+    public void handleMouseDrag(int x, int y, int button) {
+        if (recorder != null) {
+            recorder.recordMouse(tickCount, Replay.MOUSE_DRAG, x, y, button, false);
+        }
 
         if (levelFinish || isLevelCompleting) {
             return; // Prevent drawing lines when the game is paused, ended, or completing
         }
-        if (drawingLine != null && mouseButton == LEFT) {
-            // Only add points if dragging within the game area
-            if (mouseY > TOPBAR) {
-                drawingLine.addPoint(new PVector(mouseX, mouseY));
-            } else {
-                println();
-                println("Cannot draw it here!!!");
+        if (drawingLine != null && button == LEFT) {
+            // Only add points if dragging within the game area
+            if (y > TOPBAR) {
+                drawingLine.addPoint(x, y);
+            } else {
+                println();
+                println("Cannot draw it here!!!");
+            }
+        } else if (button == RIGHT && y > TOPBAR) {
+            eraseTo(x, y);
+        }
+    }
+
+    /**
+     * Sweeps the eraser from where it last was to a point, removing every line it touches.
+     * The path is sampled at most one eraser radius apart so no line slips between samples.
+     *
+     * @param x the x-coordinate the eraser moves to
+     * @param y the y-coordinate the eraser moves to
+     */
+    private void eraseTo(float x, float y) {
+        if (!erasing) {
+            erasing = true;
+            eraserX = x;
+            eraserY = y;
+        }
+        float distance = dist(eraserX, eraserY, x, y);
+        int steps = Math.max(1, (int) Math.ceil(distance / ERASER_RADIUS));
+        for (int i = 1; i <= steps; i++) {
+            float t = (float) i / steps;
+            Lines.getIndex().linesWithin(lerp(eraserX, x, t), lerp(eraserY, y, t), ERASER_RADIUS, erased);
+        }
+        eraserX = x;
+        eraserY = y;
+        for (Line line : erased) {
+            while (Lines.remove(line)) {
+                // Drop every copy of the line
             }
+            releaseLine(line);
+        }
+        if (!erased.isEmpty()) {
+            println("Eraser removed " + erased.size() + " line(s).");
         }
+        erased.clear();
     }
 
     /**
@@ -921,9 +2196,26 @@ public class App extends PApplet {
      */
     @Override
     public void mouseReleased(MouseEvent event) {
+        if (replayPlayer == null) {
+            queueInput(Replay.MOUSE_RELEASE, boardMouseX(), boardMouseY(), mouseButton, false);
+        }
+    }
+
+    /**
+     * Applies a mouse release to the game.
+     *
+     * @param x      the x-coordinate of the mouse
+     * @param y      the y-coordinate of the mouse
+     * @param button the mouse button released
+     */
+    public void handleMouseRelease(int x, int y, int button) {
+        if (recorder != null) {
+            recorder.recordMouse(tickCount, Replay.MOUSE_RELEASE, x, y, button, false);
+        }
         if (isDrawing && drawingLine != null) {
             finishDrawing();
         }
+        erasing = false;
     }
 
     /**
@@ -964,20 +2256,13 @@ public class App extends PApplet {
      * @param point the point near which to find and remove a line
      */
     public void removeLine(PVector point) {
-        Line Line = null;
-        float lineRemoveDistance = Float.MAX_VALUE;
-
-        for (Line line : Lines) {
-            // Calculate the distance from the point to the line
-            float distance = lineRemoveDistance(point, line);
-            if (distance < lineRemoveDistance) {
-                lineRemoveDistance = distance;
-                Line = line;
-            }
-        }
+        Lines.getIndex().nearest(point.x, point.y, 1, erased);
+        Line Line = erased.isEmpty() ? null : erased.get(0);
+        erased.clear();
 
         if (Line != null) {
             Lines.remove(Line);
+            releaseLine(Line);
             System.out.println();
             println("A line has been removed!");
             System.out.println();
@@ -992,53 +2277,44 @@ public class App extends PApplet {
         System.out.println("\n\n\n");
         System.out.println("Wanna Restart? OK ..... Restarting ...");
         System.out.println();
+        GameEvents.Restart event = new GameEvents.Restart();
+        event.begin();
 
         // Clear active balls
-        balls.clear();
-        ballsToRemove.clear();
-        ballsLoaded.clear();
-
-        // Clear spawners
-        spawners.clear();
+        clearBalls();
 
         // Clear player-drawn lines
-        Lines.clear();
+        clearLines();
 
         // Reset
-        if (levelFinish && currentLevelIndex >= levels.size()) {
+        if (levelFinish && currentLevelIndex >= config.getLevelCount()) {
             // Game has ended after the last level, reset score to initial value
             score = 0;
             // Reset to initial level (level 0)
             currentLevelIndex = 0;
             println("Restarting from the initial level.");
+            loadLevel(currentLevelIndex);
+        } else if (levelStartSnapshot.getLevelIndex() == currentLevelIndex) {
+            // Restore the state cached when the level started, score included
+            levelStartSnapshot.restore(this);
+            event.fromSnapshot = true;
+            println("Restarting the current level: " + currentLevelIndex);
         } else {
             // Restart the current level, keep the score as levelStartScore
             score = levelStartScore;
             println("Restarting the current level: " + currentLevelIndex);
-        }
-
-        // Load the appropriate level
-        loadLevel(currentLevelIndex);
-
-        // Reset spawn counters
-        JSONObject currentLevel = levels.getJSONObject(currentLevelIndex);
-        if (currentLevel != null) {
-            int spwanTime = currentLevel.getInt("spawn_interval"); // Default to 10 seconds
-            spawnFrames = spwanTime * FPS;
-            spawnCount = spawnFrames;
-
-            // Reset level timer
-            timeSeconds = currentLevel.getInt("time");
-            timeLeft = timeSeconds * FPS;
+            loadLevel(currentLevelIndex);
         }
 
         // Reset level completion flags
         levelFinish = false;
         isLevelCompleting = false;
+        event.level = currentLevelIndex;
+        event.commit();
         System.out.println();
         System.out.println("Restart Finished!");
         System.out.println("\n\n\n");
-        if (levelFinish && currentLevelIndex >= levels.size()) {
+        if (levelFinish && currentLevelIndex >= config.getLevelCount()) {
             System.out.println("Game restarted from the initial level!");
         } else {
             System.out.println("Current level restarted!");
@@ -1046,6 +2322,167 @@ public class App extends PApplet {
         System.out.println("\n\n\n");
     }
 
+    /**
+     * Writes the full game state into a snapshot buffer: level, score, timers, the position of
+     * the random streams, pause and drawing flags, tiles, balls, lines and the spawn queue.
+     *
+     * @param out the snapshot buffer
+     */
+    public void saveState(ByteBuffer out) {
+        RandomStream velocity = getVelocityRandom(); // Seeds the streams if nothing has drawn yet
+        out.putInt(currentLevelIndex).putInt(score).putInt(levelStartScore);
+        out.putInt(spawnFrames).putInt(spawnCount).putInt(timeSeconds).putInt(timeLeft);
+        out.putInt(remainTime).putInt(scoreSteps).putInt(shiftRemaining).putFloat(ballOffset);
+        out.putInt(yellowTile1).putInt(yellowTile2).putInt(totalEdgeTiles);
+        out.putLong(seed).putLong(spawnerRandom.getDraws()).putLong(velocity.getDraws());
+        out.put((byte) ((levelFinish ? 1 : 0) | (isLevelCompleting ? 2 : 0) | (isPaused ? 4 : 0) | (isDrawing ? 8 : 0)));
+
+        // Tiles as the board's own cell arrays
+        grid.writeTo(out);
+
+        out.putInt(balls.size());
+        for (Ball ball : balls) {
+            ball.saveState(out, holes);
+        }
+
+        out.putInt(Lines.size());
+        out.putInt(Lines.indexOf(drawingLine));
+        for (Line line : Lines) {
+            Collection<PVector> points = line.getPoints().values();
+            out.putInt(points.size());
+            for (PVector point : points) {
+                out.putFloat(point.x).putFloat(point.y);
+            }
+        }
+
+        out.putInt(ballsToSpawn.size());
+        for (int i = 0; i < ballsToSpawn.size(); i++) {
+            out.put((byte) ballsToSpawn.peek(i));
+        }
+
+        // Pending timers by what is left of them
+        timers.writeTo(out);
+    }
+
+    /**
+     * Replaces the full game state with one written by {@link #saveState(ByteBuffer)}, so the
+     * game continues exactly as it would have from the moment it was captured.
+     * Tiles are copied into the current board's arrays and the holes, spawners and hole distances
+     * are found again from them; balls and lines come from the pools.
+     *
+     * @param in the snapshot buffer
+     */
+    public void restoreState(ByteBuffer in) {
+        int installedLevelIndex = currentLevelIndex;
+        currentLevelIndex = in.getInt();
+        score = in.getInt();
+        levelStartScore = in.getInt();
+        spawnFrames = in.getInt();
+        spawnCount = in.getInt();
+        timeSeconds = in.getInt();
+        timeLeft = in.getInt();
+        remainTime = in.getInt();
+        scoreSteps = in.getInt();
+        shiftRemaining = in.getInt();
+        ballOffset = in.getFloat();
+        yellowTile1 = in.getInt();
+        yellowTile2 = in.getInt();
+        totalEdgeTiles = in.getInt();
+        seed = in.getLong();
+        long spawnerDraws = in.getLong();
+        long velocityDraws = in.getLong();
+        seedRandom();
+        spawnerRandom.skip(spawnerDraws);
+        velocityRandom.skip(velocityDraws);
+        byte flags = in.get();
+        levelFinish = (flags & 1) != 0;
+        isLevelCompleting = (flags & 2) != 0;
+        isPaused = (flags & 4) != 0;
+        isDrawing = (flags & 8) != 0;
+        currentLevel = config.getLevel(Math.min(currentLevelIndex, config.getLevelCount() - 1));
+        levelLayout = currentLevel.getLayout();
+        TileGrid installed = grid;
+        grid = TileGrid.readFrom(in, installed);
+        contactedWallCount = 0;
+        // Walls may have come back, so find the holes and spawners and their distances again
+        analyser = LevelAnalyser.analyse(grid);
+        holes.clear();
+        spawners.clear();
+        grid.forEachCell((x, y, type, colour, damage) -> {
+            if (type == TileGrid.HOLE) {
+                holes.add(PreparedLevel.createHole(x, y, colour));
+            } else if (type == TileGrid.SPAWNER) {
+                spawners.add(new EntryPoint(x, y, this));
+            }
+        });
+        if (grid != installed || currentLevelIndex != installedLevelIndex) {
+            // A different board: fit the hole field, line index and camera to it
+            holeField = buildHoleField(config, holes, grid.getWidth(), grid.getHeight());
+            Lines.getIndex().resize(getBoardRight(), getBoardBottom());
+            boardGeneration++;
+            if (simulation == null) {
+                camera.setBoardSize(getBoardRight(), getBoardBottom() - TOPBAR); // Otherwise the renderer refits it
+            }
+        }
+        edgePositions = totalEdgeTiles > 0 ? createEdges() : null;
+
+        clearBalls();
+        int ballCount = in.getInt();
+        for (int i = 0; i < ballCount; i++) {
+            balls.add(Ball.restoreState(in, this, holes));
+        }
+
+        clearLines();
+        int lineCount = in.getInt();
+        int drawingIndex = in.getInt();
+        for (int i = 0; i < lineCount; i++) {
+            Line line = newLine();
+            int pointCount = in.getInt();
+            for (int j = 0; j < pointCount; j++) {
+                line.addPoint(in.getFloat(), in.getFloat());
+            }
+            Lines.add(line);
+        }
+        drawingLine = drawingIndex >= 0 ? Lines.get(drawingIndex) : null;
+
+        ballsToSpawn.clear();
+        int queued = in.getInt();
+        for (int i = 0; i < queued; i++) {
+            ballsToSpawn.push(in.get());
+        }
+
+        spawnTimer = null;
+        levelTimeout = null;
+        scoreStepTimer = null;
+        timers.readFrom(in, this::bindTimer);
+    }
+
+    /**
+     * Saves the current game to {@link #SAVE_PATH}.
+     */
+    public void saveGame() {
+        GameSnapshot snapshot = new GameSnapshot();
+        snapshot.capture(this);
+        try {
+            snapshot.save(SAVE_PATH);
+            println("Game saved to: " + SAVE_PATH);
+        } catch (IOException e) {
+            System.err.println("Failed to save game to " + SAVE_PATH + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resumes the game saved in {@link #SAVE_PATH}, if there is one.
+     */
+    public void loadGame() {
+        try {
+            GameSnapshot.load(SAVE_PATH).restore(this);
+            println("Game loaded from: " + SAVE_PATH);
+        } catch (IOException e) {
+            System.err.println("Failed to load game from " + SAVE_PATH + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Converts a colour name string to its corresponding integer index.
      *
@@ -1053,20 +2490,8 @@ public class App extends PApplet {
      * @return the integer index representing the colour
      */
     public int colourToInt(String colourString) {
-        colourString = colourString.toLowerCase();
-        if (colourString.equals("grey")) {
-            return 0;
-        } else if (colourString.equals("orange")) {
-            return 1;
-        } else if (colourString.equals("blue")) {
-            return 2;
-        } else if (colourString.equals("green")) {
-            return 3;
-        } else if (colourString.equals("yellow")) {
-            return 4;
-        } else {
-            return 0; // Default case
-        }
+        Colour colour = Colour.lookup(colourString);
+        return colour != null ? colour.ordinal() : 0; // Default to grey
     }
 
     /**
@@ -1076,28 +2501,114 @@ public class App extends PApplet {
      * @return the name of the colour as a string
      */
     public String colourToString(int colourInt) {
-        if (colourInt == 0) {
-            return "grey";
-        } else if (colourInt == 1) {
-            return "orange";
-        } else if (colourInt == 2) {
-            return "blue";
-        } else if (colourInt == 3) {
-            return "green";
-        } else if (colourInt == 4) {
-            return "yellow";
-        } else {
-            return "grey"; // Default case
+        return Colour.fromIndex(colourInt).getName(); // Defaults to grey
+    }
+
+
+    /**
+     * Receives a contact between a ball and a wall from the collision pass. A wall takes damage
+     * from at most one contact per tick; later contacts in the same tick are dropped. Only the few
+     * walls touched this tick are remembered, so the check costs nothing per tile of the board.
+     *
+     * @param x    the column of the wall
+     * @param y    the row of the wall
+     * @param ball the ball touching the wall
+     * @return {@link TileGrid#HIT_IGNORED}, {@link TileGrid#HIT_DAMAGED} or {@link TileGrid#HIT_DESTROYED}
+     */
+    public int wallContact(int x, int y, Ball ball) {
+        if (contactTick != tickCount) {
+            contactTick = tickCount;
+            contactedWallCount = 0;
+        }
+        int index = y * grid.getWidth() + x;
+        for (int i = 0; i < contactedWallCount; i++) {
+            if (contactedWalls[i] == index) {
+                return TileGrid.HIT_IGNORED; // Already damaged this tick
+            }
+        }
+        int result = hitWall(x, y, ball);
+        if (result != TileGrid.HIT_IGNORED) {
+            if (contactedWallCount == contactedWalls.length) {
+                contactedWalls = Arrays.copyOf(contactedWalls, contactedWallCount * 2);
+            }
+            contactedWalls[contactedWallCount++] = index;
+        }
+        return result;
+    }
+
+    /**
+     * Applies a ball hit to the wall at a tile position and logs the outcome.
+     *
+     * @param x    the column of the wall
+     * @param y    the row of the wall
+     * @param ball the ball hitting the wall
+     * @return {@link TileGrid#HIT_IGNORED}, {@link TileGrid#HIT_DAMAGED} or {@link TileGrid#HIT_DESTROYED}
+     */
+    public int hitWall(int x, int y, Ball ball) {
+        int result = grid.hit(x, y, ball.getColour());
+        if (result == TileGrid.HIT_DAMAGED) {
+            timers.schedule(TileGrid.HIT_COOLDOWN_FRAMES, TIMER_WALL_COOLDOWN, x | (y << 16));
+            if (logging) {
+                println("WallTile at (" + x + ", " + y + ") hit. Damage Level: " + grid.getDamage(x, y));
+            }
+        } else if (result == TileGrid.HIT_DESTROYED) {
+            analyser.wallRemoved(x, y);
+            GameEvents.WallDestroyed event = new GameEvents.WallDestroyed();
+            if (event.shouldCommit()) {
+                event.x = x;
+                event.y = y;
+                event.colour = ball.getColour();
+                event.level = currentLevelIndex;
+                event.commit();
+            }
+            if (logging) {
+                println("Wall at (" + x + ", " + y + ") destroyed.");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the pull of a board's holes from the configured radius and strength.
+     *
+     * @param config the game configuration, or {@code null} if none is loaded
+     * @param holes  the holes on the board
+     * @param width  the width of the board in tiles
+     * @param height the height of the board in tiles
+     * @return the field, or {@code null} when magnetism is off
+     */
+    static HoleField buildHoleField(GameConfig config, List<Hole> holes, int width, int height) {
+        if (config == null) {
+            return null;
         }
+        return HoleField.build(holes, width * TILE_SIZE, height * TILE_SIZE,
+                config.getAttractionRadius(), config.getAttractionStrength());
+    }
+
+    /**
+     * Retrieves the pull of the holes on the current board.
+     *
+     * @return the field, or {@code null} when magnetism is off
+     */
+    public HoleField getHoleField() {
+        return holeField;
     }
 
+    /**
+     * Retrieves the hole distances and spawner reachability of the current board.
+     *
+     * @return the analysis, updated as walls are destroyed
+     */
+    public LevelAnalyser getAnalyser() {
+        return analyser;
+    }
 
     /**
      * Retrieves the current game grid.
      *
-     * @return a 2D array of {@link Tile} representing the game grid
+     * @return the {@link TileGrid} holding the tiles of the board
      */
-    public Tile[][] getGrid() {
+    public TileGrid getGrid() {
         return grid;
     }
 
@@ -1117,20 +2628,66 @@ public class App extends PApplet {
     }
 
     /**
-     * Retrieves the tile at the specified grid coordinates.
+     * Retrieves a copy of the tile at the specified grid coordinates. The board itself is
+     * kept in {@link TileGrid}, so changes to the copy do not affect the game.
      *
      * @param x the x-coordinate in the grid
      * @param y the y-coordinate in the grid
-     * @return the {@link Tile} at the specified position, or {@code null} if out of bounds
+     * @return the {@link Tile} at the specified position, or {@code null} if empty or out of bounds
      */
     public Tile getTile(int x, int y) {
-        if (x >= 0 && x < GRID_WIDTH && y >= 0 && y < GRID_HEIGHT) {
-            return grid[y][x];
+        if (grid != null) {
+            return grid.getTile(x, y, this);
         } else {
             return null;
         }
     }
 
+    /**
+     * Retrieves the camera that views the board.
+     *
+     * @return the camera
+     */
+    public Camera getCamera() {
+        return camera;
+    }
+
+    /**
+     * Retrieves the width of the current board.
+     *
+     * @return the board width in tiles
+     */
+    public int getBoardWidth() {
+        return grid != null ? grid.getWidth() : GRID_WIDTH;
+    }
+
+    /**
+     * Retrieves the height of the current board.
+     *
+     * @return the board height in tiles
+     */
+    public int getBoardHeight() {
+        return grid != null ? grid.getHeight() : GRID_HEIGHT;
+    }
+
+    /**
+     * Retrieves the x-coordinate of the right edge of the board.
+     *
+     * @return the right edge in pixels
+     */
+    public int getBoardRight() {
+        return getBoardWidth() * TILE_SIZE;
+    }
+
+    /**
+     * Retrieves the y-coordinate of the bottom edge of the board, below the top bar.
+     *
+     * @return the bottom edge in pixels
+     */
+    public int getBoardBottom() {
+        return getBoardHeight() * TILE_SIZE + TOPBAR;
+    }
+
     /**
      * Retrieves the list of holes present in the game.
      *
@@ -1140,6 +2697,57 @@ public class App extends PApplet {
         return holes;
     }
 
+    /**
+     * Retrieves the wall sprite for a colour index.
+     *
+     * @param colour the colour index of the wall
+     * @return the {@link PImage} of the intact wall
+     */
+    public PImage getWallImage(int colour) {
+        if (wallImages == null) {
+            loadImages();
+        }
+        return wallImages[colour];
+    }
+
+    /**
+     * Retrieves the damaged wall sprite for a colour index.
+     *
+     * @param colour the colour index of the wall
+     * @return the {@link PImage} of the damaged wall
+     */
+    public PImage getDamagedWallImage(int colour) {
+        if (wallImages == null) {
+            loadImages();
+        }
+        return damagedWallImages[colour];
+    }
+
+    /**
+     * Retrieves the hole sprite for a colour index.
+     *
+     * @param colour the colour index of the hole
+     * @return the {@link PImage} of the hole
+     */
+    public PImage getHoleImage(int colour) {
+        if (wallImages == null) {
+            loadImages();
+        }
+        return holeImages[colour];
+    }
+
+    /**
+     * Retrieves the spawner sprite.
+     *
+     * @return the {@link PImage} of an entry point
+     */
+    public PImage getEntryPointImage() {
+        if (wallImages == null) {
+            loadImages();
+        }
+        return entryPointImage;
+    }
+
     /**
      * Retrieves the array of preloaded ball images.
      *
@@ -1207,26 +2815,89 @@ public class App extends PApplet {
      * @param line the {@link Line} to be removed
      */
     public void removeLines(Line line) {
-        Lines.remove(line);
+        if (Lines.remove(line)) {
+            GameEvents.LineConsumed event = new GameEvents.LineConsumed();
+            if (event.shouldCommit()) {
+                event.segments = Math.max(0, line.getPoints().size() - 1);
+                event.linesLeft = Lines.size();
+                event.balls = balls.size();
+                event.commit();
+            }
+            releaseLine(line);
+        }
     }
 
     /**
-     * Marks a ball for removal from the active balls list.
+     * Takes a captured ball off the board and returns it to the pool.
      *
      * @param ball the {@link Ball} to be removed
      */
     public void ballCatched(Ball ball) {
-        ballsToRemove.add(ball);
+        if (balls.remove(ball)) {
+            ballPool.release(ball);
+        }
+        metrics.captures.increment();
+    }
+
+    /**
+     * Counts a ball going into a hole.
+     *
+     * @param ballColour   the colour index of the ball
+     * @param holeColour   the colour index of the hole
+     * @param matchingHole whether the hole accepted the ball's colour
+     */
+    public void countCapture(int ballColour, int holeColour, boolean matchingHole) {
+        captures++;
+        if (!matchingHole) {
+            wrongCaptures++;
+        }
+        GameEvents.Capture event = new GameEvents.Capture();
+        if (event.shouldCommit()) {
+            event.ballColour = ballColour;
+            event.holeColour = holeColour;
+            event.matching = matchingHole;
+            event.commit();
+        }
+    }
+
+    /**
+     * Retrieves the number of balls that have gone into a hole this session.
+     *
+     * @return the capture count
+     */
+    public int getCaptures() {
+        return captures;
+    }
+
+    /**
+     * Retrieves the number of balls that have gone into a hole of another colour this session.
+     *
+     * @return the wrong capture count
+     */
+    public int getWrongCaptures() {
+        return wrongCaptures;
     }
 
     /**
      * Adds a new ball to the spawn queue based on its color.
      *
+     * @param colour the color of the ball to be spawned
+     */
+    public void ballRefilled(Colour colour) {
+        ballsToSpawn.add(colour);
+        startSpawnTimer();
+        if (logging) {
+            println("Ball refilled: " + colour.getName());
+        }
+    }
+
+    /**
+     * Adds a new ball to the spawn queue based on its color name.
+     *
      * @param colorString the color of the ball to be spawned
      */
     public void ballRefilled(String colorString) {
-        ballsToSpawn.add(colorString);
-        println("Ball refilled: " + colorString);
+        ballRefilled(Colour.fromIndex(colourToInt(colorString)));
     }
 
     /**
@@ -1236,7 +2907,9 @@ public class App extends PApplet {
      */
     public void addingScore(int amount) {
         score += amount;
-        println("Score added by " + amount + ". Total score: " + score);
+        if (logging) {
+            println("Score added by " + amount + ". Total score: " + score);
+        }
     }
 
     /**
@@ -1246,7 +2919,9 @@ public class App extends PApplet {
      */
     public void reducingScore(int amount) {
         score -= amount;
-        println("Score decreased by " + amount + ". Total score: " + score);
+        if (logging) {
+            println("Score decreased by " + amount + ". Total score: " + score);
+        }
     }
 
     /**
@@ -1256,7 +2931,18 @@ public class App extends PApplet {
      * @return the score increment value
      */
     public int getScoreWon(String colourString) {
-        return scoreWon.getOrDefault(colourString, 10);
+        Colour colour = Colour.lookup(colourString);
+        return colour != null ? config.getScoreWon(colour) : GameConfig.DEFAULT_SCORE_WON;
+    }
+
+    /**
+     * Retrieves the score increment for capturing a ball of a specific color.
+     *
+     * @param colour the color of the ball
+     * @return the score increment value
+     */
+    public int getScoreWon(Colour colour) {
+        return config.getScoreWon(colour);
     }
 
     /**
@@ -1266,7 +2952,18 @@ public class App extends PApplet {
      * @return the score decrement value
      */
     public int getScoreLost(String colourString) {
-        return scoreLost.getOrDefault(colourString, 5);
+        Colour colour = Colour.lookup(colourString);
+        return colour != null ? config.getScoreLost(colour) : GameConfig.DEFAULT_SCORE_LOST;
+    }
+
+    /**
+     * Retrieves the score decrement for a ball of a specific color entering the wrong hole.
+     *
+     * @param colour the color of the ball
+     * @return the score decrement value
+     */
+    public int getScoreLost(Colour colour) {
+        return config.getScoreLost(colour);
     }
 
     /**
@@ -1275,7 +2972,7 @@ public class App extends PApplet {
      * @return the score increase multiplier
      */
     public float getIncreaseMultiplier() {
-        return currentLevel.getFloat("score_increase_from_hole_capture_modifier", 1.0f);
+        return currentLevel.getIncreaseModifier();
     }
 
     /**
@@ -1284,7 +2981,7 @@ public class App extends PApplet {
      * @return the score decrease multiplier
      */
     public float getDecreaaseMultiplier() {
-        return currentLevel.getFloat("score_decrease_from_wrong_hole_modifier", 1.0f);
+        return currentLevel.getDecreaseModifier();
     }
 
     /**
@@ -1306,20 +3003,20 @@ public class App extends PApplet {
     }
 
     /**
-     * Retrieves the list of active balls in the game.
+     * Retrieves the active balls in the game.
      *
-     * @return a list of {@link Ball} objects
+     * @return the balls on the board
      */
-    public List<Ball> getBalls() {
+    public BallList getBalls() {
         return balls;
     }
 
     /**
      * Retrieves the list of balls that are queued to be spawned.
      *
-     * @return a list of ball color strings
+     * @return the queue of ball colours
      */
-    public List<String> getBallsToSpawn() {
+    public SpawnQueue getBallsToSpawn() {
         return ballsToSpawn;
     }
 
@@ -1330,6 +3027,9 @@ public class App extends PApplet {
      */
     public void setTimeLeft(int time) {
         this.timeLeft = time;
+        if (levelTimeout != null) {
+            startLevelTimer();
+        }
     }
 
     /**
@@ -1338,7 +3038,7 @@ public class App extends PApplet {
      * @return the time left in frames
      */
     public int getTimeLeft() {
-        return timeLeft;
+        return levelTimeout != null ? timers.getRemaining(levelTimeout) - 1 : timeLeft;
     }
 
     /**
@@ -1346,7 +3046,7 @@ public class App extends PApplet {
      * If the time has run out, it sets the levelFinish flag to true.
      */
     public void checkIfLevelFinished() {
-        if (timeLeft <= 0) {
+        if (getTimeLeft() <= 0) {
             levelFinish = true;
         }
     }
@@ -1369,15 +3069,6 @@ public class App extends PApplet {
         return yellowTile2;
     }
 
-    /**
-     * Retrieves the list of balls that are marked for removal.
-     *
-     * @return a list of {@link Ball} objects to remove
-     */
-    public List<Ball> getBallsToRemove() {
-        return ballsToRemove;
-    }
-
     /**
      * Retrieves the total number of edge tiles used for animating yellow tiles.
      *
@@ -1396,6 +3087,118 @@ public class App extends PApplet {
         this.configPath = configPath;
     }
 
+    /**
+     * Retrieves the seed of this session's random numbers.
+     *
+     * @return the session seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Checks whether the game logs its events to the console.
+     *
+     * @return {@code false} for batch runs created without logging
+     */
+    public boolean isLogging() {
+        return logging;
+    }
+
+    /**
+     * Retrieves the random stream used for the starting direction of new balls.
+     *
+     * @return the velocity stream
+     */
+    public RandomStream getVelocityRandom() {
+        if (velocityRandom == null) {
+            seedRandom(); // Balls created before the session has been set up
+        }
+        return velocityRandom;
+    }
+
+    /**
+     * Retrieves the number of simulation ticks since the session started.
+     *
+     * @return the tick count
+     */
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Starts recording every input of this session into a replay file.
+     * The file is written when recording stops.
+     *
+     * @param path the file to write the replay to, or {@code null} to keep it in memory
+     */
+    public void startRecording(String path) {
+        recorder = new ReplayRecorder(path, seed, currentLevelIndex);
+        println("Recording replay to: " + path);
+    }
+
+    /**
+     * Stops recording and writes the replay file, including the final tick count and score.
+     *
+     * @return the encoded replay, or {@code null} if nothing was being recorded
+     */
+    public byte[] stopRecording() {
+        if (recorder == null) {
+            return null;
+        }
+        byte[] replay = recorder.finish(tickCount, score);
+        recorder = null;
+        return replay;
+    }
+
+    /**
+     * Plays a replay back in this sketch instead of taking input from the player.
+     * Must be called before the sketch is started.
+     *
+     * @param player the player holding the replay
+     */
+    public void playReplay(ReplayPlayer player) {
+        this.replayPlayer = player;
+    }
+
+    /**
+     * Ends replay playback and reports whether the recorded score was reproduced.
+     */
+    private void finishReplay() {
+        Replay replay = replayPlayer.getReplay();
+        println("Replay finished after " + tickCount + " ticks. Score: " + score
+                + " (recorded: " + replay.getFinalScore() + ")"
+                + (score == replay.getFinalScore() ? " - reproduced." : " - MISMATCH!"));
+        replayPlayer = null;
+        noLoop();
+    }
+
+    /**
+     * Writes any replay being recorded and stops background work before the sketch shuts down.
+     */
+    @Override
+    public void dispose() {
+        if (simulation != null) {
+            simulation.stop();
+            simulation = null;
+        }
+        stopRecording();
+        stopPrefetching();
+        if (metricsExporter != null) {
+            metricsExporter.stop();
+            metricsExporter = null;
+        }
+        super.dispose();
+    }
+
+    /**
+     * Stops the background thread that prepares upcoming levels.
+     * Headless games call this when they are done so the thread does not outlive them.
+     */
+    public void stopPrefetching() {
+        levelPrefetcher.shutdownNow();
+    }
+
     /**
      * The main entry point of the application.
      * Initializes and starts the Processing sketch.
@@ -1,6 +1,7 @@
 package inkball;
 import processing.core.PImage;
 import processing.core.PVector;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -19,6 +20,7 @@ public class Ball {
     private float currentSize; // Current size of the ball (diameter)
     public boolean collided = false;
     private Hole holeHasBall; // The hole the ball is being captured into
+    private int handle = BallList.NO_HANDLE; // Handle from the board's ball list
 
     private State state = State.MOVING;
     
@@ -29,14 +31,123 @@ public class Ball {
     }
 
     public Ball(float x, float y, int colour, App app) {
+        this(app, colour);
+        place(x, y);
+    }
+
+    /**
+     * Creates a ball whose state is filled in by {@link #restoreState}.
+     * Draws no random numbers, so restoring a game does not disturb the random sequence.
+     */
+    private Ball(App app, int colour) {
         this.app = app;
+        this.position = new PVector();
+        this.velocity = new PVector();
+        resetState(colour);
+    }
+
+    /**
+     * Turns a ball taken from the game's pool into a new ball, exactly as if it had just been created.
+     *
+     * @param x      the x-coordinate of the ball's tile, in pixels
+     * @param y      the y-coordinate of the ball's tile, in pixels, excluding the top bar
+     * @param colour the colour index of the ball
+     */
+    public void reset(float x, float y, int colour) {
+        resetState(colour);
+        place(x, y);
+    }
+
+    private void resetState(int colour) {
         this.colour = colour;
         this.ballImage = app.getBallColourIndex(colour); // Retrieve the ballImage based on color index
         this.initialSize = Math.max(ballImage.width, ballImage.height);
         this.currentSize = this.initialSize;
-        this.position = new PVector(x, y + App.TOPBAR); // Adjust y for the top bar
+        this.collided = false;
+        this.holeHasBall = null;
+        this.state = State.MOVING;
+    }
+
+    private void place(float x, float y) {
+        position.set(x, y + App.TOPBAR); // Adjust y for the top bar
+        launch();
+    }
+
+    /**
+     * Creates a ball placed on the board that does not move until {@link #launch()} is called.
+     * Draws no random numbers, so levels can be built off the game thread without touching
+     * the session's velocity stream.
+     *
+     * @param x      the x-coordinate of the ball's tile, in pixels
+     * @param y      the y-coordinate of the ball's tile, in pixels, excluding the top bar
+     * @param colour the colour index of the ball
+     * @param app    the game the ball belongs to
+     * @return the ball, with zero velocity
+     */
+    static Ball preload(float x, float y, int colour, App app) {
+        Ball ball = new Ball(app, colour);
+        ball.position.set(x, y + App.TOPBAR); // Adjust y for the top bar
+        return ball;
+    }
+
+    /**
+     * Gives the ball its random starting direction. Must be called on the game thread.
+     */
+    void launch() {
         initializeVelocity(); // Initialize velocity with random direction
-        System.out.println("Ball initialized at position: " + position + " with velocity: " + velocity);
+        if (isLogging()) {
+            System.out.println("Ball initialized at position: " + position + " with velocity: " + velocity);
+        }
+    }
+
+    /**
+     * Writes the ball's position, velocity, colour, size and capture state into a game snapshot.
+     *
+     * @param out   the snapshot buffer
+     * @param holes the holes of the level, used to refer to the hole the ball is entering
+     */
+    public void saveState(ByteBuffer out, List<Hole> holes) {
+        out.put((byte) colour);
+        out.put((byte) state.ordinal());
+        out.put((byte) (collided ? 1 : 0));
+        out.putInt(holes.indexOf(holeHasBall));
+        out.putFloat(position.x).putFloat(position.y);
+        out.putFloat(velocity.x).putFloat(velocity.y);
+        out.putFloat(currentSize);
+    }
+
+    /**
+     * Recreates a ball from a game snapshot written by {@link #saveState}.
+     *
+     * @param in    the snapshot buffer
+     * @param app   the game the ball belongs to
+     * @param holes the holes of the restored level
+     * @return the restored ball
+     */
+    public static Ball restoreState(ByteBuffer in, App app, List<Hole> holes) {
+        int colour = in.get();
+        Ball ball = app.getBallPool().poll();
+        if (ball == null) {
+            ball = new Ball(app, colour);
+        } else {
+            ball.resetState(colour);
+        }
+        ball.state = State.values()[in.get()];
+        ball.collided = in.get() != 0;
+        int hole = in.getInt();
+        ball.holeHasBall = hole >= 0 ? holes.get(hole) : null;
+        ball.position.set(in.getFloat(), in.getFloat());
+        ball.velocity.set(in.getFloat(), in.getFloat());
+        ball.currentSize = in.getFloat();
+        return ball;
+    }
+
+    /**
+     * Checks whether the game wants its events logged. Batch runs turn logging off, so no log
+     * line is built for every bounce.
+     */
+    private boolean isLogging() {
+        return app == null || app.isLogging();
     }
 
     /**
@@ -46,9 +157,10 @@ public class Ball {
      */
     private void initializeVelocity() {
         float[] vel = {-2.0f, 2.0f};
-        float vx = vel[(int) app.random(2)];
-        float vy = vel[(int) app.random(2)];
-        this.velocity = new PVector(vx, vy);
+        RandomStream random = app.getVelocityRandom();
+        float vx = vel[random.nextInt(2)];
+        float vy = vel[random.nextInt(2)];
+        velocity.set(vx, vy);
     }
 
     /**
@@ -88,25 +200,32 @@ public class Ball {
     }
 
     /**
-     * Handles collisions with the window boundaries by reversing the appropriate velocity components.
+     * Handles collisions with the board boundaries by reversing the appropriate velocity components.
      */
     public void checkWindowCollide() {
+        int boardRight = app != null ? app.getBoardRight() : App.WIDTH;
+        int boardBottom = app != null ? app.getBoardBottom() : App.HEIGHT;
+
         // Left Boundary
         if (position.x <= 0) {
             position.x = 0;
             velocity.x *= -1;
             collided = true;
-            System.out.println();
-            System.out.println("Ball collided with the Left boundary. Reversing vx to " + velocity.x);
+            if (isLogging()) {
+                System.out.println();
+                System.out.println("Ball collided with the Left boundary. Reversing vx to " + velocity.x);
+            }
         }
 
         // Right Boundary
-        if (position.x + currentSize >= App.WIDTH) {
-            position.x = App.WIDTH - currentSize;
+        if (position.x + currentSize >= boardRight) {
+            position.x = boardRight - currentSize;
             velocity.x *= -1;
             collided = true;
-            System.out.println();
-            System.out.println("Ball collided with the Right boundary. Reversing vx to " + velocity.x);
+            if (isLogging()) {
+                System.out.println();
+                System.out.println("Ball collided with the Right boundary. Reversing vx to " + velocity.x);
+            }
         }
 
         // Top Boundary (considering TOPBAR)
@@ -114,17 +233,21 @@ public class Ball {
             position.y = App.TOPBAR;
             velocity.y *= -1;
             collided = true;
-            System.out.println();
-            System.out.println("Ball collided with the Top boundary. Reversing vy to " + velocity.y);
+            if (isLogging()) {
+                System.out.println();
+                System.out.println("Ball collided with the Top boundary. Reversing vy to " + velocity.y);
+            }
         }
 
         // Bottom Boundary
-        if (position.y + currentSize >= App.HEIGHT) {
-            position.y = App.HEIGHT - currentSize;
+        if (position.y + currentSize >= boardBottom) {
+            position.y = boardBottom - currentSize;
             velocity.y *= -1;
             collided = true;
-            System.out.println();
-            System.out.println("Ball collided with the Bottom boundary. Reversing vy to " + velocity.y);
+            if (isLogging()) {
+                System.out.println();
+                System.out.println("Ball collided with the Bottom boundary. Reversing vy to " + velocity.y);
+            }
         }
     }
 
@@ -142,13 +265,24 @@ public class Ball {
      * @param tile The tile with which the collision has occurred.
      */
     public void handleWallReflection(Tile tile) {
+        handleWallReflection(tile.getX(), tile.getY());
+    }
+
+    /**
+     * Determines the side of collision with the wall at a grid position, reflects the ball's
+     * velocity accordingly and applies the hit to the wall.
+     *
+     * @param tileX The column of the wall.
+     * @param tileY The row of the wall.
+     */
+    public void handleWallReflection(int tileX, int tileY) {
         // Ball properties
         PVector ballCenter = PVector.add(position, new PVector(currentSize / 2.0f, currentSize / 2.0f));
         float radius = currentSize / 2.0f;
 
         // Tile properties
-        float rectX = tile.getX() * App.TILE_SIZE;
-        float rectY = tile.getY() * App.TILE_SIZE + App.TOPBAR;
+        float rectX = tileX * App.TILE_SIZE;
+        float rectY = tileY * App.TILE_SIZE + App.TOPBAR;
         float rectWidth = App.TILE_SIZE;
         float rectHeight = App.TILE_SIZE;
 
@@ -175,29 +309,30 @@ public class Ball {
         // Reflect the velocity vector based on the collision normal
         float dotProduct = velocity.dot(normal);
         velocity.sub(PVector.mult(normal, 2 * dotProduct));
-        System.out.println();
-        System.out.println("Velocity after reflection: " + velocity);
+        if (isLogging()) {
+            System.out.println();
+            System.out.println("Velocity after reflection: " + velocity);
+        }
 
         // Move the ball out of collision
         float overlap = radius - distance;
         PVector correction = PVector.mult(normal, overlap);
         position.add(correction);
-        System.out.println("Ball position corrected by: " + correction);
-
-        // Change the ball's color if colliding with a ColouredWallTile
-        if (tile instanceof GreyTile) {
-            GreyTile wall = (GreyTile) tile;
-            System.out.println("Ball hit Wall at (" + tile.getX() + ", " + tile.getY() + ").");
-            wall.getsHit(this); // Apply damage to the wall
+        if (isLogging()) {
+            System.out.println("Ball position corrected by: " + correction);
         }
-        if (tile instanceof ColourTile) {
-            int newColour = ((ColourTile) tile).getColour();
-            ColourTile cWall = (ColourTile) tile;
-            System.out.println();
-            System.out.println("Ball hit ColouredWall at (" + tile.getX() + ", " + tile.getY() +")");
-            cWall.getsHit(this);
-            changeColour(newColour);
-            
+
+        // Apply damage to the wall, then take on its colour if it is a coloured wall
+        TileGrid grid = app.getGrid();
+        if (grid.getType(tileX, tileY) == TileGrid.WALL) {
+            int wallColour = grid.getColour(tileX, tileY);
+            if (isLogging()) {
+                System.out.println("Ball hit Wall at (" + tileX + ", " + tileY + ").");
+            }
+            app.wallContact(tileX, tileY, this);
+            if (wallColour != 0) {
+                changeColour(wallColour);
+            }
         }
     }
     
@@ -221,18 +356,16 @@ public class Ball {
 
         // cap the tile indices to valid ranges
         startTileX = Math.max(0, startTileX);
-        endTileX = Math.min(App.GRID_WIDTH - 1, endTileX);
+        endTileX = Math.min(app.getBoardWidth() - 1, endTileX);
         startTileY = Math.max(0, startTileY);
-        endTileY = Math.min(App.GRID_HEIGHT - 1, endTileY);
+        endTileY = Math.min(app.getBoardHeight() - 1, endTileY);
 
         // Iterate through all overlapping tiles
+        TileGrid grid = app.getGrid();
         for (int tileY = startTileY; tileY <= endTileY; tileY++) {
             for (int tileX = startTileX; tileX <= endTileX; tileX++) {
-                Tile tile = app.getTile(tileX, tileY);
-                if (tile != null && tile.canBeHit()) {
-                    if (checkWallCollide(tile)) {
-                        handleWallReflection(tile);
-                    }
+                if (grid.isSolid(tileX, tileY) && checkWallCollide(tileX, tileY)) {
+                    handleWallReflection(tileX, tileY);
                 }
             }
         }
@@ -245,13 +378,24 @@ public class Ball {
      * @return True if collision occurs, else false.
      */
     public boolean checkWallCollide(Tile tile) {
+        return checkWallCollide(tile.getX(), tile.getY());
+    }
+
+    /**
+     * Checks for collision between the ball (circle) and the tile at a grid position.
+     *
+     * @param tileX The column of the tile.
+     * @param tileY The row of the tile.
+     * @return True if collision occurs, else false.
+     */
+    public boolean checkWallCollide(int tileX, int tileY) {
         // Ball properties
         PVector ballCenter = PVector.add(position, new PVector(currentSize / 2.0f, currentSize / 2.0f));
         float radius = currentSize / 2.0f;
 
         // Tile properties
-        float rectX = tile.getX() * App.TILE_SIZE;
-        float rectY = tile.getY() * App.TILE_SIZE + App.TOPBAR;
+        float rectX = tileX * App.TILE_SIZE;
+        float rectY = tileY * App.TILE_SIZE + App.TOPBAR;
         float rectWidth = App.TILE_SIZE;
         float rectHeight = App.TILE_SIZE;
 
@@ -271,6 +415,20 @@ public class Ball {
     
 
     public void holeAttracts() {
+        // Bend the path towards nearby holes, keeping the ball's speed
+        HoleField field = app.getHoleField();
+        if (field != null) {
+            float centreX = position.x + currentSize / 2.0f;
+            float centreY = position.y + currentSize / 2.0f;
+            float pullX = field.getPullX(centreX, centreY);
+            float pullY = field.getPullY(centreX, centreY);
+            if (pullX != 0 || pullY != 0) {
+                float speed = velocity.mag();
+                velocity.add(pullX, pullY);
+                velocity.setMag(speed);
+            }
+        }
+
         List<Hole> holes = app.getHoles();
 
         for (Hole hole : holes) {
@@ -315,23 +473,28 @@ public class Ball {
             isSuccess = false;
         }
 
-        String colorString = app.colourToString(this.colour);
+        Colour ballColour = Colour.fromIndex(this.colour);
+        app.countCapture(this.colour, holeHasBall.getColour(), isSuccess);
 
         if (isSuccess) {
-            int baseScore = app.getScoreWon(colorString);
+            int baseScore = app.getScoreWon(ballColour);
             float multiplier = app.getIncreaseMultiplier();
             int pointsToAdd = Math.round(baseScore * multiplier);
             app.addingScore(pointsToAdd);
-            System.out.println("Good Ball goes into hole successful! Score increased by " + pointsToAdd + ".");
+            if (isLogging()) {
+                System.out.println("Good Ball goes into hole successful! Score increased by " + pointsToAdd + ".");
+            }
         } else {
-            int decrease = app.getScoreLost(colorString);
+            int decrease = app.getScoreLost(ballColour);
             float multiplier = app.getDecreaaseMultiplier();
             int decreaseScore = Math.round(decrease * multiplier);
             app.reducingScore(decreaseScore);
 
             // Refilled the ball
-            app.ballRefilled(colorString);
-            System.out.println("Wrong Ball gets into Wrong hole! Unsuccessful! Score decreased by " + decreaseScore + " and ball refilled.");
+            app.ballRefilled(ballColour);
+            if (isLogging()) {
+                System.out.println("Wrong Ball gets into Wrong hole! Unsuccessful! Score decreased by " + decreaseScore + " and ball refilled.");
+            }
         }
     }
 
@@ -419,8 +582,11 @@ public class Ball {
 
                 if (distance <= collisionThreshold) {
                     // Collision detected
-                    System.out.println();
-                    System.out.println("Ball hit with line point: (" + p1 + ") to (" + p2 + ")");
+                    app.countLineCollision();
+                    if (isLogging()) {
+                        System.out.println();
+                        System.out.println("Ball hit with line point: (" + p1 + ") to (" + p2 + ")");
+                    }
 
                     // Calculate the direction vector of the line point
                     PVector point = PVector.sub(p2, p1).normalize();
@@ -438,18 +604,24 @@ public class Ball {
                     // Reflect the velocity vector across the normal
                     float dotProduct = velocity.dot(normal);
                     velocity.sub(PVector.mult(normal, 2 * dotProduct));
-                    System.out.println("Velocity after reflection: " + velocity);
+                    if (isLogging()) {
+                        System.out.println("Velocity after reflection: " + velocity);
+                    }
 
                     // Correct the ball's position to prevent sticking
                     PVector correction = PVector.mult(normal, collisionThreshold - distance);
                     position.add(correction);
-                    System.out.println("Ball position corrected by: " + correction);
+                    if (isLogging()) {
+                        System.out.println("Ball position corrected by: " + correction);
+                    }
 
                     // Remove the collided line from the game
                     app.removeLines(line);
-                    System.out.println("\n\n\n");
-                    System.out.println("Player-drawn line removed due to collision.");
-                    System.out.println("\n\n\n");
+                    if (isLogging()) {
+                        System.out.println("\n\n\n");
+                        System.out.println("Player-drawn line removed due to collision.");
+                        System.out.println("\n\n\n");
+                    }
 
                     // Exit after handling one collision to prevent multiple reflections
                     return;
@@ -458,6 +630,19 @@ public class Ball {
         }
     }
 
+    /**
+     * Retrieves the handle given to the ball when it was last put on the board.
+     *
+     * @return the handle, or {@link BallList#NO_HANDLE} if it has never been on the board
+     */
+    public int getHandle() {
+        return handle;
+    }
+
+    void setHandle(int handle) {
+        this.handle = handle;
+    }
+
     public int getColour() {
         return colour;
     }
@@ -466,7 +651,9 @@ public class Ball {
         if (newColor >= 0 && newColor < app.getBallImages().length) {
             this.colour = newColor;
             this.ballImage = app.getBallColourIndex(newColor); // Update ballImage based on new color index
-            System.out.println("Ball colour changed to index " + newColor);
+            if (isLogging()) {
+                System.out.println("Ball colour changed to index " + newColor);
+            }
         }
     }
 
@@ -474,6 +661,10 @@ public class Ball {
         return position;
     }
 
+    public float getCurrentSize() {
+        return currentSize;
+    }
+
     public boolean isCaptured() {
         return state == State.CAPTURED;
     }
@@ -488,7 +679,9 @@ public class Ball {
             return;
         }
     
-        if (ballImage != null) {
+        if (ballImage != null && !app.getQualityController().scalesBalls()) {
+            app.image(ballImage, position.x, position.y); // Sprite size while the game is short of time
+        } else if (ballImage != null) {
             app.image(ballImage, position.x, position.y, currentSize, currentSize);
         } else {
             app.noStroke();
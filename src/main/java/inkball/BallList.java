@@ -0,0 +1,168 @@
+package inkball;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The balls on the board, kept in a dense array with constant-time removal.
+ * <p>
+ * Removing a ball moves the last ball into its place, so removal never shifts the array but the
+ * order of the remaining balls changes. Every ball added gets a handle made of a slot id and the
+ * slot's generation. Removing the ball bumps the generation, so a handle kept after its ball has
+ * left the board, or after the ball object has been reused from the pool, no longer resolves.
+ * </p>
+ */
+public class BallList implements Iterable<Ball> {
+    public static final int NO_HANDLE = -1;
+    private static final int ID_BITS = 16;
+    private static final int ID_MASK = (1 << ID_BITS) - 1;
+    private static final int GENERATION_MASK = 0x7FFF; // Keeps handles positive
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Ball[] dense = new Ball[INITIAL_CAPACITY];
+    private int size;
+    private int[] slots = new int[INITIAL_CAPACITY]; // Per id, the ball's index in the dense array
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int[] freeIds = new int[INITIAL_CAPACITY]; // Stack of ids not in use
+    private int freeCount;
+    private int nextId; // Ids from here up have never been used
+
+    /**
+     * Adds a ball to the end of the list.
+     *
+     * @param ball the ball, which must not already be in the list
+     * @return the ball's handle, also stored on the ball
+     */
+    public int add(Ball ball) {
+        if (contains(ball)) {
+            throw new IllegalArgumentException("Ball is already on the board");
+        }
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            if (nextId > ID_MASK) {
+                throw new IllegalStateException("Too many balls: " + nextId);
+            }
+            id = nextId++;
+            if (id == slots.length) {
+                slots = Arrays.copyOf(slots, id * 2);
+                generations = Arrays.copyOf(generations, id * 2);
+                freeIds = Arrays.copyOf(freeIds, id * 2);
+            }
+        }
+        if (size == dense.length) {
+            dense = Arrays.copyOf(dense, size * 2);
+        }
+        slots[id] = size;
+        dense[size++] = ball;
+        int handle = (generations[id] << ID_BITS) | id;
+        ball.setHandle(handle);
+        return handle;
+    }
+
+    /**
+     * Removes a ball by moving the last ball into its place.
+     *
+     * @param ball the ball to remove
+     * @return {@code true} if the ball was in the list
+     */
+    public boolean remove(Ball ball) {
+        if (!contains(ball)) {
+            return false;
+        }
+        int id = ball.getHandle() & ID_MASK;
+        int index = slots[id];
+        Ball last = dense[--size];
+        dense[index] = last;
+        dense[size] = null;
+        slots[last.getHandle() & ID_MASK] = index;
+        release(id);
+        return true;
+    }
+
+    private void release(int id) {
+        generations[id] = (generations[id] + 1) & GENERATION_MASK;
+        freeIds[freeCount++] = id;
+    }
+
+    /**
+     * Removes every ball. Handles of the removed balls stop resolving.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            release(dense[i].getHandle() & ID_MASK);
+            dense[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Checks whether a ball is in the list.
+     *
+     * @param ball the ball to look for
+     * @return {@code true} if the ball's handle resolves to it
+     */
+    public boolean contains(Ball ball) {
+        return ball != null && resolve(ball.getHandle()) == ball;
+    }
+
+    /**
+     * Looks up the ball a handle was given to.
+     *
+     * @param handle a handle returned by {@link #add(Ball)}
+     * @return the ball, or {@code null} if it has since been removed
+     */
+    public Ball resolve(int handle) {
+        if (handle < 0) {
+            return null;
+        }
+        int id = handle & ID_MASK;
+        if (id >= nextId || generations[id] != handle >>> ID_BITS) {
+            return null;
+        }
+        return dense[slots[id]];
+    }
+
+    /**
+     * Retrieves the ball at a position in the dense array.
+     *
+     * @param index the position, from 0 to {@link #size()} - 1
+     * @return the ball
+     */
+    public Ball get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size);
+        }
+        return dense[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Iterator<Ball> iterator() {
+        return new Iterator<Ball>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Ball next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return dense[next++];
+            }
+        };
+    }
+}
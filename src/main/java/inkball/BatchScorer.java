@@ -0,0 +1,256 @@
+package inkball;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-simulates recorded replays on a set of level layouts, headless and on every core,
+ * and writes the outcome of each run as a line of CSV.
+ * <p>
+ * Every pair of a layout file and a replay is one run: the replay's seed and inputs are played
+ * from its starting level with the layout used on every level, keeping each level's time, spawns
+ * and scoring from the configuration. Runs are split over a work-stealing pool, and each result is
+ * written as soon as its run finishes, so nothing is held in memory and a long batch can be watched.
+ * </p>
+ * <pre>
+ * BatchScorer &lt;config.json&gt; &lt;layouts-dir&gt; &lt;replay&gt;... [--out &lt;results.csv&gt;] [--threads &lt;n&gt;]
+ * </pre>
+ * Replay arguments may be files or directories of replay files.
+ */
+public class BatchScorer {
+    static final String HEADER = "layout,replay,seed,start_level,ticks,score,recorded_score,"
+            + "captures,wrong_captures,final_level,millis,error";
+
+    private static final int SPLIT_THRESHOLD = 1; // Runs per task before it stops splitting
+
+    private final String configPath;
+    private final List<File> layouts;
+    private final List<File> replayFiles;
+    private final List<Replay> replays;
+    private final PrintWriter out;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * Creates a batch over every pair of layout and replay.
+     *
+     * @param configPath  the configuration the replays were recorded with
+     * @param layouts     the layout files to play
+     * @param replayFiles the replay files, in the same order as {@code replays}
+     * @param replays     the decoded replays
+     * @param out         where the CSV lines are written
+     */
+    public BatchScorer(String configPath, List<File> layouts, List<File> replayFiles, List<Replay> replays,
+                       PrintWriter out) {
+        this.configPath = configPath;
+        this.layouts = layouts;
+        this.replayFiles = replayFiles;
+        this.replays = replays;
+        this.out = out;
+    }
+
+    /**
+     * Number of runs in the batch.
+     *
+     * @return layouts times replays
+     */
+    public int getRunCount() {
+        return layouts.size() * replays.size();
+    }
+
+    public int getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Writes the CSV header and runs every pair on a pool of the given size.
+     *
+     * @param threads the number of worker threads
+     */
+    public void run(int threads) {
+        writeLine(HEADER);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new Runs(0, getRunCount()));
+        } finally {
+            pool.shutdown();
+        }
+        out.flush();
+    }
+
+    /**
+     * A range of runs that splits in half until it is small enough to run, so idle workers
+     * can steal the other halves.
+     */
+    private class Runs extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        Runs(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    runOne(i / replays.size(), i % replays.size());
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Runs(from, middle), new Runs(middle, to));
+        }
+    }
+
+    /**
+     * Plays one replay on one layout and writes its line.
+     *
+     * @param layoutIndex the index of the layout
+     * @param replayIndex the index of the replay
+     */
+    void runOne(int layoutIndex, int replayIndex) {
+        File layout = layouts.get(layoutIndex);
+        Replay replay = replays.get(replayIndex);
+        String prefix = csv(layout.getPath()) + "," + csv(replayFiles.get(replayIndex).getPath()) + ","
+                + replay.getSeed() + "," + replay.getLevelIndex() + ",";
+        long start = System.nanoTime();
+        App app = null;
+        try {
+            app = App.createHeadless(configPath, replay.getSeed(), replay.getLevelIndex(), layout.getPath(), false);
+            ReplayPlayer player = new ReplayPlayer(replay);
+            while (!player.isFinished(app)) {
+                player.feed(app);
+                app.tick();
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            writeLine(prefix + app.getTickCount() + "," + app.getScore() + "," + replay.getFinalScore() + ","
+                    + app.getCaptures() + "," + app.getWrongCaptures() + "," + app.getCurrentLevelIndex() + ","
+                    + millis + ",");
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            writeLine(prefix + ",,,,,," + millis + "," + csv(String.valueOf(e)));
+        } finally {
+            if (app != null) {
+                app.stopPrefetching();
+            }
+        }
+    }
+
+    private void writeLine(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    /**
+     * Quotes a CSV field if it contains a separator, a quote or a line break.
+     *
+     * @param value the field
+     * @return the field as it should appear in the file
+     */
+    static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Lists the layout files of a directory in name order.
+     *
+     * @param directory the directory of layouts
+     * @return the {@code .txt} files in it
+     * @throws IOException if the directory cannot be listed
+     */
+    static List<File> listLayouts(File directory) throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".txt"));
+        if (files == null) {
+            throw new IOException("Not a directory: " + directory);
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    /**
+     * Expands replay arguments into files, listing directories in name order.
+     *
+     * @param paths the files and directories given on the command line
+     * @return the replay files
+     */
+    static List<File> listReplays(List<String> paths) {
+        List<File> files = new ArrayList<>();
+        for (String path : paths) {
+            File file = new File(path);
+            File[] children = file.listFiles(File::isFile);
+            if (children != null) {
+                Arrays.sort(children);
+                files.addAll(Arrays.asList(children));
+            } else {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Runs a batch from the command line. The games are created without logging, and the few
+     * messages left, such as level changes, are discarded so only the CSV is printed.
+     *
+     * @param args the configuration, the layouts directory and the replays, then optional
+     *             {@code --out <file>} and {@code --threads <n>}
+     */
+    public static void main(String[] args) throws IOException {
+        String usage = "Usage: BatchScorer <config.json> <layouts-dir> <replay>... [--out <results.csv>] [--threads <n>]";
+        List<String> replayPaths = new ArrayList<>();
+        String outPath = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--out") && i + 1 < args.length) {
+                outPath = args[++i];
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                replayPaths.add(args[i]);
+            }
+        }
+        if (args.length < 3 || replayPaths.isEmpty() || threads < 1) {
+            System.err.println(usage);
+            System.exit(2);
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        List<File> layouts = listLayouts(new File(args[1]));
+        List<File> replayFiles = listReplays(replayPaths);
+        List<Replay> replays = new ArrayList<>();
+        for (File file : replayFiles) {
+            replays.add(Replay.read(file.getPath()));
+        }
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Level changes and other rare messages
+        PrintWriter out = outPath != null
+                ? new PrintWriter(new BufferedWriter(new FileWriter(outPath)))
+                : new PrintWriter(new OutputStreamWriter(console));
+
+        BatchScorer batch = new BatchScorer(args[0], layouts, replayFiles, replays, out);
+        long start = System.nanoTime();
+        batch.run(threads);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        if (outPath != null) {
+            out.close();
+        }
+        System.err.println("Ran " + batch.getRunCount() + " runs on " + threads + " threads in " + millis + " ms, "
+                + batch.getFailures() + " failed.");
+        System.exit(batch.getFailures() == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,159 @@
+package inkball;
+
+import processing.core.PApplet;
+
+/**
+ * The view of the board below the top bar, which can pan and zoom over boards larger than the window.
+ * <p>
+ * Board coordinates are the game's usual pixel coordinates, with the board starting at
+ * {@link App#TOPBAR}. The camera maps them to the screen for drawing and maps mouse positions
+ * back, and reports the visible area so drawing can skip everything off screen.
+ * </p>
+ */
+public class Camera {
+    public static final float MIN_ZOOM = 0.25f;
+    public static final float MAX_ZOOM = 2.0f;
+
+    private final int viewWidth; // Width of the view on screen, in pixels
+    private final int viewHeight; // Height of the view on screen, in pixels
+    private float x = 0; // Board x-coordinate at the left of the view
+    private float y = 0; // Board y-coordinate at the top of the view, measured from the top of the board
+    private float zoom = 1.0f;
+    private int boardWidth; // Board size in pixels, to keep the view over the board
+    private int boardHeight;
+
+    /**
+     * Creates a camera for a view of the given size.
+     *
+     * @param viewWidth  the width of the view in pixels
+     * @param viewHeight the height of the view in pixels
+     */
+    public Camera(int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        this.boardWidth = viewWidth;
+        this.boardHeight = viewHeight;
+    }
+
+    /**
+     * Moves the view back to the top-left corner of a board at normal zoom.
+     *
+     * @param boardWidth  the width of the board in pixels
+     * @param boardHeight the height of the board in pixels, excluding the top bar
+     */
+    public void reset(int boardWidth, int boardHeight) {
+        x = 0;
+        y = 0;
+        zoom = 1.0f;
+        setBoardSize(boardWidth, boardHeight);
+    }
+
+    /**
+     * Changes the size of the board under the view, keeping the view over it.
+     *
+     * @param boardWidth  the width of the board in pixels
+     * @param boardHeight the height of the board in pixels, excluding the top bar
+     */
+    public void setBoardSize(int boardWidth, int boardHeight) {
+        this.boardWidth = boardWidth;
+        this.boardHeight = boardHeight;
+        clamp();
+    }
+
+    /**
+     * Moves the view by a distance on screen.
+     *
+     * @param dx the horizontal distance in screen pixels
+     * @param dy the vertical distance in screen pixels
+     */
+    public void pan(float dx, float dy) {
+        x += dx / zoom;
+        y += dy / zoom;
+        clamp();
+    }
+
+    /**
+     * Zooms in or out, keeping the centre of the view in place.
+     *
+     * @param factor the zoom multiplier, above 1 to zoom in
+     */
+    public void zoomBy(float factor) {
+        float centreX = x + viewWidth / (2 * zoom);
+        float centreY = y + viewHeight / (2 * zoom);
+        zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+        x = centreX - viewWidth / (2 * zoom);
+        y = centreY - viewHeight / (2 * zoom);
+        clamp();
+    }
+
+    private void clamp() {
+        x = Math.max(0, Math.min(x, boardWidth - viewWidth / zoom));
+        y = Math.max(0, Math.min(y, boardHeight - viewHeight / zoom));
+    }
+
+    /**
+     * Applies the camera to the sketch's transform. Call between {@code pushMatrix()} and {@code popMatrix()}.
+     *
+     * @param app the sketch to draw into
+     */
+    public void apply(PApplet app) {
+        app.translate(0, App.TOPBAR);
+        app.scale(zoom);
+        app.translate(-x, -y - App.TOPBAR);
+    }
+
+    /**
+     * Converts a screen x-coordinate to a board x-coordinate.
+     */
+    public float toBoardX(float screenX) {
+        return screenX / zoom + x;
+    }
+
+    /**
+     * Converts a screen y-coordinate below the top bar to a board y-coordinate.
+     */
+    public float toBoardY(float screenY) {
+        return (screenY - App.TOPBAR) / zoom + y + App.TOPBAR;
+    }
+
+    /**
+     * Board x-coordinate of the left edge of the view.
+     */
+    public float getLeft() {
+        return x;
+    }
+
+    /**
+     * Board y-coordinate of the top edge of the view.
+     */
+    public float getTop() {
+        return y + App.TOPBAR;
+    }
+
+    /**
+     * Board x-coordinate of the right edge of the view.
+     */
+    public float getRight() {
+        return x + viewWidth / zoom;
+    }
+
+    /**
+     * Board y-coordinate of the bottom edge of the view.
+     */
+    public float getBottom() {
+        return y + App.TOPBAR + viewHeight / zoom;
+    }
+
+    public float getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Checks whether a rectangle in board coordinates is at least partly in view.
+     *
+     * @return {@code true} if the rectangle overlaps the view
+     */
+    public boolean isVisible(float left, float top, float right, float bottom) {
+        return right >= getLeft() && left <= getRight() && bottom >= getTop() && top <= getBottom();
+    }
+}
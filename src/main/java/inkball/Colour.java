@@ -0,0 +1,71 @@
+package inkball;
+
+/**
+ * The colours used by balls, walls and holes.
+ * The ordinal of each colour is the colour index used by the sprites and the level files
+ * (e.g. {@code ball2.png}, {@code H2}), so score tables can be indexed by {@link #ordinal()}.
+ */
+public enum Colour {
+    GREY("grey"),
+    ORANGE("orange"),
+    BLUE("blue"),
+    GREEN("green"),
+    YELLOW("yellow");
+
+    private static final Colour[] VALUES = values();
+
+    private final String name;
+
+    Colour(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Retrieves the lower-case name used for this colour in {@code config.json}.
+     *
+     * @return the colour name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Number of colours.
+     *
+     * @return the number of colours
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+
+    /**
+     * Looks up a colour by its colour index.
+     *
+     * @param index the colour index
+     * @return the colour, or {@link #GREY} if the index is out of range
+     */
+    public static Colour fromIndex(int index) {
+        if (index >= 0 && index < VALUES.length) {
+            return VALUES[index];
+        }
+        return GREY;
+    }
+
+    /**
+     * Looks up a colour by its name, ignoring case.
+     *
+     * @param name the colour name (e.g. "grey", "orange")
+     * @return the colour, or {@code null} if the name is unknown
+     */
+    public static Colour lookup(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (Colour colour : VALUES) {
+            if (colour.name.equalsIgnoreCase(name)) {
+                return colour;
+            }
+        }
+        return null;
+    }
+}
@@ -9,7 +9,7 @@ public class ColourTile extends GreyTile {
     public ColourTile(int x, int y, int colour, App app) {
         super(x, y, app);
         this.colour = colour;
-        this.Image = app.loadImage("src/main/resources/inkball/wall" + colour + ".png");
+        this.Image = app.getWallImage(colour);
         System.out.println("Created ColouredWallTile at (" + x + ", " + y + ") with colour index: " + colour);
     }
 
@@ -60,20 +60,31 @@ public class ColourTile extends GreyTile {
             case 1:
                 break;
             case 2:
-                this.Image = app.loadImage("src/main/resources/inkball/walld" + colour + ".png");
+                this.Image = app.getDamagedWallImage(colour);
                 break;
             default:
                 break;
         }
-
-        // Redraw the tile in the next draw call
-        app.getTile(x, y).draw(app);
+        // The tile is drawn with the updated sprite on the next render
     }
     
     public int getColour() {
         return colour;
     }
 
+    @Override
+    public int getCooldownRemaining() {
+        return canBeHit ? 0 : cooldownCounter;
+    }
+
+    @Override
+    public void restoreDamage(int damageLevel, int cooldown) {
+        super.restoreDamage(damageLevel, cooldown);
+        this.cooldownCounter = cooldown;
+        this.canBeHit = cooldown <= 0;
+        this.Image = damageLevel >= 2 ? app.getDamagedWallImage(colour) : app.getWallImage(colour);
+    }
+
     // Getters and setters for testing purposes
     public boolean isCanBeHit() {
         return canBeHit;
@@ -4,7 +4,7 @@ public class EntryPoint extends Tile {
 
     public EntryPoint(int x, int y, App app) {
         super(x, y, app);
-        this.Image = app.loadImage("src/main/resources/inkball/entrypoint.png");
+        this.Image = app.getEntryPointImage();
     }
 
     @Override
@@ -0,0 +1,93 @@
+package inkball;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces a loop to a fixed rate against {@link System#nanoTime()} deadlines and measures how far
+ * each interval strays from the period.
+ * <p>
+ * Each wait parks the thread until shortly before the deadline, then spins for the rest, so frames
+ * start on time without keeping a core busy. Deadlines follow on from each other rather than from
+ * when the last frame ended, so small delays do not add up. A loop that falls more than its
+ * catch-up allowance behind starts again from now instead of rushing through the missed frames.
+ * </p>
+ */
+public class FramePacer {
+    public static final String PROPERTY = "inkball.framePacer";
+    private static final long SPIN_NANOS = 250_000; // Spun rather than parked, as parking can overshoot
+
+    private final long period;
+    private final int maxCatchUp;
+    private final Metrics.Histogram jitter;
+    private long next; // Deadline of the next frame, 0 before the first
+    private long last; // When the last frame started, 0 before the first
+
+    /**
+     * Creates a pacer.
+     *
+     * @param rate       the frames per second
+     * @param maxCatchUp the most periods the loop may fall behind and still run the missed frames
+     *                   back to back
+     * @param jitter     receives the difference between each interval and the period, in nanoseconds
+     */
+    public FramePacer(int rate, int maxCatchUp, Metrics.Histogram jitter) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + rate);
+        }
+        this.period = 1_000_000_000L / rate;
+        this.maxCatchUp = maxCatchUp;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Checks whether {@value #PROPERTY} asks for paced frames.
+     *
+     * @return {@code true} if the property is set to {@code true}
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PROPERTY);
+    }
+
+    /**
+     * Waits for the next frame's deadline, then records the frame as started.
+     *
+     * @return the time the frame started
+     */
+    public long await() {
+        long now = System.nanoTime();
+        if (next == 0) {
+            next = now;
+        } else if (now - next > maxCatchUp * period) {
+            next = now; // Too far behind to catch up; carry on from now
+        }
+        long wait = next - now;
+        while (wait > SPIN_NANOS) {
+            LockSupport.parkNanos(this, wait - SPIN_NANOS); // May wake early, so check the time again
+            wait = next - System.nanoTime();
+        }
+        while (System.nanoTime() < next) {
+            Thread.onSpinWait();
+        }
+        next += period;
+        return mark(System.nanoTime());
+    }
+
+    /**
+     * Records that a frame started without waiting for it, to measure the jitter of a loop paced
+     * by something else.
+     *
+     * @param now the time the frame started
+     * @return the same time
+     */
+    public long mark(long now) {
+        if (last != 0) {
+            jitter.observe(Math.abs(now - last - period));
+        }
+        last = now;
+        return now;
+    }
+
+    public long getPeriod() {
+        return period;
+    }
+}
@@ -0,0 +1,212 @@
+package inkball;
+
+import processing.data.JSONArray;
+import processing.data.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The game configuration, parsed once from {@code config.json} and validated on load.
+ * Score tables are stored as arrays indexed by {@link Colour#ordinal()} so scoring never
+ * needs to look anything up by name.
+ */
+public final class GameConfig {
+    public static final int DEFAULT_SCORE_WON = 10;
+    public static final int DEFAULT_SCORE_LOST = 5;
+
+    private final List<LevelConfig> levels;
+    private final int[] scoreWon;
+    private final int[] scoreLost;
+    private final float attractionRadius; // Pixels from a hole's centre that it pulls balls, 0 when off
+    private final float attractionStrength; // Pull at a hole's centre in pixels per tick per tick
+
+    private GameConfig(List<LevelConfig> levels, int[] scoreWon, int[] scoreLost,
+                       float attractionRadius, float attractionStrength) {
+        this.levels = Collections.unmodifiableList(levels);
+        this.scoreWon = scoreWon;
+        this.scoreLost = scoreLost;
+        this.attractionRadius = attractionRadius;
+        this.attractionStrength = attractionStrength;
+    }
+
+    /**
+     * Parses and validates a configuration.
+     *
+     * @param json the root object of {@code config.json}
+     * @return the parsed configuration
+     * @throws IllegalArgumentException if the configuration is missing required values or has invalid ones
+     */
+    public static GameConfig parse(JSONObject json) {
+        if (json == null) {
+            throw new IllegalArgumentException("Config is empty.");
+        }
+        JSONArray levelsArray = json.getJSONArray("levels");
+        if (levelsArray == null || levelsArray.size() == 0) {
+            throw new IllegalArgumentException("Config must define at least one level.");
+        }
+
+        List<LevelConfig> levels = new ArrayList<>();
+        for (int i = 0; i < levelsArray.size(); i++) {
+            levels.add(parseLevel(levelsArray.getJSONObject(i), i));
+        }
+
+        int[] scoreWon = parseScores(json.getJSONObject("score_increase_from_hole_capture"),
+                "score_increase_from_hole_capture", DEFAULT_SCORE_WON);
+        int[] scoreLost = parseScores(json.getJSONObject("score_decrease_from_wrong_hole"),
+                "score_decrease_from_wrong_hole", DEFAULT_SCORE_LOST);
+
+        // Hole magnetism is off unless configured
+        float radius = 0;
+        float strength = 0;
+        JSONObject attraction = json.getJSONObject("hole_attraction");
+        if (attraction != null) {
+            radius = attraction.getFloat("radius", 0);
+            strength = attraction.getFloat("strength", 0);
+            if (radius < 0 || strength < 0) {
+                throw new IllegalArgumentException("hole_attraction radius and strength must not be negative.");
+            }
+        }
+        return new GameConfig(levels, scoreWon, scoreLost, radius, strength);
+    }
+
+    private static LevelConfig parseLevel(JSONObject level, int index) {
+        String where = "levels[" + index + "]";
+        if (level == null) {
+            throw new IllegalArgumentException(where + " must be an object.");
+        }
+        String layout = level.getString("layout");
+        if (layout == null || layout.isEmpty()) {
+            throw new IllegalArgumentException(where + " is missing \"layout\".");
+        }
+        int time = requireInt(level, "time", where);
+        int spawnInterval = requireInt(level, "spawn_interval", where);
+        if (time <= 0) {
+            throw new IllegalArgumentException(where + ".time must be positive, got " + time);
+        }
+        if (spawnInterval <= 0) {
+            throw new IllegalArgumentException(where + ".spawn_interval must be positive, got " + spawnInterval);
+        }
+        float increaseModifier = level.getFloat("score_increase_from_hole_capture_modifier", 1.0f);
+        float decreaseModifier = level.getFloat("score_decrease_from_wrong_hole_modifier", 1.0f);
+        if (increaseModifier < 0 || decreaseModifier < 0) {
+            throw new IllegalArgumentException(where + " score modifiers must not be negative.");
+        }
+
+        JSONArray ballsArray = level.getJSONArray("balls");
+        if (ballsArray == null) {
+            throw new IllegalArgumentException(where + " is missing \"balls\".");
+        }
+        Colour[] balls = new Colour[ballsArray.size()];
+        for (int j = 0; j < balls.length; j++) {
+            String name = ballsArray.getString(j);
+            balls[j] = Colour.lookup(name);
+            if (balls[j] == null) {
+                throw new IllegalArgumentException(where + ".balls[" + j + "] has unknown colour \"" + name + "\"");
+            }
+        }
+        return new LevelConfig(layout, time, spawnInterval, increaseModifier, decreaseModifier, balls);
+    }
+
+    private static int requireInt(JSONObject object, String key, String where) {
+        if (!object.hasKey(key)) {
+            throw new IllegalArgumentException(where + " is missing \"" + key + "\".");
+        }
+        return object.getInt(key);
+    }
+
+    private static int[] parseScores(JSONObject scores, String name, int defaultScore) {
+        int[] table = new int[Colour.count()];
+        Arrays.fill(table, defaultScore);
+        if (scores == null) {
+            return table;
+        }
+        for (Object keyObj : scores.keys()) {
+            String key = keyObj.toString();
+            Colour colour = Colour.lookup(key);
+            if (colour == null) {
+                throw new IllegalArgumentException(name + " has unknown colour \"" + key + "\"");
+            }
+            int value = scores.getInt(key);
+            if (value < 0) {
+                throw new IllegalArgumentException(name + "." + key + " must not be negative, got " + value);
+            }
+            table[colour.ordinal()] = value;
+        }
+        return table;
+    }
+
+    /**
+     * Creates a copy of this configuration in which every level plays the same layout file,
+     * keeping each level's time, spawns and scoring.
+     *
+     * @param layout the path of the layout file
+     * @return the new configuration
+     */
+    public GameConfig withLayout(String layout) {
+        List<LevelConfig> copies = new ArrayList<>();
+        for (LevelConfig level : levels) {
+            copies.add(level.withLayout(layout));
+        }
+        return new GameConfig(copies, scoreWon, scoreLost, attractionRadius, attractionStrength);
+    }
+
+    /**
+     * Number of levels in the configuration.
+     *
+     * @return the level count
+     */
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    /**
+     * Retrieves the settings of a level.
+     *
+     * @param index the level index
+     * @return the level settings
+     */
+    public LevelConfig getLevel(int index) {
+        return levels.get(index);
+    }
+
+    /**
+     * Retrieves the score for capturing a ball of the given colour.
+     *
+     * @param colour the colour of the ball
+     * @return the score increment
+     */
+    public int getScoreWon(Colour colour) {
+        return scoreWon[colour.ordinal()];
+    }
+
+    /**
+     * Retrieves how far from its centre a hole pulls balls in.
+     *
+     * @return the radius in pixels, 0 if holes do not pull
+     */
+    public float getAttractionRadius() {
+        return attractionRadius;
+    }
+
+    /**
+     * Retrieves how hard a hole pulls a ball at its centre; the pull fades to nothing at the radius.
+     *
+     * @return the acceleration in pixels per tick per tick
+     */
+    public float getAttractionStrength() {
+        return attractionStrength;
+    }
+
+    /**
+     * Retrieves the penalty for a ball of the given colour entering the wrong hole.
+     *
+     * @param colour the colour of the ball
+     * @return the score decrement
+     */
+    public int getScoreLost(Colour colour) {
+        return scoreLost[colour.ordinal()];
+    }
+}
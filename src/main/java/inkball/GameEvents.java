@@ -0,0 +1,190 @@
+package inkball;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the phases and moments of a game.
+ * <p>
+ * Start a recording with {@code -XX:StartFlightRecording} or from JDK Mission Control and the
+ * events appear under the Inkball category next to the JVM's own GC and allocation events.
+ * While no recording is running JFR disables the events, so emitting one is an allocation the
+ * JIT can usually remove and a check that fails.
+ * </p>
+ */
+public final class GameEvents {
+    private static final String CATEGORY = "Inkball";
+
+    private GameEvents() {
+    }
+
+    @Name("inkball.Tick")
+    @Label("Tick")
+    @Category(CATEGORY)
+    @Description("One step of the simulation.")
+    @StackTrace(false)
+    public static class Tick extends Event {
+        @Label("Tick")
+        int tick;
+        @Label("Level")
+        int level;
+        @Label("Balls")
+        int balls;
+        @Label("Lines")
+        int lines;
+        @Label("Segments")
+        int segments;
+    }
+
+    @Name("inkball.TickPhase")
+    @Label("Tick Phase")
+    @Category(CATEGORY)
+    @Description("One phase of a simulation step.")
+    @StackTrace(false)
+    public static class TickPhase extends Event {
+        @Label("Phase")
+        String phase;
+        @Label("Tick")
+        int tick;
+        @Label("Balls")
+        int balls;
+
+        /**
+         * Starts timing a phase.
+         *
+         * @param phase the name of the phase
+         * @param tick  the tick it belongs to
+         * @return the running event
+         */
+        static TickPhase start(String phase, int tick) {
+            TickPhase event = new TickPhase();
+            event.phase = phase;
+            event.tick = tick;
+            event.begin();
+            return event;
+        }
+
+        /**
+         * Ends this phase and starts timing the next one of the same tick.
+         *
+         * @param next  the name of the next phase
+         * @param balls the balls on the board at the end of this phase
+         * @return the next running event
+         */
+        TickPhase next(String next, int balls) {
+            finish(balls);
+            return start(next, tick);
+        }
+
+        /**
+         * Ends this phase.
+         *
+         * @param balls the balls on the board at the end of the phase
+         */
+        void finish(int balls) {
+            if (shouldCommit()) {
+                this.balls = balls;
+                commit();
+            }
+        }
+    }
+
+    @Name("inkball.LevelLoad")
+    @Label("Level Load")
+    @Category(CATEGORY)
+    @Description("Building and installing a level or a level layout.")
+    public static class LevelLoad extends Event {
+        @Label("Level")
+        int level;
+        @Label("Layout")
+        String layout;
+        @Label("Layout Only")
+        @Description("Only the tiles were reloaded, not the level settings.")
+        boolean layoutOnly;
+        @Label("Prefetched")
+        @Description("The level had been built in the background.")
+        boolean prefetched;
+        @Label("Board Width")
+        int width;
+        @Label("Board Height")
+        int height;
+        @Label("Balls")
+        int balls;
+    }
+
+    @Name("inkball.Restart")
+    @Label("Restart")
+    @Category(CATEGORY)
+    @Description("The player restarted the level or the game.")
+    public static class Restart extends Event {
+        @Label("Level")
+        int level;
+        @Label("From Snapshot")
+        @Description("The level start was restored from a snapshot instead of being rebuilt.")
+        boolean fromSnapshot;
+    }
+
+    @Name("inkball.Spawn")
+    @Label("Spawn")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Spawn extends Event {
+        @Label("Colour")
+        int colour;
+        @Label("Spawner X")
+        int x;
+        @Label("Spawner Y")
+        int y;
+        @Label("Queued")
+        @Description("Balls waiting to spawn, including this one.")
+        int queued;
+        @Label("Balls")
+        int balls;
+    }
+
+    @Name("inkball.Capture")
+    @Label("Capture")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class Capture extends Event {
+        @Label("Ball Colour")
+        int ballColour;
+        @Label("Hole Colour")
+        int holeColour;
+        @Label("Matching")
+        boolean matching;
+    }
+
+    @Name("inkball.WallDestroyed")
+    @Label("Wall Destroyed")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class WallDestroyed extends Event {
+        @Label("X")
+        int x;
+        @Label("Y")
+        int y;
+        @Label("Colour")
+        int colour;
+        @Label("Level")
+        int level;
+    }
+
+    @Name("inkball.LineConsumed")
+    @Label("Line Consumed")
+    @Category(CATEGORY)
+    @Description("A ball bounced off a player-drawn line and used it up.")
+    @StackTrace(false)
+    public static class LineConsumed extends Event {
+        @Label("Segments")
+        int segments;
+        @Label("Lines Left")
+        int linesLeft;
+        @Label("Balls")
+        int balls;
+    }
+}
@@ -0,0 +1,129 @@
+package inkball;
+
+import java.io.*;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A binary copy of the full game state: tile damage, balls, lines, the spawn queue, timers and score.
+ * <p>
+ * The state is written into a buffer that is allocated once and reused, so capturing and
+ * restoring are a single pass of bulk copies with no parsing and no sprite loading. A snapshot
+ * can also be saved to disk to resume a game later.
+ * </p>
+ * <pre>
+ * file : int magic "INKS", byte version, int levelIndex, int length, then the state written by App.saveState
+ * </pre>
+ */
+public class GameSnapshot {
+    static final int MAGIC = 0x494E4B53; // "INKS"
+    static final int VERSION = 4;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private int length = 0; // Bytes of captured state, 0 before the first capture
+    private int levelIndex = -1;
+
+    /**
+     * Captures the current state of a game, replacing anything captured before.
+     *
+     * @param app the game to capture
+     */
+    public void capture(App app) {
+        while (true) {
+            buffer.clear();
+            try {
+                app.saveState(buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+        length = buffer.position();
+        levelIndex = app.getCurrentLevelIndex();
+    }
+
+    /**
+     * Puts a game back into the captured state. The snapshot can be restored any number of times.
+     *
+     * @param app the game to restore
+     * @throws IllegalStateException if nothing has been captured
+     */
+    public void restore(App app) {
+        if (isEmpty()) {
+            throw new IllegalStateException("No game state has been captured.");
+        }
+        ByteBuffer in = buffer.duplicate();
+        in.position(0).limit(length);
+        app.restoreState(in);
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * The level the captured game was on, or -1 before the first capture.
+     */
+    public int getLevelIndex() {
+        return levelIndex;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Writes the snapshot to a file.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(String path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(levelIndex);
+            out.writeInt(length);
+            out.write(buffer.array(), 0, length);
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link #save(String)}.
+     *
+     * @param path the file to read
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a saved game
+     */
+    public static GameSnapshot load(String path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an Inkball saved game.");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported saved game version: " + version);
+            }
+            GameSnapshot snapshot = new GameSnapshot();
+            snapshot.levelIndex = in.readInt();
+            int length = in.readInt();
+            if (length <= 0) {
+                throw new IOException("Saved game is empty.");
+            }
+            if (length > snapshot.buffer.capacity()) {
+                snapshot.buffer = ByteBuffer.allocate(length);
+            }
+            in.readFully(snapshot.buffer.array(), 0, length);
+            snapshot.length = length;
+            return snapshot;
+        }
+    }
+
+    /**
+     * The captured bytes, for comparing two snapshots.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer.array(), length);
+    }
+}
@@ -13,7 +13,7 @@ public class GreyTile extends Tile {
     public GreyTile(int x, int y, App app) {
         super(x, y, app);
         this.app = app;
-        this.Image = app.loadImage("src/main/resources/inkball/wall0.png"); // Initial wall image
+        this.Image = app.getWallImage(0); // Initial wall image
     }
 
     @Override
@@ -55,22 +55,18 @@ public class GreyTile extends Tile {
                 break;
             case 2:
                 // Reload the same image and apply transparency
-                this.Image = app.loadImage("src/main/resources/inkball/walld0.png");
+                this.Image = app.getDamagedWallImage(0);
                 break;
             default:
                 break;
         }
-        
-        // Redraw the tile with the updated sprite
-        app.getTile(x, y).draw(app);
-        // Reset tint to default after applying it to avoid affecting other drawings
-        app.noTint();
+        // The tile is drawn with the updated sprite on the next render
     }
     
     public void removeDamagedWall() {
         isDestroyed = true; // Mark the wall as destroyed
         this.Image = null; // Remove the sprite to indicate the wall is gone
-        app.getGrid()[y][x] = null; // Remove the tile from the game board
+        app.getGrid().clear(x, y); // Remove the tile from the game board
         System.out.println("Wall at (" + x + ", " + y + ") destroyed.");
     }
 
@@ -78,4 +74,17 @@ public class GreyTile extends Tile {
     public int getDamageLevel() {
         return damageLevel;
     }
+
+    // Frames left before the wall can be hit again, 0 if it can be hit now
+    public int getCooldownRemaining() {
+        return canBeHit ? 0 : cooldownCounter;
+    }
+
+    // Restores the damage and cooldown of a wall from a saved game state
+    public void restoreDamage(int damageLevel, int cooldown) {
+        this.damageLevel = damageLevel;
+        this.cooldownCounter = cooldown;
+        this.canBeHit = cooldown <= 0;
+        this.Image = damageLevel >= 2 ? app.getDamagedWallImage(0) : app.getWallImage(0);
+    }
 }
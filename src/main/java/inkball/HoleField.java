@@ -0,0 +1,104 @@
+package inkball;
+
+import java.util.List;
+
+/**
+ * The pull of the holes on nearby balls, precomputed over the board for one level.
+ * <p>
+ * The board is divided into small square cells and each cell holds the summed pull of every
+ * hole whose radius reaches it. A ball reads the cell under its centre once per tick, so the cost
+ * of magnetism per ball stays the same however many holes a level has. The pull points at the
+ * centre of each hole and weakens linearly from its full strength at the centre to nothing at
+ * the radius.
+ * </p>
+ */
+public class HoleField {
+    public static final int CELL_SIZE = App.TILE_SIZE / 4; // Pixels along each side of a cell
+
+    private final int columns;
+    private final int rows;
+    private final float[] pullX; // Per cell, acceleration in pixels per tick per tick
+    private final float[] pullY;
+
+    private HoleField(int columns, int rows) {
+        this.columns = columns;
+        this.rows = rows;
+        this.pullX = new float[columns * rows];
+        this.pullY = new float[columns * rows];
+    }
+
+    /**
+     * Builds the field of a board.
+     *
+     * @param holes    the holes on the board
+     * @param width    the width of the board in pixels
+     * @param height   the height of the board in pixels, excluding the top bar
+     * @param radius   how far from its centre a hole pulls, in pixels
+     * @param strength the pull at the centre of a hole, in pixels per tick per tick
+     * @return the field, or {@code null} if magnetism is disabled by a zero radius or strength
+     */
+    public static HoleField build(List<Hole> holes, int width, int height, float radius, float strength) {
+        if (radius <= 0 || strength <= 0) {
+            return null;
+        }
+        HoleField field = new HoleField((width + CELL_SIZE - 1) / CELL_SIZE, (height + CELL_SIZE - 1) / CELL_SIZE);
+        for (Hole hole : holes) {
+            field.addHole(hole.getCenter().x, hole.getCenter().y - App.TOPBAR, radius, strength);
+        }
+        return field;
+    }
+
+    private void addHole(float centreX, float centreY, float radius, float strength) {
+        int minColumn = Math.max(0, (int) ((centreX - radius) / CELL_SIZE));
+        int maxColumn = Math.min(columns - 1, (int) ((centreX + radius) / CELL_SIZE));
+        int minRow = Math.max(0, (int) ((centreY - radius) / CELL_SIZE));
+        int maxRow = Math.min(rows - 1, (int) ((centreY + radius) / CELL_SIZE));
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                // Pull measured from the middle of the cell
+                float dx = centreX - (column + 0.5f) * CELL_SIZE;
+                float dy = centreY - (row + 0.5f) * CELL_SIZE;
+                float distance = (float) Math.sqrt(dx * dx + dy * dy);
+                if (distance >= radius || distance == 0) {
+                    continue;
+                }
+                float pull = strength * (1 - distance / radius) / distance;
+                pullX[row * columns + column] += dx * pull;
+                pullY[row * columns + column] += dy * pull;
+            }
+        }
+    }
+
+    private int cellAt(float x, float y) {
+        int column = (int) (x / CELL_SIZE);
+        int row = (int) ((y - App.TOPBAR) / CELL_SIZE);
+        if (x < 0 || y < App.TOPBAR || column >= columns || row >= rows) {
+            return -1;
+        }
+        return row * columns + column;
+    }
+
+    /**
+     * Retrieves the horizontal pull at a board position.
+     *
+     * @param x the board x-coordinate
+     * @param y the board y-coordinate, including the top bar
+     * @return the acceleration in pixels per tick per tick, 0 off the board
+     */
+    public float getPullX(float x, float y) {
+        int cell = cellAt(x, y);
+        return cell < 0 ? 0 : pullX[cell];
+    }
+
+    /**
+     * Retrieves the vertical pull at a board position.
+     *
+     * @param x the board x-coordinate
+     * @param y the board y-coordinate, including the top bar
+     * @return the acceleration in pixels per tick per tick, 0 off the board
+     */
+    public float getPullY(float x, float y) {
+        int cell = cellAt(x, y);
+        return cell < 0 ? 0 : pullY[cell];
+    }
+}
@@ -12,7 +12,7 @@ public class HoleTile extends Tile {
         this.isDefult = isDefult;
 
         if (isDefult) {
-            this.Image = app.loadImage("src/main/resources/inkball/hole" + colour + ".png");
+            this.Image = app.getHoleImage(colour);
         } else {
             this.Image = null;
         }
@@ -0,0 +1,140 @@
+package inkball;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded ring of raw input events passed from the thread Processing delivers input on to the
+ * thread that ticks the game, without locks.
+ * <p>
+ * Each event is stored as primitives in parallel arrays, using the event types of {@link Replay},
+ * and is stamped with {@link System#nanoTime()} when it arrives. The game drains the ring at the
+ * start of each tick, so input never changes the lines or balls while a tick is using them, and the
+ * stamp tells how long each event waited for its tick. There must be exactly one producer and one
+ * consumer thread. When the ring is full new events are dropped and counted.
+ * </p>
+ */
+public class InputQueue {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Receives the events drained from the ring.
+     */
+    public interface Handler {
+        /**
+         * Applies one input event.
+         *
+         * @param type    the {@link Replay} event type
+         * @param first   the mouse x-coordinate or the key character
+         * @param second  the mouse y-coordinate or the key code
+         * @param button  the mouse button, 0 for keys
+         * @param control whether Ctrl was held on a mouse press
+         * @param stamp   the {@link System#nanoTime()} the event arrived at
+         */
+        void apply(byte type, int first, int second, int button, boolean control, long stamp);
+    }
+
+    private final int mask;
+    private final long[] stamps;
+    private final byte[] types;
+    private final int[] firsts;
+    private final int[] seconds;
+    private final int[] buttons;
+    private final boolean[] control;
+
+    private final AtomicLong head = new AtomicLong(); // Next event to read, advanced by the consumer
+    private final AtomicLong tail = new AtomicLong(); // Next slot to write, advanced by the producer
+    private long cachedHead; // Producer's last view of the head, so it rarely reads the consumer's counter
+    private volatile long dropped;
+
+    /**
+     * Creates an empty ring.
+     *
+     * @param capacity the most events held at once, rounded up to a power of two
+     */
+    public InputQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        stamps = new long[size];
+        types = new byte[size];
+        firsts = new int[size];
+        seconds = new int[size];
+        buttons = new int[size];
+        control = new boolean[size];
+    }
+
+    /**
+     * Adds an event stamped with the current time. Only the producer thread may call this.
+     *
+     * @param type    the {@link Replay} event type
+     * @param first   the mouse x-coordinate or the key character
+     * @param second  the mouse y-coordinate or the key code
+     * @param button  the mouse button, 0 for keys
+     * @param ctrl    whether Ctrl was held on a mouse press
+     * @return {@code false} if the ring was full and the event was dropped
+     */
+    public boolean offer(byte type, int first, int second, int button, boolean ctrl) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) {
+                dropped++; // Single writer, so the increment cannot race
+                return false;
+            }
+        }
+        int i = (int) t & mask;
+        stamps[i] = System.nanoTime();
+        types[i] = type;
+        firsts[i] = first;
+        seconds[i] = second;
+        buttons[i] = button;
+        control[i] = ctrl;
+        tail.lazySet(t + 1); // Publishes the slot after it has been written
+        return true;
+    }
+
+    /**
+     * Hands every event that has arrived to a handler, oldest first. Only the consumer thread may
+     * call this. Events added while draining wait for the next call.
+     *
+     * @param handler receives the events
+     * @return the number of events drained
+     */
+    public int drain(Handler handler) {
+        long h = head.get();
+        long t = tail.get();
+        for (long n = h; n < t; n++) {
+            int i = (int) n & mask;
+            handler.apply(types[i], firsts[i], seconds[i], buttons[i], control[i], stamps[i]);
+            head.lazySet(n + 1); // Frees the slot for the producer
+        }
+        return (int) (t - h);
+    }
+
+    /**
+     * Counts the events waiting to be drained.
+     *
+     * @return the number of events in the ring
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Counts the events dropped because the ring was full.
+     *
+     * @return the number of dropped events
+     */
+    public long getDropped() {
+        return dropped;
+    }
+}
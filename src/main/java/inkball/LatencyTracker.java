@@ -0,0 +1,130 @@
+package inkball;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Follows input events from the callback that received them, to the tick that applied them, to the
+ * first frame drawn from a state that includes them.
+ * <p>
+ * For each event type there are two histograms in the game's {@link Metrics}, so they are exported
+ * with the other metrics: the time until the event was applied and the time until it was on screen.
+ * Applied events wait in a bounded single-producer/single-consumer ring, written by the thread that
+ * ticks and read by the thread that draws, until a frame of a later tick is drawn. When the ring is
+ * full, events are only measured up to their tick.
+ * </p>
+ */
+public class LatencyTracker {
+    private static final int PENDING = 1024; // Applied events waiting for a frame, a power of two
+    private static final long FIRST_BOUND = 65_536; // Nanoseconds covered by the first bucket
+    private static final int BUCKETS = 16;
+    private static final String[] NAMES = {null, "mouse_press", "mouse_drag", "mouse_release", "key_press", "key_release"};
+
+    private final Metrics.Histogram[] applied = new Metrics.Histogram[NAMES.length];
+    private final Metrics.Histogram[] presented = new Metrics.Histogram[NAMES.length];
+
+    private final byte[] pendingTypes = new byte[PENDING];
+    private final long[] pendingStamps = new long[PENDING];
+    private final int[] pendingTicks = new int[PENDING];
+    private final AtomicLong head = new AtomicLong(); // Advanced by the drawing thread
+    private final AtomicLong tail = new AtomicLong(); // Advanced by the ticking thread
+    private volatile long unpresented; // Events the ring had no room for
+
+    /**
+     * Creates the histograms in a metrics registry.
+     *
+     * @param metrics the registry the histograms are exported from
+     */
+    public LatencyTracker(Metrics metrics) {
+        for (int type = 1; type < NAMES.length; type++) {
+            applied[type] = metrics.histogram("inkball_input_" + NAMES[type] + "_to_tick_nanoseconds",
+                    "Time from a " + NAMES[type].replace('_', ' ') + " arriving to the tick that applied it.",
+                    FIRST_BOUND, BUCKETS);
+            presented[type] = metrics.histogram("inkball_input_" + NAMES[type] + "_to_frame_nanoseconds",
+                    "Time from a " + NAMES[type].replace('_', ' ') + " arriving to the first frame showing it.",
+                    FIRST_BOUND, BUCKETS);
+        }
+    }
+
+    /**
+     * Records that a tick has applied an event. Only the ticking thread may call this.
+     *
+     * @param type  the {@link Replay} event type
+     * @param stamp the {@link System#nanoTime()} the event arrived at
+     * @param tick  the tick that applied it
+     */
+    public void applied(byte type, long stamp, int tick) {
+        if (type <= 0 || type >= NAMES.length) {
+            return;
+        }
+        applied[type].observe(System.nanoTime() - stamp);
+        long t = tail.get();
+        if (t - head.get() >= PENDING) {
+            unpresented++; // Single writer, so the increment cannot race
+            return;
+        }
+        int i = (int) t & (PENDING - 1);
+        pendingTypes[i] = type;
+        pendingStamps[i] = stamp;
+        pendingTicks[i] = tick;
+        tail.lazySet(t + 1);
+    }
+
+    /**
+     * Records that a frame has been drawn. Every waiting event applied before the frame's tick
+     * is now on screen. Only the drawing thread may call this.
+     *
+     * @param tick the tick count of the state the frame was drawn from
+     * @param now  the {@link System#nanoTime()} the frame was finished at
+     */
+    public void presented(int tick, long now) {
+        long h = head.get();
+        long t = tail.get();
+        while (h < t) {
+            int i = (int) h & (PENDING - 1);
+            if (pendingTicks[i] >= tick) {
+                break; // Applied after this frame's state was taken
+            }
+            presented[pendingTypes[i]].observe(now - pendingStamps[i]);
+            head.lazySet(++h);
+        }
+    }
+
+    /**
+     * Retrieves the time-to-tick histogram of an event type.
+     *
+     * @param type the {@link Replay} event type
+     * @return the histogram
+     */
+    public Metrics.Histogram getApplied(byte type) {
+        return applied[type];
+    }
+
+    /**
+     * Retrieves the time-to-frame histogram of an event type.
+     *
+     * @param type the {@link Replay} event type
+     * @return the histogram
+     */
+    public Metrics.Histogram getPresented(byte type) {
+        return presented[type];
+    }
+
+    /**
+     * Names an event type the way the metrics do.
+     *
+     * @param type the {@link Replay} event type
+     * @return the name, such as {@code mouse_drag}
+     */
+    public static String getName(byte type) {
+        return NAMES[type];
+    }
+
+    /**
+     * Counts the events that could not wait for a frame because too many were waiting.
+     *
+     * @return the number of events only measured to their tick
+     */
+    public long getUnpresented() {
+        return unpresented;
+    }
+}
@@ -0,0 +1,333 @@
+package inkball;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distances from every tile of a board to the nearest hole that accepts each ball colour,
+ * and which spawners can reach such a hole at all.
+ * <p>
+ * For each colour, a breadth-first search spreads out from the tiles of every accepting hole
+ * through the open tiles of the board; grey and coloured walls block it. The distance of a tile
+ * is then a single array read, and stepping to the neighbour with the smaller distance follows
+ * the shortest way to a hole, which shows where balls of that colour drift and pile up.
+ * </p>
+ * <p>
+ * Boards with the same tiles share one search through a cache keyed by a hash of the tiles,
+ * so restarts and batch runs of the same layout do not search again. Each entry keeps the tiles
+ * it was searched for, and a hit is only used when they match, so two boards whose hashes
+ * collide never share distances. When a wall is destroyed
+ * the distances are lowered from that tile outwards instead of searching the whole board.
+ * </p>
+ */
+public class LevelAnalyser {
+    public static final int UNREACHABLE = -1;
+    private static final int CACHE_SIZE = 64;
+
+    // Neighbour offsets: left, right, up, down
+    private static final int[] STEP_X = {-1, 1, 0, 0};
+    private static final int[] STEP_Y = {0, 0, -1, 1};
+
+    static final Map<Long, Search> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<Long, Search>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Search> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    /**
+     * The distances found for one board, with the tiles they were found for.
+     */
+    static final class Search {
+        final int width;
+        final int height;
+        final byte[] tiles;
+        final int[][] distances;
+
+        Search(int width, int height, byte[] tiles, int[][] distances) {
+            this.width = width;
+            this.height = height;
+            this.tiles = tiles;
+            this.distances = distances;
+        }
+
+        boolean isFor(int width, int height, byte[] tiles) {
+            return this.width == width && this.height == height && Arrays.equals(this.tiles, tiles);
+        }
+    }
+
+    private final int width;
+    private final int height;
+    private final boolean[] open; // Tiles a ball can move through
+    private final int[][] distances; // Per colour, tiles to the nearest accepting hole or UNREACHABLE
+    private final List<Integer> spawners = new ArrayList<>(); // Spawner tiles as y * width + x
+    private final int[] queue; // Breadth-first search queue, reused by updates
+
+    private LevelAnalyser(TileGrid grid) {
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.open = new boolean[width * height];
+        this.distances = new int[Colour.count()][];
+        this.queue = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                open[y * width + x] = !grid.isSolid(x, y);
+                if (grid.getType(x, y) == TileGrid.SPAWNER) {
+                    spawners.add(y * width + x);
+                }
+            }
+        }
+    }
+
+    /**
+     * Analyses a board, reusing the result for a board with the same tiles if there is one.
+     *
+     * @param grid the board
+     * @return the analysis, which later changes to the board do not affect
+     */
+    public static LevelAnalyser analyse(TileGrid grid) {
+        LevelAnalyser analyser = new LevelAnalyser(grid);
+        long hash = contentHash(grid);
+        byte[] tiles = tiles(grid);
+        Search search = CACHE.get(hash);
+        int[][] cached;
+        if (search != null && search.isFor(analyser.width, analyser.height, tiles)) {
+            cached = search.distances;
+        } else {
+            cached = new int[Colour.count()][];
+            for (int colour = 0; colour < cached.length; colour++) {
+                cached[colour] = analyser.search(grid, colour);
+            }
+            CACHE.put(hash, new Search(analyser.width, analyser.height, tiles, cached));
+        }
+        for (int colour = 0; colour < cached.length; colour++) {
+            analyser.distances[colour] = cached[colour].clone(); // Updates must not reach the cache
+        }
+        return analyser;
+    }
+
+    /**
+     * Hashes the size of a board and the type and colour of its tiles.
+     *
+     * @param grid the board
+     * @return a 64-bit FNV-1a hash
+     */
+    static long contentHash(TileGrid grid) {
+        long[] hash = {0xcbf29ce484222325L};
+        mix(hash, grid.getWidth());
+        mix(hash, grid.getHeight());
+        grid.forEachCell((x, y, type, colour, damage) -> {
+            mix(hash, x);
+            mix(hash, y);
+            mix(hash, type << 8 | (colour & 0xFF));
+        });
+        return hash[0];
+    }
+
+    /**
+     * Copies the type and colour of every tile of a board, the parts of a tile the search depends on.
+     *
+     * @param grid the board
+     * @return two bytes per tile, row by row
+     */
+    static byte[] tiles(TileGrid grid) {
+        int width = grid.getWidth();
+        byte[] tiles = new byte[2 * width * grid.getHeight()];
+        grid.forEachCell((x, y, type, colour, damage) -> {
+            int index = 2 * (y * width + x);
+            tiles[index] = type;
+            tiles[index + 1] = colour;
+        });
+        return tiles;
+    }
+
+    private static void mix(long[] hash, int value) {
+        for (int i = 0; i < 4; i++) {
+            hash[0] = (hash[0] ^ ((value >>> (i * 8)) & 0xFF)) * 0x100000001b3L;
+        }
+    }
+
+    /**
+     * Checks whether a hole accepts balls of a colour. Grey holes take every ball and grey balls
+     * go into every hole.
+     */
+    private static boolean accepts(int holeColour, int ballColour) {
+        return holeColour == 0 || ballColour == 0 || holeColour == ballColour;
+    }
+
+    private int[] search(TileGrid grid, int colour) {
+        int[] distance = new int[width * height];
+        Arrays.fill(distance, UNREACHABLE);
+        int head = 0;
+        int tail = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                byte type = grid.getType(x, y);
+                if ((type == TileGrid.HOLE || type == TileGrid.HOLE_PART) && accepts(grid.getColour(x, y), colour)) {
+                    distance[y * width + x] = 0;
+                    queue[tail++] = y * width + x;
+                }
+            }
+        }
+        spread(distance, head, tail);
+        return distance;
+    }
+
+    /**
+     * Spreads distances out from the queued tiles, lowering every open tile that can be reached
+     * in fewer steps than it currently records.
+     */
+    private void spread(int[] distance, int head, int tail) {
+        while (head < tail) {
+            int tile = queue[head++];
+            int x = tile % width;
+            int y = tile / width;
+            int next = distance[tile] + 1;
+            for (int i = 0; i < STEP_X.length; i++) {
+                int nx = x + STEP_X[i];
+                int ny = y + STEP_Y[i];
+                if (nx < 0 || nx >= width || ny < 0 || ny >= height) {
+                    continue;
+                }
+                int neighbour = ny * width + nx;
+                if (open[neighbour] && (distance[neighbour] == UNREACHABLE || distance[neighbour] > next)) {
+                    distance[neighbour] = next;
+                    queue[tail++] = neighbour; // Each tile is queued at most once per update
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens a tile whose wall was destroyed and lowers the distances it shortens.
+     * Only the tiles whose distance changes are visited.
+     *
+     * @param x the column of the destroyed wall
+     * @param y the row of the destroyed wall
+     */
+    public void wallRemoved(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height || open[y * width + x]) {
+            return;
+        }
+        int tile = y * width + x;
+        open[tile] = true;
+        for (int[] distance : distances) {
+            int best = UNREACHABLE;
+            for (int i = 0; i < STEP_X.length; i++) {
+                int nx = x + STEP_X[i];
+                int ny = y + STEP_Y[i];
+                if (nx >= 0 && nx < width && ny >= 0 && ny < height) {
+                    int around = distance[ny * width + nx];
+                    if (around != UNREACHABLE && (best == UNREACHABLE || around + 1 < best)) {
+                        best = around + 1;
+                    }
+                }
+            }
+            if (best != UNREACHABLE) {
+                distance[tile] = best;
+                queue[0] = tile;
+                spread(distance, 0, 1);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of steps from a tile to the nearest hole that accepts a ball colour.
+     *
+     * @param colour the colour index of the ball
+     * @param x      the column of the tile
+     * @param y      the row of the tile
+     * @return the distance in tiles, or {@link #UNREACHABLE} for walls, tiles cut off from every
+     *         accepting hole and positions off the board
+     */
+    public int getDistance(int colour, int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return UNREACHABLE;
+        }
+        return distances[colour][y * width + x];
+    }
+
+    /**
+     * Retrieves the horizontal step from a tile towards the nearest accepting hole.
+     *
+     * @return -1, 0 or 1; 0 with {@link #getStepY} also 0 on a hole or where no hole can be reached
+     */
+    public int getStepX(int colour, int x, int y) {
+        int step = bestStep(colour, x, y);
+        return step < 0 ? 0 : STEP_X[step];
+    }
+
+    /**
+     * Retrieves the vertical step from a tile towards the nearest accepting hole.
+     *
+     * @return -1, 0 or 1; 0 with {@link #getStepX} also 0 on a hole or where no hole can be reached
+     */
+    public int getStepY(int colour, int x, int y) {
+        int step = bestStep(colour, x, y);
+        return step < 0 ? 0 : STEP_Y[step];
+    }
+
+    private int bestStep(int colour, int x, int y) {
+        int here = getDistance(colour, x, y);
+        if (here <= 0) {
+            return -1;
+        }
+        for (int i = 0; i < STEP_X.length; i++) {
+            if (getDistance(colour, x + STEP_X[i], y + STEP_Y[i]) == here - 1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a ball of a colour can reach an accepting hole from every spawner.
+     *
+     * @param colour the colour index of the ball
+     * @return {@code true} if there are spawners and every one can reach a hole
+     */
+    public boolean isReachableFromSpawners(int colour) {
+        if (spawners.isEmpty()) {
+            return false;
+        }
+        for (int spawner : spawners) {
+            if (distances[colour][spawner] == UNREACHABLE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether every ball in a spawn queue can reach an accepting hole from every spawner,
+     * which a level needs in order to be completed.
+     *
+     * @param queue the balls to spawn
+     * @return {@code true} if every ball can be captured
+     */
+    public boolean isCompletable(SpawnQueue queue) {
+        for (int i = 0; i < queue.size(); i++) {
+            if (!isReachableFromSpawners(queue.peek(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getSpawnerCount() {
+        return spawners.size();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
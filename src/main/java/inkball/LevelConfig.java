@@ -0,0 +1,70 @@
+package inkball;
+
+import java.util.Arrays;
+
+/**
+ * The settings of a single level from {@code config.json}.
+ * Instances are immutable and are created by {@link GameConfig#parse}.
+ */
+public final class LevelConfig {
+    private final String layout;
+    private final int time; // Level time in seconds
+    private final int spawnInterval; // Seconds between spawns
+    private final float increaseModifier;
+    private final float decreaseModifier;
+    private final Colour[] balls;
+
+    LevelConfig(String layout, int time, int spawnInterval,
+                float increaseModifier, float decreaseModifier, Colour[] balls) {
+        this.layout = layout;
+        this.time = time;
+        this.spawnInterval = spawnInterval;
+        this.increaseModifier = increaseModifier;
+        this.decreaseModifier = decreaseModifier;
+        this.balls = balls.clone();
+    }
+
+    public String getLayout() {
+        return layout;
+    }
+
+    public int getTime() {
+        return time;
+    }
+
+    public int getSpawnInterval() {
+        return spawnInterval;
+    }
+
+    public float getIncreaseModifier() {
+        return increaseModifier;
+    }
+
+    public float getDecreaseModifier() {
+        return decreaseModifier;
+    }
+
+    /**
+     * Creates a copy of these settings that plays a different layout file.
+     *
+     * @param layout the path of the layout file
+     * @return the new settings
+     */
+    public LevelConfig withLayout(String layout) {
+        return new LevelConfig(layout, time, spawnInterval, increaseModifier, decreaseModifier, balls);
+    }
+
+    public int getBallCount() {
+        return balls.length;
+    }
+
+    public Colour getBall(int i) {
+        return balls[i];
+    }
+
+    @Override
+    public String toString() {
+        return "LevelConfig{layout=" + layout + ", time=" + time + ", spawnInterval=" + spawnInterval
+                + ", balls=" + Arrays.toString(balls) + "}";
+    }
+}
@@ -2,18 +2,57 @@ package inkball;
 
 import processing.core.PApplet;
 import processing.core.PVector;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 
 public class Line {
     // private List<PVector> points; // Points defining the line segments
-    private final float THICKNESS = 10.0f; // Thickness of the drawn lines
+    private static final float THICKNESS = 10.0f; // Thickness of the drawn lines
     private LinkedHashMap<Integer, PVector> points;
     private int counter = 0; // Unique key for each point
+    private final List<PVector> spare = new ArrayList<>(); // Points of earlier uses, reused by addPoint
+    private float boardRight; // Right edge of the board
+    private float boardBottom; // Bottom edge of the board
+    private SegmentIndex index; // Index the line is filed in while it is on the board
+    // Bounding box of the points, used to skip lines that are off screen
+    private float boxLeft = Float.POSITIVE_INFINITY;
+    private float boxTop = Float.POSITIVE_INFINITY;
+    private float boxRight = Float.NEGATIVE_INFINITY;
+    private float boxBottom = Float.NEGATIVE_INFINITY;
 
     public Line() {
+        this(App.WIDTH, App.HEIGHT);
+    }
+
+    /**
+     * Creates a line on a board with the given right and bottom edges.
+     *
+     * @param boardRight  the right edge of the board in pixels
+     * @param boardBottom the bottom edge of the board in pixels
+     */
+    public Line(float boardRight, float boardBottom) {
         points = new LinkedHashMap<>();
+        this.boardRight = boardRight;
+        this.boardBottom = boardBottom;
+    }
+
+    /**
+     * Empties a line taken from the game's pool so it can be drawn again, keeping its points for reuse.
+     *
+     * @param boardRight  the right edge of the board in pixels
+     * @param boardBottom the bottom edge of the board in pixels
+     */
+    public void reset(float boardRight, float boardBottom) {
+        spare.addAll(points.values());
+        points.clear();
+        counter = 0;
+        this.boardRight = boardRight;
+        this.boardBottom = boardBottom;
+        recomputeBox();
     }
 
     public float cap(float value, float min, float max) {
@@ -76,22 +115,75 @@ public class Line {
      * Ensures that the point lies within the game board area (y > TOPBAR).
      */
     public void addPoint(PVector point) {
-        if (point.y > App.TOPBAR) { // Ensure point is below the top bar
+        addPoint(point.x, point.y);
+    }
+
+    /**
+     * Adds a point to the line without the caller allocating a vector.
+     *
+     * @param x the x-coordinate of the point
+     * @param y the y-coordinate of the point
+     */
+    public void addPoint(float x, float y) {
+        if (y > App.TOPBAR) { // Ensure point is below the top bar
             // Clamp the point to the game area boundaries
-            float capedX = cap(point.x, 0, App.WIDTH);
-            float capedY = cap(point.y, App.TOPBAR, App.HEIGHT);
-            points.put(counter++, new PVector(capedX, capedY));
+            float capedX = cap(x, 0, boardRight);
+            float capedY = cap(y, App.TOPBAR, boardBottom);
+            PVector point = spare.isEmpty() ? new PVector() : spare.remove(spare.size() - 1);
+            points.put(counter++, point.set(capedX, capedY));
+            growBox(capedX, capedY);
+            if (index != null) {
+                index.update(this);
+            }
         }
     }
 
     public void removeLastPoint() {
         if (!points.isEmpty()) {
             points.remove(points.size() - 1);
+            recomputeBox();
+            if (index != null) {
+                index.update(this);
+            }
         }
     }
 
     public void clearAllPoints() {
         points.clear();
+        recomputeBox();
+        if (index != null) {
+            index.update(this);
+        }
+    }
+
+    void setIndex(SegmentIndex index) {
+        this.index = index;
+    }
+
+    private void growBox(float x, float y) {
+        boxLeft = Math.min(boxLeft, x);
+        boxTop = Math.min(boxTop, y);
+        boxRight = Math.max(boxRight, x);
+        boxBottom = Math.max(boxBottom, y);
+    }
+
+    private void recomputeBox() {
+        boxLeft = boxTop = Float.POSITIVE_INFINITY;
+        boxRight = boxBottom = Float.NEGATIVE_INFINITY;
+        for (PVector point : points.values()) {
+            growBox(point.x, point.y);
+        }
+    }
+
+    /**
+     * Checks whether any part of the line, including its thickness, lies inside a rectangle.
+     *
+     * @return {@code true} if the line's bounding box overlaps the rectangle
+     */
+    public boolean intersects(float left, float top, float right, float bottom) {
+        float half = THICKNESS / 2;
+        return boxRight + half >= left && boxLeft - half <= right
+                && boxBottom + half >= top && boxTop - half <= bottom;
     }
 
     public Map<Integer, PVector> getPoints() {
@@ -103,18 +195,116 @@ public class Line {
     }
 
     public void draw(PApplet app) {
-        if (points.size() < 2) {
-        return; // No need to draw if there are fewer than 2 points
+        draw(app, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
     }
 
+    /**
+     * Draws the parts of the line that lie inside a rectangle of the board.
+     * Runs of visible segments are drawn as one shape; segments outside the rectangle are skipped.
+     */
+    public void draw(PApplet app, float left, float top, float right, float bottom) {
+        draw(app, 1, left, top, right, bottom);
+    }
+
+    /**
+     * Draws the parts of the line that lie inside a rectangle of the board straight from its points,
+     * for a game drawn on the thread that runs it.
+     *
+     * @param app  the sketch to draw on
+     * @param step how many points each drawn segment spans, as in {@link #drawPath}
+     */
+    public void draw(PApplet app, int step, float left, float top, float right, float bottom) {
+        int size = points.size();
+        if (size < 2 || !intersects(left, top, right, bottom)) {
+            return; // Nothing to draw
+        }
+
         app.stroke(0); // Black color
         app.strokeWeight(THICKNESS);
         app.noFill();
-        
-        app.beginShape(); // Start a new shape
-        for (PVector point : points.values()) {
-            app.vertex(point.x, point.y);
+
+        Iterator<PVector> it = points.values().iterator();
+        PVector first = it.next();
+        float px = first.x, py = first.y;
+        int next = Math.min(Math.max(1, step), size - 1); // The last point is always kept
+        boolean drawing = false;
+        for (int i = 1; i < size; i++) {
+            PVector point = it.next();
+            if (i != next) {
+                continue;
+            }
+            next = Math.min(i + Math.max(1, step), size - 1);
+            if (isSegmentVisible(px, py, point.x, point.y, left, top, right, bottom)) {
+                if (!drawing) {
+                    app.beginShape(); // Start a new shape
+                    app.vertex(px, py);
+                    drawing = true;
+                }
+                app.vertex(point.x, point.y);
+            } else if (drawing) {
+                app.endShape();
+                drawing = false;
+            }
+            px = point.x;
+            py = point.y;
+        }
+        if (drawing) {
+            app.endShape();
+        }
+    }
+
+    /**
+     * Checks whether a segment, including the line's thickness, overlaps a rectangle of the board.
+     */
+    private static boolean isSegmentVisible(float px, float py, float x, float y,
+                                            float left, float top, float right, float bottom) {
+        float half = THICKNESS / 2;
+        return Math.max(px, x) + half >= left && Math.min(px, x) - half <= right
+                && Math.max(py, y) + half >= top && Math.min(py, y) - half <= bottom;
+    }
+
+    /**
+     * Draws a line from copied points, as held by a {@link RenderState}, skipping segments outside a
+     * rectangle of the board.
+     *
+     * @param app  the sketch to draw on
+     * @param xs   the x-coordinates of the points
+     * @param ys   the y-coordinates of the points
+     * @param from the index of the first point
+     * @param to   the index after the last point
+     * @param step how many points each drawn segment spans; above 1 the points in between are
+     *             left out, which draws the line faster and less faithfully
+     */
+    public static void drawPath(PApplet app, float[] xs, float[] ys, int from, int to, int step,
+                                float left, float top, float right, float bottom) {
+        if (to - from < 2) {
+            return; // Nothing to draw
+        }
+
+        app.stroke(0); // Black color
+        app.strokeWeight(THICKNESS);
+        app.noFill();
+
+        boolean drawing = false;
+        for (int previous = from; previous < to - 1; ) {
+            int i = Math.min(previous + Math.max(1, step), to - 1); // The last point is always kept
+            float px = xs[previous], py = ys[previous];
+            float x = xs[i], y = ys[i];
+            previous = i;
+            if (isSegmentVisible(px, py, x, y, left, top, right, bottom)) {
+                if (!drawing) {
+                    app.beginShape(); // Start a new shape
+                    app.vertex(px, py);
+                    drawing = true;
+                }
+                app.vertex(x, y);
+            } else if (drawing) {
+                app.endShape();
+                drawing = false;
+            }
+        }
+        if (drawing) {
+            app.endShape();
         }
-        app.endShape();
     }
 }
@@ -0,0 +1,76 @@
+package inkball;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The player-drawn lines on the board, kept in drawing order and filed in a {@link SegmentIndex}.
+ * <p>
+ * Every way of changing the list goes through {@link #add(int, Line)}, {@link #set(int, Line)} or
+ * {@link #remove(int)}, so the index always holds exactly the lines in the list.
+ * </p>
+ */
+public class LineList extends AbstractList<Line> {
+    private final List<Line> lines = new ArrayList<>();
+    private final SegmentIndex index;
+
+    /**
+     * Creates an empty list for a board.
+     *
+     * @param width  the right edge of the board in pixels
+     * @param height the bottom edge of the board in pixels, including the top bar
+     */
+    public LineList(float width, float height) {
+        index = new SegmentIndex(width, height);
+    }
+
+    @Override
+    public Line get(int i) {
+        return lines.get(i);
+    }
+
+    @Override
+    public int size() {
+        return lines.size();
+    }
+
+    @Override
+    public void add(int i, Line line) {
+        lines.add(i, line);
+        index.add(line);
+        modCount++;
+    }
+
+    @Override
+    public Line set(int i, Line line) {
+        Line old = lines.set(i, line);
+        index.remove(old);
+        index.add(line);
+        return old;
+    }
+
+    @Override
+    public Line remove(int i) {
+        Line old = lines.remove(i);
+        index.remove(old);
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        lines.clear();
+        index.clear();
+        modCount++;
+    }
+
+    /**
+     * Retrieves the spatial index of the lines' segments.
+     *
+     * @return the index
+     */
+    public SegmentIndex getIndex() {
+        return index;
+    }
+}
@@ -0,0 +1,277 @@
+package inkball;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters, gauges and histograms describing a running game, read by the exporters in
+ * {@link MetricsExporter}.
+ * <p>
+ * Updates never lock: counters and histogram buckets are {@link LongAdder}s, which stripe
+ * contended increments over separate cells, and gauges are single volatile writes. The game
+ * thread pays an add per update; the cost of summing falls on whoever reads the values.
+ * </p>
+ */
+public class Metrics {
+
+    /**
+     * A named value, written out in the Prometheus text format.
+     */
+    public abstract static class Metric {
+        private final String name;
+        private final String help;
+
+        Metric(String name, String help) {
+            this.name = name;
+            this.help = help;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getHelp() {
+            return help;
+        }
+
+        abstract String getType();
+
+        abstract void writeSamples(StringBuilder out);
+    }
+
+    /**
+     * A count that only goes up.
+     */
+    public static final class Counter extends Metric {
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name, String help) {
+            super(name, help);
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        @Override
+        String getType() {
+            return "counter";
+        }
+
+        @Override
+        void writeSamples(StringBuilder out) {
+            out.append(getName()).append(' ').append(get()).append('\n');
+        }
+    }
+
+    /**
+     * A value that is set to its latest reading.
+     */
+    public static final class Gauge extends Metric {
+        private volatile long value;
+
+        Gauge(String name, String help) {
+            super(name, help);
+        }
+
+        public void set(long value) {
+            this.value = value;
+        }
+
+        public long get() {
+            return value;
+        }
+
+        @Override
+        String getType() {
+            return "gauge";
+        }
+
+        @Override
+        void writeSamples(StringBuilder out) {
+            out.append(getName()).append(' ').append(value).append('\n');
+        }
+    }
+
+    /**
+     * A distribution of observed values over fixed buckets, each bucket twice the bound of the last.
+     */
+    public static final class Histogram extends Metric {
+        private final long[] bounds; // Upper bound of each bucket, inclusive
+        private final LongAdder[] buckets; // One more than the bounds, for values above the last
+        private final LongAdder sum = new LongAdder();
+
+        Histogram(String name, String help, long firstBound, int bucketCount) {
+            super(name, help);
+            bounds = new long[bucketCount];
+            buckets = new LongAdder[bucketCount + 1];
+            for (int i = 0; i < bucketCount; i++) {
+                bounds[i] = firstBound << i;
+            }
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void observe(long value) {
+            int i = 0;
+            while (i < bounds.length && value > bounds[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            sum.add(value);
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        public long getSum() {
+            return sum.sum();
+        }
+
+        /**
+         * Estimates a quantile of the observed values from the buckets.
+         *
+         * @param q the quantile, from 0 to 1
+         * @return the upper bound of the bucket holding the quantile, {@link Long#MAX_VALUE} if it
+         *         lies above the last bound, or 0 if nothing has been observed
+         */
+        public long quantile(double q) {
+            long total = getCount();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(q * total));
+            long cumulative = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                cumulative += buckets[i].sum();
+                if (cumulative >= rank) {
+                    return bounds[i];
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        String getType() {
+            return "histogram";
+        }
+
+        @Override
+        void writeSamples(StringBuilder out) {
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i].sum();
+                String bound = i < bounds.length ? Long.toString(bounds[i]) : "+Inf";
+                out.append(getName()).append("_bucket{le=\"").append(bound).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+            out.append(getName()).append("_sum ").append(getSum()).append('\n');
+            out.append(getName()).append("_count ").append(cumulative).append('\n');
+        }
+    }
+
+    private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+
+    // The game's own metrics
+    public final Counter ticks = counter("inkball_ticks_total", "Simulation ticks run.");
+    public final Histogram tickNanos = histogram("inkball_tick_nanoseconds", "Time taken by each tick.", 16_384, 16);
+    public final Histogram frameJitter = histogram("inkball_frame_jitter_nanoseconds",
+            "How far each interval between frames strayed from the frame period.", 16_384, 16);
+    public final Histogram tickJitter = histogram("inkball_tick_jitter_nanoseconds",
+            "How far each interval between simulation thread ticks strayed from the tick period.", 16_384, 16);
+    public final Gauge qualityLevel = gauge("inkball_quality_level",
+            "Drawing quality steps dropped to keep up with the frame rate, 0 at full quality.");
+    public final Counter frameOverruns = counter("inkball_frame_overruns_total",
+            "Frames whose tick and render took longer than one frame at the target rate.");
+    public final Gauge balls = gauge("inkball_balls", "Balls on the board.");
+    public final Gauge lines = gauge("inkball_lines", "Player-drawn lines on the board.");
+    public final Gauge segments = gauge("inkball_line_segments", "Segments of all player-drawn lines.");
+    public final Counter lineCollisions = counter("inkball_line_collisions_total", "Balls bounced off a line.");
+    public final Histogram collisionsPerTick = histogram("inkball_line_collisions_per_tick",
+            "Line collisions in each tick.", 1, 6);
+    public final Counter spawns = counter("inkball_spawns_total", "Balls spawned.");
+    public final Counter captures = counter("inkball_captures_total", "Balls that went into a hole.");
+    public final Gauge pooledBalls = gauge("inkball_pool_balls", "Spare balls kept for reuse.");
+    public final Gauge pooledLines = gauge("inkball_pool_lines", "Spare lines kept for reuse.");
+    public final Counter inputsDropped = counter("inkball_inputs_dropped_total",
+            "Input events dropped because the input queue was full.");
+
+    /**
+     * Registers a counter.
+     *
+     * @param name the metric name
+     * @param help a one-line description
+     * @return the counter
+     */
+    public Counter counter(String name, String help) {
+        return register(new Counter(name, help));
+    }
+
+    /**
+     * Registers a gauge.
+     *
+     * @param name the metric name
+     * @param help a one-line description
+     * @return the gauge
+     */
+    public Gauge gauge(String name, String help) {
+        return register(new Gauge(name, help));
+    }
+
+    /**
+     * Registers a histogram.
+     *
+     * @param name        the metric name
+     * @param help        a one-line description
+     * @param firstBound  the upper bound of the first bucket
+     * @param bucketCount the number of bounded buckets
+     * @return the histogram
+     */
+    public Histogram histogram(String name, String help, long firstBound, int bucketCount) {
+        return register(new Histogram(name, help, firstBound, bucketCount));
+    }
+
+    private <T extends Metric> T register(T metric) {
+        for (Metric existing : metrics) {
+            if (existing.getName().equals(metric.getName())) {
+                throw new IllegalArgumentException("Metric already registered: " + metric.getName());
+            }
+        }
+        metrics.add(metric);
+        return metric;
+    }
+
+    public List<Metric> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format.
+     *
+     * @return the text
+     */
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder();
+        for (Metric metric : metrics) {
+            out.append("# HELP ").append(metric.getName()).append(' ').append(metric.getHelp()).append('\n');
+            out.append("# TYPE ").append(metric.getName()).append(' ').append(metric.getType()).append('\n');
+            metric.writeSamples(out);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,194 @@
+package inkball;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Publishes a {@link Metrics} registry as a JMX MBean and as a Prometheus text endpoint.
+ * <p>
+ * The endpoint listens on the loopback address only, at {@code /metrics}, and is served by a
+ * small pool of daemon threads so it never keeps the game running. Scrapes read the registry
+ * without locking it, so they cannot stall the game thread.
+ * </p>
+ */
+public class MetricsExporter {
+    public static final String PORT_PROPERTY = "inkball.metrics.port";
+    static final String OBJECT_NAME = "inkball:type=Metrics";
+    private static final int SERVER_THREADS = 2;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectName objectName;
+
+    private MetricsExporter(HttpServer server, ExecutorService executor, ObjectName objectName) {
+        this.server = server;
+        this.executor = executor;
+        this.objectName = objectName;
+    }
+
+    /**
+     * Starts exporting if {@value #PORT_PROPERTY} is set.
+     *
+     * @param metrics the registry to export
+     * @return the running exporter, or {@code null} if exporting is off or could not start
+     */
+    public static MetricsExporter startFromProperty(Metrics metrics) {
+        Integer port = Integer.getInteger(PORT_PROPERTY);
+        if (port == null) {
+            return null;
+        }
+        try {
+            MetricsExporter exporter = start(metrics, port);
+            System.out.println("Metrics at http://localhost:" + exporter.getPort() + "/metrics and JMX " + OBJECT_NAME);
+            return exporter;
+        } catch (IOException | JMException e) {
+            System.err.println("Could not start metrics export: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Registers the MBean and starts the HTTP endpoint.
+     *
+     * @param metrics the registry to export
+     * @param port    the local port to listen on, 0 for any free port
+     * @return the running exporter
+     * @throws IOException if the port cannot be bound
+     * @throws JMException if the MBean cannot be registered
+     */
+    public static MetricsExporter start(Metrics metrics, int port) throws IOException, JMException {
+        MBeanServer mbeans = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (mbeans.isRegistered(name)) {
+            mbeans.unregisterMBean(name); // A restarted sketch replaces the old registry
+        }
+        mbeans.registerMBean(new MetricsMBean(metrics), name);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService executor = Executors.newFixedThreadPool(SERVER_THREADS, task -> {
+            Thread thread = new Thread(task, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", exchange -> respond(exchange, metrics));
+        server.start();
+        return new MetricsExporter(server, executor, name);
+    }
+
+    private static void respond(HttpExchange exchange, Metrics metrics) throws IOException {
+        byte[] body = metrics.toPrometheusText().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the endpoint and unregisters the MBean.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            // Already gone
+        }
+    }
+
+    /**
+     * Exposes each counter and gauge as a read-only attribute, and each histogram as
+     * {@code <name>_count} and {@code <name>_sum}.
+     */
+    static final class MetricsMBean implements DynamicMBean {
+        private final Metrics metrics;
+
+        MetricsMBean(Metrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            for (Metrics.Metric metric : metrics.getMetrics()) {
+                if (metric instanceof Metrics.Counter && metric.getName().equals(attribute)) {
+                    return ((Metrics.Counter) metric).get();
+                } else if (metric instanceof Metrics.Gauge && metric.getName().equals(attribute)) {
+                    return ((Metrics.Gauge) metric).get();
+                } else if (metric instanceof Metrics.Histogram) {
+                    Metrics.Histogram histogram = (Metrics.Histogram) metric;
+                    if (attribute.equals(metric.getName() + "_count")) {
+                        return histogram.getCount();
+                    } else if (attribute.equals(metric.getName() + "_sum")) {
+                        return histogram.getSum();
+                    }
+                }
+            }
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    list.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException e) {
+                    // Unknown attributes are left out
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+            throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (Metrics.Metric metric : metrics.getMetrics()) {
+                if (metric instanceof Metrics.Histogram) {
+                    attributes.add(longAttribute(metric.getName() + "_count", metric.getHelp() + " Observations."));
+                    attributes.add(longAttribute(metric.getName() + "_sum", metric.getHelp() + " Sum of observations."));
+                } else {
+                    attributes.add(longAttribute(metric.getName(), metric.getHelp()));
+                }
+            }
+            return new MBeanInfo(Metrics.class.getName(), "Inkball game metrics.",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+
+        private static MBeanAttributeInfo longAttribute(String name, String description) {
+            return new MBeanAttributeInfo(name, "long", description, true, false, false);
+        }
+    }
+}
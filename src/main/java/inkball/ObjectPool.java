@@ -0,0 +1,71 @@
+package inkball;
+
+/**
+ * A bounded stack of spare objects kept for reuse instead of being left to the garbage collector.
+ * <p>
+ * The pool only stores objects; callers reset what they take out. When the pool is full, released
+ * objects are dropped, so it never holds more than a level's worth of spares. Releasing an object
+ * that is already in the pool is ignored, so the same object can never be handed out twice.
+ * Not thread-safe: the game thread is the only user.
+ * </p>
+ *
+ * @param <T> the type of pooled object
+ */
+public class ObjectPool<T> {
+    private final Object[] items;
+    private int size;
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param capacity the most spare objects to keep
+     */
+    public ObjectPool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        items = new Object[capacity];
+    }
+
+    /**
+     * Takes a spare object out of the pool.
+     *
+     * @return the most recently released object, or {@code null} if the pool is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        if (size == 0) {
+            return null;
+        }
+        T item = (T) items[--size];
+        items[size] = null;
+        return item;
+    }
+
+    /**
+     * Returns an object to the pool.
+     *
+     * @param item the object no longer in use
+     * @return {@code true} if the pool kept it, {@code false} if it was full or already held it
+     */
+    public boolean release(T item) {
+        if (item == null || size == items.length) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (items[i] == item) {
+                return false;
+            }
+        }
+        items[size++] = item;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return items.length;
+    }
+}
@@ -0,0 +1,245 @@
+package inkball;
+
+import processing.core.PVector;
+
+import java.util.*;
+
+/**
+ * A level whose layout, tiles and sprite references have been fully built ahead of time.
+ * <p>
+ * Building a level parses the layout file and creates every tile, which is too slow to do
+ * on the render thread between two frames. A {@code PreparedLevel} can be built on a background
+ * thread while the level-complete animation plays, and then swapped into the running
+ * {@link App} in one step with {@link App#loadLevel(int)}.
+ * </p>
+ */
+public class PreparedLevel {
+    static final String SIZE_HEADER = "size "; // Optional first layout line declaring the board size
+
+    private final int index;
+    private final LevelConfig config;
+    private final String layout;
+    private TileGrid grid;
+    private LevelAnalyser analyser; // Hole distances of the board as it was built
+    private HoleField holeField; // Pull of the holes, null when magnetism is off
+    private final List<EntryPoint> spawners = new ArrayList<>();
+    private final List<Hole> holes = new ArrayList<>();
+    private final List<Ball> loadedBalls = new ArrayList<>();
+    private final SpawnQueue ballsToSpawn = new SpawnQueue();
+    private final int spawnInterval; // Seconds between spawns
+    private final int time; // Level time in seconds
+
+    private PreparedLevel(int index, LevelConfig config, String layout) {
+        this.index = index;
+        this.config = config;
+        this.layout = layout;
+        this.spawnInterval = config != null ? config.getSpawnInterval() : 0;
+        this.time = config != null ? config.getTime() : 0;
+    }
+
+    /**
+     * Builds the level at the given index of the loaded configuration.
+     * Safe to call from any thread once {@link App#loadImages()} and {@link App#loadConfig()} have run.
+     *
+     * @param app   the running game, used for file access and sprites
+     * @param index the index of the level to build
+     * @return the prepared level
+     */
+    public static PreparedLevel prepare(App app, int index) {
+        LevelConfig levelConfig = app.config.getLevel(index);
+        PreparedLevel level = new PreparedLevel(index, levelConfig, levelConfig.getLayout());
+
+        for (int j = 0; j < levelConfig.getBallCount(); j++) {
+            level.ballsToSpawn.add(levelConfig.getBall(j));
+        }
+        level.parseLayout(app);
+        return level;
+    }
+
+    /**
+     * Builds only the tiles, spawners, holes and preloaded balls of a layout file.
+     *
+     * @param app    the running game, used for file access and sprites
+     * @param layout the path of the layout file
+     * @return the prepared layout, without any level settings
+     */
+    public static PreparedLevel prepareLayout(App app, String layout) {
+        PreparedLevel level = new PreparedLevel(-1, null, layout);
+        level.parseLayout(app);
+        return level;
+    }
+
+    /**
+     * Parses the layout file and creates the tiles, spawners, holes and preloaded balls.
+     * A layout may start with a {@code size <width> <height>} line to declare its board size
+     * in tiles; layouts without one are {@link App#GRID_WIDTH} by {@link App#GRID_HEIGHT}.
+     */
+    private void parseLayout(App app) {
+        List<String> tokens = Arrays.asList(app.loadStrings(layout));
+        int width = App.GRID_WIDTH;
+        int height = App.GRID_HEIGHT;
+        if (!tokens.isEmpty() && tokens.get(0).startsWith(SIZE_HEADER)) {
+            String[] size = tokens.get(0).substring(SIZE_HEADER.length()).trim().split("\\s+");
+            try {
+                width = Integer.parseInt(size[0]);
+                height = Integer.parseInt(size[1]);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid size line in " + layout + ": " + tokens.get(0));
+            }
+            tokens = tokens.subList(1, tokens.size());
+        }
+        grid = new TileGrid(width, height);
+        boolean logging = app.isLogging();
+
+        for (int y = 0; y < height; y++) {
+            String line = y < tokens.size() ? tokens.get(y) : "";
+            for (int x = 0; x < width; x++) {
+                if (x < line.length()) {
+                    char c = line.charAt(x);
+
+                    if (c == 'X') {
+                        grid.setWall(x, y, 0);
+                        if (logging) {
+                            System.out.println("Created Wall at (" + x + ", " + y + ")");
+                        }
+                    } else if (c == '1' || c == '2' || c == '3' || c == '4') {
+                        int colour = Character.getNumericValue(c);
+                        grid.setWall(x, y, colour);
+                        if (logging) {
+                            System.out.println("Created ColouredWallTile at (" + x + ", " + y + ") with colour index: " + colour);
+                        }
+                    } else if (c == 'S') {
+                        grid.set(x, y, TileGrid.SPAWNER, 0);
+                        spawners.add(new EntryPoint(x, y, app)); // Collect spawners
+                        if (logging) {
+                            System.out.println("Created EntryPoint/Spawner at (" + x + ", " + y + ")");
+                        }
+                    } else if (c == 'H' && x + 1 < line.length()) {
+                        char colourChar = line.charAt(x + 1);
+                        int holeColour = Character.getNumericValue(colourChar);
+                        putHoles(grid, holes, x, y, holeColour, logging);
+                        if (logging) {
+                            System.out.println("Created Hole at (" + x + ", " + y + ") with color index: " + holeColour);
+                        }
+                        x++; // Skip the next character since it's part of the hole definition
+                        continue;
+                    } else if (c == 'B' && x + 1 < line.length()) {
+                        char colourChar = line.charAt(x + 1);
+                        int ballColour = Character.getNumericValue(colourChar);
+                        // Launched by the game thread when the level is installed
+                        Ball ball = Ball.preload(x * App.TILE_SIZE, y * App.TILE_SIZE, ballColour, app);
+                        loadedBalls.add(ball); // Track that this ball was loaded from the file
+                        if (logging) {
+                            System.out.println("Created Ball at (" + x + ", " + y + ") with color index: " + ballColour);
+                        }
+                        x++; // Skip the next character since it's part of the ball definition
+                    }
+                }
+            }
+        }
+        analyser = LevelAnalyser.analyse(grid);
+        holeField = App.buildHoleField(app.config, holes, width, height);
+        if (logging) {
+            System.out.println("Level layout prepared from: " + layout);
+            System.out.println("Number of holes prepared: " + holes.size());
+        }
+    }
+
+    /**
+     * Adds holes to a grid based on the specified position and color.
+     * Holes occupy a 2x2 tile area and are initialized with their position and color.
+     *
+     * @param grid    the grid to place the hole tiles in
+     * @param holes   the list to add the new {@link Hole} to
+     * @param x       the x-coordinate of the hole's top-left tile
+     * @param y       the y-coordinate of the hole's top-left tile
+     * @param colour  the color index of the hole
+     * @param logging whether to log the hole and any overlap
+     */
+    static void putHoles(TileGrid grid, List<Hole> holes, int x, int y, int colour, boolean logging) {
+        for (int dy = 0; dy < 2; dy++) {
+            for (int dx = 0; dx < 2; dx++) {
+                int nx = x + dx;
+                int ny = y + dy;
+                if (nx < grid.getWidth() && ny < grid.getHeight()) {
+                    if (grid.getType(nx, ny) == TileGrid.EMPTY) {
+                        boolean isDefult = (dx == 0 && dy == 0); // Only true for top-left tile
+                        grid.set(nx, ny, isDefult ? TileGrid.HOLE : TileGrid.HOLE_PART, colour);
+                        if (isDefult) {
+                            Hole hole = createHole(x, y, colour);
+                            holes.add(hole);
+                            if (logging) {
+                                System.out.println("Put Hole at center: " + hole.getCenter() + " with colour " + colour);
+                            }
+                        }
+                    } else if (logging) {
+                        System.err.println("Warning: Overlapping hole at (" + nx + ", " + ny + ")");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the capture area of a hole whose top-left tile is at the given grid position.
+     *
+     * @param x      the x-coordinate of the hole's top-left tile
+     * @param y      the y-coordinate of the hole's top-left tile
+     * @param colour the color index of the hole
+     * @return the hole covering a 2x2 tile area
+     */
+    static Hole createHole(int x, int y, int colour) {
+        // Compute the rectangular area of the hole using PVector
+        PVector holePosition = new PVector(x * App.TILE_SIZE, y * App.TILE_SIZE + App.TOPBAR);
+        PVector holeDimensions = new PVector(App.TILE_SIZE * 2, App.TILE_SIZE * 2);
+        return new Hole(holePosition, holeDimensions, colour);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public LevelConfig getConfig() {
+        return config;
+    }
+
+    public String getLayout() {
+        return layout;
+    }
+
+    public TileGrid getGrid() {
+        return grid;
+    }
+
+    public LevelAnalyser getAnalyser() {
+        return analyser;
+    }
+
+    public HoleField getHoleField() {
+        return holeField;
+    }
+
+    public List<EntryPoint> getSpawners() {
+        return spawners;
+    }
+
+    public List<Hole> getHoles() {
+        return holes;
+    }
+
+    public List<Ball> getLoadedBalls() {
+        return loadedBalls;
+    }
+
+    public SpawnQueue getBallsToSpawn() {
+        return ballsToSpawn;
+    }
+
+    public int getSpawnInterval() {
+        return spawnInterval;
+    }
+
+    public int getTime() {
+        return time;
+    }
+}
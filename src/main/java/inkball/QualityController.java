@@ -0,0 +1,128 @@
+package inkball;
+
+/**
+ * Lowers the drawing quality step by step while frames take too long, and raises it again once
+ * there is headroom, so a weak machine keeps its frame rate instead of slowing the whole game.
+ * <p>
+ * The controller smooths the work time of each drawn frame and compares it with the frame budget.
+ * It degrades one level when the smoothed time stays above {@value #DEGRADE_SHARE} of the budget,
+ * and restores one level only after {@value #RESTORE_FRAMES} frames in a row below
+ * {@value #RESTORE_SHARE} of it. The gap between the two, and the wait after each change, keep
+ * it from flickering between levels. Every change is logged with the frame time that caused it.
+ * </p>
+ */
+public class QualityController {
+    public static final String PROPERTY = "inkball.adaptiveQuality";
+    static final double DEGRADE_SHARE = 0.9;
+    static final double RESTORE_SHARE = 0.5;
+    static final int SETTLE_FRAMES = 30; // Frames after a change before the next degrade
+    static final int RESTORE_FRAMES = 120;
+    private static final double SMOOTHING = 0.1; // Weight of the newest frame in the average
+
+    /**
+     * The quality levels, each one dropping one more piece of work than the last.
+     */
+    public enum Level {
+        FULL,
+        CACHED_BOARD, // The background and tiles are composed once and reused until a tile changes
+        SIMPLE_LINES, // Lines are drawn through every few points only
+        FIXED_BALLS, // Balls are drawn at their sprite size, without shrinking into holes
+        SKIP_FRAMES // Every other frame is not drawn while the game keeps ticking
+    }
+
+    private static final Level[] LEVELS = Level.values();
+
+    private final long budget;
+    private Level level = Level.FULL;
+    private double average; // Smoothed work time of drawn frames, 0 before the first
+    private int sinceChange; // Frames observed since the last change
+    private int belowRestore; // Frames in a row with the average below the restore threshold
+
+    /**
+     * Creates a controller at full quality.
+     *
+     * @param budget the time each frame may take, in nanoseconds
+     */
+    public QualityController(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Checks whether {@value #PROPERTY} allows quality to adapt. It does unless set to {@code false}.
+     *
+     * @return {@code true} if the quality may change
+     */
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty(PROPERTY));
+    }
+
+    /**
+     * Takes in the work time of a drawn frame and changes the level if it calls for it.
+     *
+     * @param nanos the time the frame's ticks and drawing took
+     * @return {@code true} if the level changed
+     */
+    public boolean observe(long nanos) {
+        average = average == 0 ? nanos : average + (nanos - average) * SMOOTHING;
+        sinceChange++;
+        belowRestore = average < budget * RESTORE_SHARE ? belowRestore + 1 : 0;
+        if (average > budget * DEGRADE_SHARE && sinceChange >= SETTLE_FRAMES
+                && level.ordinal() < LEVELS.length - 1) {
+            return change(LEVELS[level.ordinal() + 1]);
+        }
+        if (belowRestore >= RESTORE_FRAMES && level.ordinal() > 0) {
+            return change(LEVELS[level.ordinal() - 1]);
+        }
+        return false;
+    }
+
+    private boolean change(Level next) {
+        System.out.println(String.format("Quality %s -> %s (frame %.1f ms of %.1f ms)",
+                level, next, average / 1_000_000, budget / 1_000_000.0));
+        level = next;
+        sinceChange = 0;
+        belowRestore = 0;
+        return true;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Checks whether the board should be drawn from a composed image rather than tile by tile.
+     *
+     * @return {@code true} from {@link Level#CACHED_BOARD} down
+     */
+    public boolean cachesBoard() {
+        return level.ordinal() >= Level.CACHED_BOARD.ordinal();
+    }
+
+    /**
+     * Retrieves how many points of a line each drawn segment spans.
+     *
+     * @return 1 at full line quality, more from {@link Level#SIMPLE_LINES} down
+     */
+    public int getLineStep() {
+        return level.ordinal() >= Level.SIMPLE_LINES.ordinal() ? 3 : 1;
+    }
+
+    /**
+     * Checks whether balls are scaled to their current size.
+     *
+     * @return {@code false} from {@link Level#FIXED_BALLS} down
+     */
+    public boolean scalesBalls() {
+        return level.ordinal() < Level.FIXED_BALLS.ordinal();
+    }
+
+    /**
+     * Decides whether a frame is drawn.
+     *
+     * @param frame the number of the frame
+     * @return {@code false} for every other frame at {@link Level#SKIP_FRAMES}
+     */
+    public boolean shouldDraw(int frame) {
+        return level != Level.SKIP_FRAMES || frame % 2 == 0;
+    }
+}
@@ -0,0 +1,50 @@
+package inkball;
+
+import java.util.SplittableRandom;
+
+/**
+ * One of a session's random streams, split from the session seed.
+ * <p>
+ * Every draw takes exactly one number from the underlying {@link SplittableRandom}, and the
+ * draws are counted, so a game snapshot can store how far the stream has advanced and put it
+ * back at exactly that position with {@link #skip(long)}.
+ * </p>
+ */
+public class RandomStream {
+    private final SplittableRandom random;
+    private long draws = 0;
+
+    public RandomStream(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Draws a number between 0 (inclusive) and the bound (exclusive).
+     *
+     * @param bound the number of possible results, at least 1
+     * @return the number drawn
+     */
+    public int nextInt(int bound) {
+        draws++;
+        return Math.floorMod(random.nextInt(), bound); // Low bits, as SplittableRandom uses for powers of two
+    }
+
+    /**
+     * Advances the stream as if the given number of draws had been made.
+     *
+     * @param count the number of draws to skip
+     */
+    public void skip(long count) {
+        for (long i = 0; i < count; i++) {
+            random.nextInt();
+        }
+        draws += count;
+    }
+
+    /**
+     * The number of draws made since the stream was split from the session seed.
+     */
+    public long getDraws() {
+        return draws;
+    }
+}
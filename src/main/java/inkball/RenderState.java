@@ -0,0 +1,94 @@
+package inkball;
+
+import java.util.Arrays;
+
+/**
+ * Everything needed to draw one frame, copied out of the game after a tick.
+ * <p>
+ * The renderer only reads a render state, never the live game, so drawing can run on another
+ * thread than the simulation. States are reused: {@link App#captureRenderState(RenderState, boolean)} refills
+ * the arrays in place and only grows them. The board is a copy that is shared between states and
+ * only replaced when a tile changes.
+ * </p>
+ */
+public class RenderState {
+    public static final int QUEUE_SHOWN = 5; // Upcoming balls shown in the top bar
+
+    // Board
+    public TileGrid grid;
+    public int boardRight;
+    public int boardBottom;
+    public int boardGeneration; // Changes whenever a new board is installed
+
+    // Balls
+    public int ballCount;
+    public float[] ballX = new float[16];
+    public float[] ballY = new float[16];
+    public float[] ballSize = new float[16];
+    public int[] ballColour = new int[16];
+
+    // Lines: the points of line i run from lineEnds[i - 1] (or 0) up to lineEnds[i]
+    public int lineCount;
+    public int[] lineEnds = new int[16];
+    public int pointCount;
+    public float[] pointX = new float[64];
+    public float[] pointY = new float[64];
+
+    // Level completion animation, in tiles
+    public boolean completing;
+    public int yellowX1, yellowY1, yellowX2, yellowY2;
+
+    // Top bar
+    public int tick;
+    public int score;
+    public int timeLeft; // Ticks
+    public int spawnCount; // Ticks until the next spawn
+    public int queued;
+    public final int[] queue = new int[QUEUE_SHOWN];
+    public float ballOffset;
+    public boolean levelFinish;
+    public boolean gameEnded;
+    public boolean paused;
+
+    /**
+     * Makes room for a number of balls, keeping those already stored.
+     *
+     * @param count the number of balls
+     */
+    void ensureBalls(int count) {
+        if (count > ballX.length) {
+            int size = Math.max(count, ballX.length * 2);
+            ballX = Arrays.copyOf(ballX, size);
+            ballY = Arrays.copyOf(ballY, size);
+            ballSize = Arrays.copyOf(ballSize, size);
+            ballColour = Arrays.copyOf(ballColour, size);
+        }
+    }
+
+    /**
+     * Makes room for a number of lines and points, keeping those already stored.
+     *
+     * @param lines  the number of lines
+     * @param points the number of points
+     */
+    void ensureLines(int lines, int points) {
+        if (lines > lineEnds.length) {
+            lineEnds = Arrays.copyOf(lineEnds, Math.max(lines, lineEnds.length * 2));
+        }
+        if (points > pointX.length) {
+            int size = Math.max(points, pointX.length * 2);
+            pointX = Arrays.copyOf(pointX, size);
+            pointY = Arrays.copyOf(pointY, size);
+        }
+    }
+
+    /**
+     * Finds where the points of a line start.
+     *
+     * @param line the index of the line
+     * @return the index of its first point
+     */
+    public int lineStart(int line) {
+        return line == 0 ? 0 : lineEnds[line - 1];
+    }
+}
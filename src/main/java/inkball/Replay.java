@@ -0,0 +1,210 @@
+package inkball;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * A recorded game session: the random seed, the starting level and every input,
+ * each stamped with the simulation tick it was applied before.
+ * <p>
+ * The binary format is compact: a fixed header, then one record per input where the tick
+ * and the mouse position are stored as deltas from the previous input and every number is
+ * a variable-length integer. A footer holds the total tick count and the final score so a
+ * playback can be checked against the original run.
+ * </p>
+ * <pre>
+ * header : int magic "INKR", byte version, long seed, varint levelIndex
+ * event  : byte type, varint tickDelta, then
+ *          mouse: zigzag dx, zigzag dy, varint (button &lt;&lt; 1 | ctrl)
+ *          key  : varint key, varint keyCode
+ * footer : byte END, varint totalTicks, zigzag finalScore
+ * </pre>
+ */
+public class Replay {
+    static final int MAGIC = 0x494E4B52; // "INKR"
+    static final int VERSION = 1;
+
+    // Event types
+    public static final byte END = 0;
+    public static final byte MOUSE_PRESS = 1;
+    public static final byte MOUSE_DRAG = 2;
+    public static final byte MOUSE_RELEASE = 3;
+    public static final byte KEY_PRESS = 4;
+    public static final byte KEY_RELEASE = 5;
+
+    private final long seed;
+    private final int levelIndex;
+    private int totalTicks;
+    private int finalScore;
+
+    // Events in parallel arrays
+    private int eventCount = 0;
+    private int[] ticks = new int[64];
+    private byte[] types = new byte[64];
+    private int[] first = new int[64]; // Mouse x or key character
+    private int[] second = new int[64]; // Mouse y or key code
+    private int[] buttons = new int[64]; // Mouse button, 0 for keys
+    private boolean[] control = new boolean[64]; // Whether Ctrl was held on a mouse press
+
+    private Replay(long seed, int levelIndex) {
+        this.seed = seed;
+        this.levelIndex = levelIndex;
+    }
+
+    /**
+     * Reads a replay file.
+     *
+     * @param path the path of the replay file
+     * @return the decoded replay
+     * @throws IOException if the file cannot be read or is not a replay
+     */
+    public static Replay read(String path) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(path))) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Decodes a replay from a stream.
+     *
+     * @param input the stream positioned at the start of a replay
+     * @return the decoded replay
+     * @throws IOException if the stream cannot be read or is not a replay
+     */
+    public static Replay read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an Inkball replay.");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay version: " + version);
+        }
+        Replay replay = new Replay(in.readLong(), readVarint(in));
+
+        int tick = 0;
+        int x = 0;
+        int y = 0;
+        while (true) {
+            byte type = in.readByte();
+            if (type == END) {
+                replay.totalTicks = readVarint(in);
+                replay.finalScore = zigzagDecode(readVarint(in));
+                return replay;
+            }
+            tick += readVarint(in);
+            if (type == MOUSE_PRESS || type == MOUSE_DRAG || type == MOUSE_RELEASE) {
+                x += zigzagDecode(readVarint(in));
+                y += zigzagDecode(readVarint(in));
+                int buttonAndControl = readVarint(in);
+                replay.add(tick, type, x, y, buttonAndControl >>> 1, (buttonAndControl & 1) != 0);
+            } else if (type == KEY_PRESS || type == KEY_RELEASE) {
+                int key = readVarint(in);
+                int keyCode = readVarint(in);
+                replay.add(tick, type, key, keyCode, 0, false);
+            } else {
+                throw new IOException("Unknown replay event type: " + type);
+            }
+        }
+    }
+
+    private void add(int tick, byte type, int a, int b, int button, boolean ctrl) {
+        if (eventCount == ticks.length) {
+            int capacity = ticks.length * 2;
+            ticks = Arrays.copyOf(ticks, capacity);
+            types = Arrays.copyOf(types, capacity);
+            first = Arrays.copyOf(first, capacity);
+            second = Arrays.copyOf(second, capacity);
+            buttons = Arrays.copyOf(buttons, capacity);
+            control = Arrays.copyOf(control, capacity);
+        }
+        ticks[eventCount] = tick;
+        types[eventCount] = type;
+        first[eventCount] = a;
+        second[eventCount] = b;
+        buttons[eventCount] = button;
+        control[eventCount] = ctrl;
+        eventCount++;
+    }
+
+    static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Replay ended inside a number.");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in replay.");
+    }
+
+    static int zigzagEncode(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int zigzagDecode(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getLevelIndex() {
+        return levelIndex;
+    }
+
+    public int getTotalTicks() {
+        return totalTicks;
+    }
+
+    public int getFinalScore() {
+        return finalScore;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public int getTick(int i) {
+        return ticks[i];
+    }
+
+    public byte getType(int i) {
+        return types[i];
+    }
+
+    /**
+     * Mouse x-coordinate, or the key character for key events.
+     */
+    public int getFirst(int i) {
+        return first[i];
+    }
+
+    /**
+     * Mouse y-coordinate, or the key code for key events.
+     */
+    public int getSecond(int i) {
+        return second[i];
+    }
+
+    public int getButton(int i) {
+        return buttons[i];
+    }
+
+    public boolean isControlHeld(int i) {
+        return control[i];
+    }
+}
@@ -0,0 +1,110 @@
+package inkball;
+
+import processing.core.PApplet;
+
+import java.io.IOException;
+
+/**
+ * Plays a {@link Replay} back by feeding its inputs into a game at the ticks they were recorded.
+ * <p>
+ * A replay can be re-simulated headless as fast as the CPU allows, or watched in real time
+ * in a window. Both reproduce the recorded score because the simulation is driven by the
+ * same seed and the same inputs at the same ticks.
+ * </p>
+ * <pre>
+ * ReplayPlayer &lt;replay-file&gt; [--render] [--config &lt;config.json&gt;]
+ * </pre>
+ */
+public class ReplayPlayer {
+    private final Replay replay;
+    private int cursor = 0; // Index of the next event to apply
+
+    public ReplayPlayer(Replay replay) {
+        this.replay = replay;
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    /**
+     * Applies every recorded input that belongs before the game's next tick.
+     *
+     * @param app the game being driven
+     */
+    public void feed(App app) {
+        int tick = app.getTickCount();
+        while (cursor < replay.getEventCount() && replay.getTick(cursor) <= tick) {
+            apply(app, cursor++);
+        }
+    }
+
+    private void apply(App app, int i) {
+        app.applyInput(replay.getType(i), replay.getFirst(i), replay.getSecond(i),
+                replay.getButton(i), replay.isControlHeld(i), 0);
+    }
+
+    /**
+     * Checks whether the game has run for as many ticks as the recording.
+     *
+     * @param app the game being driven
+     * @return {@code true} once playback is complete
+     */
+    public boolean isFinished(App app) {
+        return app.getTickCount() >= replay.getTotalTicks();
+    }
+
+    /**
+     * Re-simulates a replay without a window, as fast as possible.
+     *
+     * @param configPath the configuration the replay was recorded with
+     * @param replay     the replay to run
+     * @return the game in its final state
+     */
+    public static App runHeadless(String configPath, Replay replay) {
+        App app = App.createHeadless(configPath, replay.getSeed(), replay.getLevelIndex());
+        ReplayPlayer player = new ReplayPlayer(replay);
+        while (!player.isFinished(app)) {
+            player.feed(app);
+            app.tick();
+        }
+        return app;
+    }
+
+    /**
+     * Plays a replay file, headless by default or in a window with {@code --render}.
+     *
+     * @param args the replay file, then optional {@code --render} and {@code --config <path>}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplayPlayer <replay-file> [--render] [--config <config.json>]");
+            System.exit(2);
+        }
+        String configPath = "config.json";
+        boolean render = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--render")) {
+                render = true;
+            } else if (args[i].equals("--config") && i + 1 < args.length) {
+                configPath = args[++i];
+            }
+        }
+        Replay replay = Replay.read(args[0]);
+
+        if (render) {
+            App app = new App();
+            app.setConfigPath(configPath);
+            app.playReplay(new ReplayPlayer(replay));
+            PApplet.runSketch(new String[] {"inkball.App"}, app);
+            return;
+        }
+
+        long start = System.nanoTime();
+        App app = runHeadless(configPath, replay);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Replayed " + replay.getTotalTicks() + " ticks in " + millis + " ms. Score: "
+                + app.getScore() + " (recorded: " + replay.getFinalScore() + ")");
+        System.exit(app.getScore() == replay.getFinalScore() ? 0 : 1);
+    }
+}
@@ -0,0 +1,124 @@
+package inkball;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Records the inputs of a game session in the {@link Replay} format.
+ * Inputs are encoded into memory as they arrive; the file is written by {@link #finish(int, int)}.
+ */
+public class ReplayRecorder {
+    private final String path;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+    private int lastTick = 0;
+    private int lastX = 0;
+    private int lastY = 0;
+    private boolean finished = false;
+
+    /**
+     * Starts a recording.
+     *
+     * @param path       the file to write on {@link #finish(int, int)}, or {@code null} to keep it in memory
+     * @param seed       the seed of the session's random numbers
+     * @param levelIndex the level the session starts from
+     */
+    public ReplayRecorder(String path, long seed, int levelIndex) {
+        this.path = path;
+        try {
+            DataOutputStream header = new DataOutputStream(buffer);
+            header.writeInt(Replay.MAGIC);
+            header.writeByte(Replay.VERSION);
+            header.writeLong(seed);
+            Replay.writeVarint(buffer, levelIndex);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Cannot happen with an in-memory stream
+        }
+    }
+
+    /**
+     * Records a mouse press, drag or release.
+     *
+     * @param tick   the tick the input is applied before
+     * @param type   {@link Replay#MOUSE_PRESS}, {@link Replay#MOUSE_DRAG} or {@link Replay#MOUSE_RELEASE}
+     * @param x      the x-coordinate of the mouse
+     * @param y      the y-coordinate of the mouse
+     * @param button the mouse button
+     * @param ctrl   whether Ctrl was held
+     */
+    public void recordMouse(int tick, byte type, int x, int y, int button, boolean ctrl) {
+        if (finished) {
+            return;
+        }
+        try {
+            writeHeader(tick, type);
+            Replay.writeVarint(buffer, Replay.zigzagEncode(x - lastX));
+            Replay.writeVarint(buffer, Replay.zigzagEncode(y - lastY));
+            Replay.writeVarint(buffer, (button << 1) | (ctrl ? 1 : 0));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lastX = x;
+        lastY = y;
+    }
+
+    /**
+     * Records a key press or release.
+     *
+     * @param tick    the tick the input is applied before
+     * @param type    {@link Replay#KEY_PRESS} or {@link Replay#KEY_RELEASE}
+     * @param key     the key character
+     * @param keyCode the key code
+     */
+    public void recordKey(int tick, byte type, char key, int keyCode) {
+        if (finished) {
+            return;
+        }
+        try {
+            writeHeader(tick, type);
+            Replay.writeVarint(buffer, key);
+            Replay.writeVarint(buffer, keyCode);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeHeader(int tick, byte type) throws IOException {
+        buffer.write(type);
+        Replay.writeVarint(buffer, tick - lastTick);
+        lastTick = tick;
+    }
+
+    /**
+     * Ends the recording and writes the replay file if a path was given.
+     *
+     * @param totalTicks the number of ticks the session ran for
+     * @param finalScore the score at the end of the session
+     * @return the encoded replay
+     */
+    public byte[] finish(int totalTicks, int finalScore) {
+        if (!finished) {
+            finished = true;
+            try {
+                buffer.write(Replay.END);
+                Replay.writeVarint(buffer, totalTicks);
+                Replay.writeVarint(buffer, Replay.zigzagEncode(finalScore));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        byte[] bytes = buffer.toByteArray();
+        if (path != null) {
+            try (OutputStream out = new FileOutputStream(path)) {
+                out.write(bytes);
+                System.out.println("Replay saved to: " + path + " (" + bytes.length + " bytes)");
+            } catch (IOException e) {
+                System.err.println("Failed to save replay to " + path + ": " + e.getMessage());
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,315 @@
+package inkball;
+
+import processing.core.PVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid over the board that files every segment of the player-drawn lines under the
+ * cells its ink covers.
+ * <p>
+ * Queries around a point only look at the cells near it, so their cost follows the ink near the
+ * point rather than all the ink on the board. A line can be filed more than once, as the line list
+ * allows duplicates; it stays in the grid until its last copy is removed. A line that belongs to
+ * the index reports new points through {@link #update(Line)}.
+ * </p>
+ */
+public class SegmentIndex {
+    public static final int CELL_SIZE = App.TILE_SIZE; // Pixels along each side of a cell
+
+    /**
+     * One segment of a line, between two consecutive points.
+     */
+    private static final class Segment {
+        final Entry entry;
+        final float ax, ay, bx, by;
+        final int minColumn, maxColumn, minRow, maxRow; // Cells the segment is filed under
+
+        Segment(Entry entry, float ax, float ay, float bx, float by, int minColumn, int maxColumn, int minRow, int maxRow) {
+            this.entry = entry;
+            this.ax = ax;
+            this.ay = ay;
+            this.bx = bx;
+            this.by = by;
+            this.minColumn = minColumn;
+            this.maxColumn = maxColumn;
+            this.minRow = minRow;
+            this.maxRow = maxRow;
+        }
+    }
+
+    /**
+     * The segments filed for one line.
+     */
+    private static final class Entry {
+        final Line line;
+        final long order; // When the line was first added, used to break ties
+        final List<Segment> segments = new ArrayList<>();
+        int copies;
+        int stamp; // Query that last visited the line
+        float distance; // Nearest distance found by that query
+
+        Entry(Line line, long order) {
+            this.line = line;
+            this.order = order;
+        }
+    }
+
+    private final Map<Line, Entry> entries = new IdentityHashMap<>();
+    private List<Segment>[] cells;
+    private int columns;
+    private int rows;
+    private long added;
+    private int stamp;
+    private final List<Entry> candidates = new ArrayList<>();
+
+    /**
+     * Creates an empty index for a board.
+     *
+     * @param width  the right edge of the board in pixels
+     * @param height the bottom edge of the board in pixels, including the top bar
+     */
+    public SegmentIndex(float width, float height) {
+        allocate(width, height);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Generic arrays can only be created raw
+    private void allocate(float width, float height) {
+        columns = Math.max(1, (int) Math.ceil(width / CELL_SIZE));
+        rows = Math.max(1, (int) Math.ceil(height / CELL_SIZE));
+        cells = new List[columns * rows];
+    }
+
+    /**
+     * Fits the grid to a new board size and files the indexed lines again.
+     *
+     * @param width  the right edge of the board in pixels
+     * @param height the bottom edge of the board in pixels, including the top bar
+     */
+    public void resize(float width, float height) {
+        allocate(width, height);
+        for (Entry entry : entries.values()) {
+            entry.segments.clear();
+            fileSegments(entry);
+        }
+    }
+
+    private int column(float x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / CELL_SIZE)));
+    }
+
+    private int row(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / CELL_SIZE)));
+    }
+
+    /**
+     * Files a line and its segments, or counts another copy of a line already filed.
+     *
+     * @param line the line
+     */
+    public void add(Line line) {
+        Entry entry = entries.get(line);
+        if (entry == null) {
+            entry = new Entry(line, added++);
+            entries.put(line, entry);
+            line.setIndex(this);
+            fileSegments(entry);
+        }
+        entry.copies++;
+    }
+
+    /**
+     * Removes one copy of a line, and its segments once no copies are left.
+     *
+     * @param line the line
+     */
+    public void remove(Line line) {
+        Entry entry = entries.get(line);
+        if (entry == null || --entry.copies > 0) {
+            return;
+        }
+        entries.remove(line);
+        line.setIndex(null);
+        unfileSegments(entry);
+    }
+
+    /**
+     * Removes every line.
+     */
+    public void clear() {
+        for (Entry entry : entries.values()) {
+            entry.line.setIndex(null);
+        }
+        entries.clear();
+        Arrays.fill(cells, null);
+    }
+
+    /**
+     * Brings a filed line's segments up to date after its points changed. New points at the
+     * end only file the new segments; any other change files the line again.
+     *
+     * @param line the line
+     */
+    public void update(Line line) {
+        Entry entry = entries.get(line);
+        if (entry == null) {
+            return;
+        }
+        int segmentCount = Math.max(0, line.getPoints().size() - 1);
+        if (segmentCount < entry.segments.size()) {
+            unfileSegments(entry);
+        }
+        fileSegments(entry);
+    }
+
+    private void fileSegments(Entry entry) {
+        Map<Integer, PVector> points = entry.line.getPoints();
+        float half = entry.line.getThickness() / 2;
+        for (int i = entry.segments.size(); i < points.size() - 1; i++) {
+            PVector a = points.get(i);
+            PVector b = points.get(i + 1);
+            if (a == null || b == null) {
+                break;
+            }
+            Segment segment = new Segment(entry, a.x, a.y, b.x, b.y,
+                    column(Math.min(a.x, b.x) - half), column(Math.max(a.x, b.x) + half),
+                    row(Math.min(a.y, b.y) - half), row(Math.max(a.y, b.y) + half));
+            entry.segments.add(segment);
+            for (int r = segment.minRow; r <= segment.maxRow; r++) {
+                for (int c = segment.minColumn; c <= segment.maxColumn; c++) {
+                    int cell = r * columns + c;
+                    if (cells[cell] == null) {
+                        cells[cell] = new ArrayList<>(4);
+                    }
+                    cells[cell].add(segment);
+                }
+            }
+        }
+    }
+
+    private void unfileSegments(Entry entry) {
+        for (Segment segment : entry.segments) {
+            for (int r = segment.minRow; r <= segment.maxRow; r++) {
+                for (int c = segment.minColumn; c <= segment.maxColumn; c++) {
+                    List<Segment> cell = cells[r * columns + c];
+                    if (cell != null) {
+                        cell.remove(segment);
+                    }
+                }
+            }
+        }
+        entry.segments.clear();
+    }
+
+    /**
+     * Finds every line whose ink comes within a radius of a point.
+     *
+     * @param x      the x-coordinate of the point
+     * @param y      the y-coordinate of the point
+     * @param radius the radius in pixels
+     * @param out    the list the lines are added to, each once
+     */
+    public void linesWithin(float x, float y, float radius, List<Line> out) {
+        stamp++;
+        for (int r = row(y - radius); r <= row(y + radius); r++) {
+            for (int c = column(x - radius); c <= column(x + radius); c++) {
+                List<Segment> cell = cells[r * columns + c];
+                if (cell == null) {
+                    continue;
+                }
+                for (Segment segment : cell) {
+                    Entry entry = segment.entry;
+                    if (entry.stamp != stamp
+                            && distance(x, y, segment) <= radius + entry.line.getThickness() / 2) {
+                        entry.stamp = stamp;
+                        out.add(entry.line);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the lines nearest a point, measured to the middle of their ink.
+     * The search starts one cell around the point and doubles until it is sure of the answer.
+     *
+     * @param x   the x-coordinate of the point
+     * @param y   the y-coordinate of the point
+     * @param k   the most lines to find
+     * @param out the list the lines are added to, nearest first; ties go to the line added first
+     */
+    public void nearest(float x, float y, int k, List<Line> out) {
+        if (k <= 0 || entries.isEmpty()) {
+            return;
+        }
+        float radius = CELL_SIZE;
+        while (true) {
+            stamp++;
+            candidates.clear();
+            int minColumn = column(x - radius), maxColumn = column(x + radius);
+            int minRow = row(y - radius), maxRow = row(y + radius);
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minColumn; c <= maxColumn; c++) {
+                    List<Segment> cell = cells[r * columns + c];
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Segment segment : cell) {
+                        Entry entry = segment.entry;
+                        float d = distance(x, y, segment);
+                        if (entry.stamp != stamp) {
+                            entry.stamp = stamp;
+                            entry.distance = d;
+                            candidates.add(entry);
+                        } else if (d < entry.distance) {
+                            entry.distance = d;
+                        }
+                    }
+                }
+            }
+            // Lines further than the radius may have nearer segments outside the searched cells
+            boolean wholeBoard = minColumn == 0 && minRow == 0 && maxColumn == columns - 1 && maxRow == rows - 1;
+            int sure = 0;
+            for (Entry entry : candidates) {
+                if (entry.distance <= radius) {
+                    sure++;
+                }
+            }
+            if (sure >= k || wholeBoard) {
+                candidates.sort((a, b) -> a.distance != b.distance
+                        ? Float.compare(a.distance, b.distance) : Long.compare(a.order, b.order));
+                int limit = wholeBoard ? candidates.size() : sure;
+                for (int i = 0; i < Math.min(k, limit); i++) {
+                    out.add(candidates.get(i).line);
+                }
+                candidates.clear();
+                return;
+            }
+            radius *= 2;
+        }
+    }
+
+    private static float distance(float x, float y, Segment segment) {
+        float abX = segment.bx - segment.ax;
+        float abY = segment.by - segment.ay;
+        float lengthSquared = abX * abX + abY * abY;
+        float t = lengthSquared == 0 ? 0
+                : Math.max(0, Math.min(1, ((x - segment.ax) * abX + (y - segment.ay) * abY) / lengthSquared));
+        float dx = x - (segment.ax + abX * t);
+        float dy = y - (segment.ay + abY * t);
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Counts the distinct lines filed.
+     *
+     * @return the line count
+     */
+    public int getLineCount() {
+        return entries.size();
+    }
+}
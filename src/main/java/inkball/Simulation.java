@@ -0,0 +1,93 @@
+package inkball;
+
+/**
+ * Runs a game's ticks on a thread of its own at the fixed tick rate, so a slow frame no longer
+ * slows the physics.
+ * <p>
+ * After every tick the simulation copies what the renderer needs into a {@link RenderState} and
+ * publishes it through a {@link TripleBuffer}; {@code draw()} only reads the newest state. Mouse and
+ * key input arrive on the animation thread and wait in the game's {@link InputQueue} until the
+ * start of the next tick, so only the simulation thread ever changes the game.
+ * </p>
+ */
+public class Simulation implements Runnable {
+    public static final String PROPERTY = "inkball.simThread";
+    private static final int MAX_CATCH_UP_TICKS = 5; // Ticks run back to back before giving up on the lost time
+
+    private final App app;
+    private final FramePacer pacer;
+    private final TripleBuffer<RenderState> states = new TripleBuffer<>(RenderState::new);
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Creates a simulation for a game that has been set up.
+     *
+     * @param app the game
+     */
+    public Simulation(App app) {
+        this.app = app;
+        this.pacer = new FramePacer(App.FPS, MAX_CATCH_UP_TICKS, app.getMetrics().tickJitter);
+    }
+
+    /**
+     * Checks whether {@value #PROPERTY} asks for a simulation thread.
+     *
+     * @return {@code true} if the property is set to {@code true}
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PROPERTY);
+    }
+
+    /**
+     * Publishes the current state and starts ticking.
+     */
+    public void start() {
+        app.captureRenderState(states.getBack(), true);
+        states.publish();
+        running = true;
+        thread = new Thread(this, "inkball-simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops ticking and waits for the current tick to finish.
+     */
+    public void stop() {
+        running = false;
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Retrieves the newest published state. Only the rendering thread may call this.
+     *
+     * @return the state to draw
+     */
+    public RenderState getLatest() {
+        return states.getFront();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            long start = pacer.await();
+            if (!running) {
+                break;
+            }
+            int ticks = 0;
+            do {
+                app.tick(); // Applies the queued input first
+                ticks++;
+            } while (running && app.wantsAnotherTick(ticks, start));
+            app.captureRenderState(states.getBack(), true);
+            states.publish();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package inkball;
+
+/**
+ * A first-in first-out queue of ball colours waiting to be spawned.
+ * <p>
+ * Colours are stored as their colour index in a growable ring buffer of bytes, so pushing
+ * and popping are O(1) and never shift the remaining balls. {@link #peek(int)} reads
+ * straight from the buffer, which lets the top bar show the upcoming balls without copying.
+ * </p>
+ */
+public class SpawnQueue {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private byte[] buffer; // Capacity is always a power of two
+    private int head = 0; // Index of the next ball to spawn
+    private int size = 0;
+
+    public SpawnQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SpawnQueue(int capacity) {
+        int powerOfTwo = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, capacity) - 1) << 1;
+        buffer = new byte[powerOfTwo];
+    }
+
+    /**
+     * Adds a ball to the back of the queue.
+     *
+     * @param colour the colour of the ball
+     */
+    public void add(Colour colour) {
+        push(colour.ordinal());
+    }
+
+    /**
+     * Adds a ball to the back of the queue.
+     *
+     * @param colour the colour index of the ball
+     */
+    public void push(int colour) {
+        if (size == buffer.length) {
+            grow();
+        }
+        buffer[(head + size) & (buffer.length - 1)] = (byte) colour;
+        size++;
+    }
+
+    /**
+     * Removes the ball at the front of the queue.
+     *
+     * @return the colour index of the removed ball
+     * @throws IllegalStateException if the queue is empty
+     */
+    public int pop() {
+        if (size == 0) {
+            throw new IllegalStateException("Spawn queue is empty.");
+        }
+        int colour = buffer[head];
+        head = (head + 1) & (buffer.length - 1);
+        size--;
+        return colour;
+    }
+
+    /**
+     * Reads a ball without removing it.
+     *
+     * @param i the position in the queue, 0 being the next ball to spawn
+     * @return the colour index of the ball
+     * @throws IndexOutOfBoundsException if {@code i} is not in the queue
+     */
+    public int peek(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for spawn queue of size " + size);
+        }
+        return buffer[(head + i) & (buffer.length - 1)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Doubles the capacity, unrolling the ring so the front of the queue is at index 0.
+     */
+    private void grow() {
+        byte[] larger = new byte[buffer.length << 1];
+        int firstPart = Math.min(size, buffer.length - head);
+        System.arraycopy(buffer, head, larger, 0, firstPart);
+        System.arraycopy(buffer, 0, larger, firstPart, size - firstPart);
+        buffer = larger;
+        head = 0;
+    }
+}
@@ -0,0 +1,427 @@
+package inkball;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The tiles of a board of any size, stored in fixed-size square chunks of flat byte arrays.
+ * <p>
+ * Each cell is four bytes spread over parallel arrays: a type tag, a colour, a damage level
+ * and a flag for a running hit cooldown. Game logic switches on the type tag instead of dispatching on tile
+ * objects, and a chunk is only allocated once something is placed in it, so large boards that
+ * are mostly open floor cost little memory. Looking up a cell is a shift, a mask and two array reads.
+ * </p>
+ * <p>
+ * {@link #getTile(int, int, App)} builds a {@link Tile} copy of a cell for code that wants objects.
+ * </p>
+ */
+public class TileGrid {
+    static final int CHUNK_SHIFT = 4;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // Tiles along each side of a chunk
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int CHUNK_CELLS = CHUNK_SIZE * CHUNK_SIZE;
+
+    // Type tags
+    public static final byte EMPTY = 0;
+    public static final byte WALL = 1; // Colour 0 is a grey wall
+    public static final byte HOLE = 2; // Top-left tile of a hole
+    public static final byte HOLE_PART = 3; // Other tiles covered by a hole
+    public static final byte SPAWNER = 4;
+
+    public static final int MAX_DAMAGE_LEVEL = 3; // Hits that destroy a wall
+    public static final int HIT_COOLDOWN_FRAMES = 5; // Frames before a wall can be hit again, counted by the game's timers
+
+    // Results of hitting a wall
+    public static final int HIT_IGNORED = 0;
+    public static final int HIT_DAMAGED = 1;
+    public static final int HIT_DESTROYED = 2;
+
+    /**
+     * Receives the cells visited by {@link #forEachCellIn(int, int, int, int, CellVisitor)}.
+     */
+    public interface CellVisitor {
+        void visit(int x, int y, byte type, byte colour, byte damage);
+    }
+
+    private final int width;
+    private final int height;
+    private final int chunkColumns;
+    private final int chunkRows;
+    // Row-major chunks of row-major cells, null until used
+    private final byte[][] types;
+    private final byte[][] colours;
+    private final byte[][] damage;
+    private final byte[][] cooldowns;
+    private int allocatedChunks = 0;
+    private int version = 0; // Bumped by every change to a cell's type, colour or damage
+
+    /**
+     * Creates an empty board.
+     *
+     * @param width  the width of the board in tiles
+     * @param height the height of the board in tiles
+     */
+    public TileGrid(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Board size must be positive: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.chunkColumns = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunkRows = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+        int chunkCount = chunkColumns * chunkRows;
+        this.types = new byte[chunkCount][];
+        this.colours = new byte[chunkCount][];
+        this.damage = new byte[chunkCount][];
+        this.cooldowns = new byte[chunkCount][];
+    }
+
+    private static int cell(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+    }
+
+    private int chunk(int x, int y) {
+        return (y >> CHUNK_SHIFT) * chunkColumns + (x >> CHUNK_SHIFT);
+    }
+
+    private boolean onBoard(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private void allocate(int chunkIndex) {
+        types[chunkIndex] = new byte[CHUNK_CELLS];
+        colours[chunkIndex] = new byte[CHUNK_CELLS];
+        damage[chunkIndex] = new byte[CHUNK_CELLS];
+        cooldowns[chunkIndex] = new byte[CHUNK_CELLS];
+        allocatedChunks++;
+    }
+
+    /**
+     * Retrieves the type tag of a cell.
+     *
+     * @param x the column of the cell
+     * @param y the row of the cell
+     * @return the type tag, {@link #EMPTY} for open floor and positions off the board
+     */
+    public byte getType(int x, int y) {
+        if (!onBoard(x, y)) {
+            return EMPTY;
+        }
+        byte[] chunk = types[chunk(x, y)];
+        return chunk == null ? EMPTY : chunk[cell(x, y)];
+    }
+
+    public int getColour(int x, int y) {
+        return onBoard(x, y) && types[chunk(x, y)] != null ? colours[chunk(x, y)][cell(x, y)] : 0;
+    }
+
+    public int getDamage(int x, int y) {
+        return onBoard(x, y) && types[chunk(x, y)] != null ? damage[chunk(x, y)][cell(x, y)] : 0;
+    }
+
+    public int getCooldown(int x, int y) {
+        return onBoard(x, y) && types[chunk(x, y)] != null ? cooldowns[chunk(x, y)][cell(x, y)] : 0;
+    }
+
+    /**
+     * Checks whether a wall is ignoring hits because it was hit recently.
+     */
+    public boolean isCoolingDown(int x, int y) {
+        return getCooldown(x, y) > 0;
+    }
+
+    /**
+     * Checks whether a cell holds a wall that balls bounce off.
+     */
+    public boolean isSolid(int x, int y) {
+        return getType(x, y) == WALL;
+    }
+
+    /**
+     * Places a cell, replacing whatever was there.
+     *
+     * @param x      the column of the cell
+     * @param y      the row of the cell
+     * @param type   the type tag
+     * @param colour the colour index
+     * @throws IndexOutOfBoundsException if the position is off the board
+     */
+    public void set(int x, int y, byte type, int colour) {
+        if (!onBoard(x, y)) {
+            throw new IndexOutOfBoundsException("(" + x + ", " + y + ") is outside the " + width + "x" + height + " board");
+        }
+        int chunkIndex = chunk(x, y);
+        if (types[chunkIndex] == null) {
+            if (type == EMPTY) {
+                return; // Clearing open floor allocates nothing
+            }
+            allocate(chunkIndex);
+        }
+        int cell = cell(x, y);
+        types[chunkIndex][cell] = type;
+        colours[chunkIndex][cell] = (byte) colour;
+        damage[chunkIndex][cell] = 0;
+        cooldowns[chunkIndex][cell] = 0;
+        version++;
+    }
+
+    public void setWall(int x, int y, int colour) {
+        set(x, y, WALL, colour);
+    }
+
+    public void clear(int x, int y) {
+        set(x, y, EMPTY, 0);
+    }
+
+    /**
+     * Restores the damage and cooldown of a wall.
+     *
+     * @param x            the column of the wall
+     * @param y            the row of the wall
+     * @param damageLevel  the number of hits the wall has taken
+     * @param cooldown     non-zero if the wall is ignoring hits
+     */
+    public void setWallState(int x, int y, int damageLevel, int cooldown) {
+        if (getType(x, y) != WALL) {
+            return;
+        }
+        int chunkIndex = chunk(x, y);
+        int cell = cell(x, y);
+        damage[chunkIndex][cell] = (byte) damageLevel;
+        cooldowns[chunkIndex][cell] = (byte) cooldown;
+        version++;
+    }
+
+    /**
+     * Applies a ball hit to a wall. Grey walls take damage from every ball; coloured walls only
+     * from balls of their own colour. A damaged wall ignores hits until {@link #endCooldown(int, int)}
+     * is called for it, and it is removed once it reaches {@link #MAX_DAMAGE_LEVEL}.
+     *
+     * @param x          the column of the wall
+     * @param y          the row of the wall
+     * @param ballColour the colour of the ball
+     * @return {@link #HIT_IGNORED}, {@link #HIT_DAMAGED} or {@link #HIT_DESTROYED}
+     */
+    public int hit(int x, int y, int ballColour) {
+        if (getType(x, y) != WALL) {
+            return HIT_IGNORED;
+        }
+        int chunkIndex = chunk(x, y);
+        int cell = cell(x, y);
+        int colour = colours[chunkIndex][cell];
+        if (cooldowns[chunkIndex][cell] > 0 || (colour != 0 && ballColour != colour)) {
+            return HIT_IGNORED;
+        }
+        int damageLevel = ++damage[chunkIndex][cell];
+        if (damageLevel >= MAX_DAMAGE_LEVEL) {
+            clear(x, y);
+            return HIT_DESTROYED;
+        }
+        cooldowns[chunkIndex][cell] = 1;
+        version++;
+        return HIT_DAMAGED;
+    }
+
+    /**
+     * Lets a wall take hits again once its cooldown has run out.
+     *
+     * @param x the column of the wall
+     * @param y the row of the wall
+     */
+    public void endCooldown(int x, int y) {
+        if (getType(x, y) == WALL) {
+            cooldowns[chunk(x, y)][cell(x, y)] = 0;
+        }
+    }
+
+    /**
+     * Visits every cell that is not open floor inside a rectangle of tile positions, skipping
+     * chunks that were never used. The rectangle is clipped to the board.
+     *
+     * @param minX    the first column, inclusive
+     * @param minY    the first row, inclusive
+     * @param maxX    the last column, inclusive
+     * @param maxY    the last row, inclusive
+     * @param visitor the visitor to call
+     */
+    public void forEachCellIn(int minX, int minY, int maxX, int maxY, CellVisitor visitor) {
+        minX = Math.max(0, minX);
+        minY = Math.max(0, minY);
+        maxX = Math.min(width - 1, maxX);
+        maxY = Math.min(height - 1, maxY);
+        for (int chunkY = minY >> CHUNK_SHIFT; chunkY <= maxY >> CHUNK_SHIFT; chunkY++) {
+            for (int chunkX = minX >> CHUNK_SHIFT; chunkX <= maxX >> CHUNK_SHIFT; chunkX++) {
+                int chunkIndex = chunkY * chunkColumns + chunkX;
+                byte[] chunkTypes = types[chunkIndex];
+                if (chunkTypes == null) {
+                    continue;
+                }
+                int startY = Math.max(minY, chunkY << CHUNK_SHIFT);
+                int endY = Math.min(maxY, (chunkY << CHUNK_SHIFT) + CHUNK_MASK);
+                int startX = Math.max(minX, chunkX << CHUNK_SHIFT);
+                int endX = Math.min(maxX, (chunkX << CHUNK_SHIFT) + CHUNK_MASK);
+                for (int y = startY; y <= endY; y++) {
+                    for (int x = startX; x <= endX; x++) {
+                        int cell = cell(x, y);
+                        if (chunkTypes[cell] != EMPTY) {
+                            visitor.visit(x, y, chunkTypes[cell], colours[chunkIndex][cell], damage[chunkIndex][cell]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits every cell that is not open floor.
+     *
+     * @param visitor the visitor to call
+     */
+    public void forEachCell(CellVisitor visitor) {
+        forEachCellIn(0, 0, width - 1, height - 1, visitor);
+    }
+
+    /**
+     * Builds a {@link Tile} copy of a cell. Changes made to the copy do not reach the board.
+     *
+     * @param x   the column of the cell
+     * @param y   the row of the cell
+     * @param app the running game, used for sprites
+     * @return the tile, or {@code null} for open floor and positions off the board
+     */
+    public Tile getTile(int x, int y, App app) {
+        switch (getType(x, y)) {
+            case WALL: {
+                int colour = getColour(x, y);
+                GreyTile wall = colour == 0 ? new GreyTile(x, y, app) : new ColourTile(x, y, colour, app);
+                wall.restoreDamage(getDamage(x, y), getCooldown(x, y));
+                return wall;
+            }
+            case HOLE:
+            case HOLE_PART:
+                return new HoleTile(x, y, getColour(x, y), app, getType(x, y) == HOLE);
+            case SPAWNER:
+                return new EntryPoint(x, y, app);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Writes the board: its size, then a flag per chunk and the cell arrays of every used chunk.
+     *
+     * @param out the buffer to write to
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putInt(width).putInt(height);
+        for (int i = 0; i < types.length; i++) {
+            out.put((byte) (types[i] != null ? 1 : 0));
+            if (types[i] != null) {
+                out.put(types[i]).put(colours[i]).put(damage[i]).put(cooldowns[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a board written by {@link #writeTo(ByteBuffer)}.
+     *
+     * @param in the buffer to read from
+     * @return the board
+     */
+    public static TileGrid readFrom(ByteBuffer in) {
+        return readFrom(in, null);
+    }
+
+    /**
+     * Reads a board written by {@link #writeTo(ByteBuffer)}, copying it into an existing board of
+     * the same size so its chunk arrays are reused.
+     *
+     * @param in    the buffer to read from
+     * @param reuse the board to copy into, or {@code null}
+     * @return {@code reuse} if it had the same size, otherwise a new board
+     */
+    public static TileGrid readFrom(ByteBuffer in, TileGrid reuse) {
+        int width = in.getInt();
+        int height = in.getInt();
+        TileGrid grid = reuse != null && reuse.width == width && reuse.height == height
+                ? reuse : new TileGrid(width, height);
+        for (int i = 0; i < grid.types.length; i++) {
+            if (in.get() == 0) {
+                if (grid.types[i] != null) {
+                    grid.types[i] = null;
+                    grid.colours[i] = null;
+                    grid.damage[i] = null;
+                    grid.cooldowns[i] = null;
+                    grid.allocatedChunks--;
+                }
+                continue;
+            }
+            if (grid.types[i] == null) {
+                grid.allocate(i);
+            }
+            in.get(grid.types[i]).get(grid.colours[i]).get(grid.damage[i]).get(grid.cooldowns[i]);
+        }
+        grid.version++;
+        return grid;
+    }
+
+    /**
+     * Copies the board, so it can be read on another thread while this one keeps changing.
+     *
+     * @return a board with the same cells, sharing no arrays with this one
+     */
+    public TileGrid copy() {
+        TileGrid copy = new TileGrid(width, height);
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] != null) {
+                copy.types[i] = types[i].clone();
+                copy.colours[i] = colours[i].clone();
+                copy.damage[i] = damage[i].clone();
+                copy.cooldowns[i] = cooldowns[i].clone();
+            }
+        }
+        copy.allocatedChunks = allocatedChunks;
+        copy.version = version;
+        return copy;
+    }
+
+    /**
+     * Counts the changes made to the types, colours and damage of the cells.
+     * Cooldowns are not counted, as they do not change how the board looks.
+     *
+     * @return a number that changes whenever the board's appearance does
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks whether the chunk at the given chunk position holds any tiles.
+     *
+     * @param chunkX the chunk column
+     * @param chunkY the chunk row
+     * @return {@code true} if the chunk has been allocated
+     */
+    public boolean isChunkAllocated(int chunkX, int chunkY) {
+        return types[chunkY * chunkColumns + chunkX] != null;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getChunkColumns() {
+        return chunkColumns;
+    }
+
+    public int getChunkRows() {
+        return chunkRows;
+    }
+
+    public int getAllocatedChunks() {
+        return allocatedChunks;
+    }
+}
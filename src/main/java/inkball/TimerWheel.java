@@ -0,0 +1,202 @@
+package inkball;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A hashed timer wheel that runs timers after a number of ticks.
+ * <p>
+ * Timers hash into a fixed ring of slots by the tick they are due, so scheduling and
+ * cancelling are O(1) and advancing one tick only looks at the timers in a single slot.
+ * Timers further away than one turn of the wheel wait in their slot until their tick comes round.
+ * </p>
+ * <p>
+ * A timer is a kind and an integer argument rather than a callback, so the pending timers can be
+ * written into a saved game and scheduled again when it is restored.
+ * </p>
+ */
+public class TimerWheel {
+    private static final int SLOT_SHIFT = 8;
+    private static final int SLOT_COUNT = 1 << SLOT_SHIFT;
+    private static final int SLOT_MASK = SLOT_COUNT - 1;
+
+    /**
+     * Receives the timers that are due.
+     */
+    public interface Listener {
+        void onTimer(Timer timer);
+    }
+
+    /**
+     * A pending timer. Keep it to cancel the timer or to ask how long is left.
+     */
+    public static final class Timer {
+        private final int kind;
+        private final int arg;
+        private long due;
+        private Timer previous;
+        private Timer next;
+        private boolean pending;
+
+        private Timer(int kind, int arg) {
+            this.kind = kind;
+            this.arg = arg;
+        }
+
+        public int getKind() {
+            return kind;
+        }
+
+        public int getArg() {
+            return arg;
+        }
+
+        public boolean isPending() {
+            return pending;
+        }
+    }
+
+    private final Timer[] heads = new Timer[SLOT_COUNT]; // Doubly linked timers of each slot
+    private final Timer[] tails = new Timer[SLOT_COUNT];
+    private final Listener listener;
+    private long tick = 0;
+    private int size = 0;
+
+    public TimerWheel(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Schedules a timer.
+     *
+     * @param delay the number of ticks until the timer is due, at least 1
+     * @param kind  what the timer is for
+     * @param arg   a value passed back with the timer
+     * @return the timer
+     */
+    public Timer schedule(int delay, int kind, int arg) {
+        if (delay < 1) {
+            throw new IllegalArgumentException("Timers must be at least one tick away: " + delay);
+        }
+        Timer timer = new Timer(kind, arg);
+        timer.due = tick + delay;
+        int slot = (int) (timer.due & SLOT_MASK);
+        timer.previous = tails[slot];
+        if (tails[slot] != null) {
+            tails[slot].next = timer;
+        } else {
+            heads[slot] = timer;
+        }
+        tails[slot] = timer;
+        timer.pending = true;
+        size++;
+        return timer;
+    }
+
+    /**
+     * Cancels a timer. Cancelling a timer that has already run or been cancelled does nothing.
+     *
+     * @param timer the timer to cancel, may be {@code null}
+     */
+    public void cancel(Timer timer) {
+        if (timer == null || !timer.pending) {
+            return;
+        }
+        int slot = (int) (timer.due & SLOT_MASK);
+        if (timer.previous != null) {
+            timer.previous.next = timer.next;
+        } else {
+            heads[slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        } else {
+            tails[slot] = timer.previous;
+        }
+        timer.previous = null;
+        timer.next = null;
+        timer.pending = false;
+        size--;
+    }
+
+    /**
+     * Moves time forward by one tick and runs the timers that are due, in the order they were scheduled.
+     * Timers scheduled while running are never run in the same tick.
+     */
+    public void advance() {
+        tick++;
+        int slot = (int) (tick & SLOT_MASK);
+        Timer timer = heads[slot];
+        while (timer != null) {
+            Timer next = timer.next;
+            if (timer.due == tick) {
+                cancel(timer);
+                listener.onTimer(timer);
+                if (next != null && !next.pending) {
+                    next = heads[slot]; // The timer cancelled others; start the slot again
+                }
+            }
+            timer = next;
+        }
+    }
+
+    /**
+     * Ticks left until a timer is due.
+     *
+     * @param timer the timer
+     * @return the ticks left, 0 if the timer is not pending
+     */
+    public int getRemaining(Timer timer) {
+        return timer != null && timer.pending ? (int) (timer.due - tick) : 0;
+    }
+
+    /**
+     * Cancels every pending timer.
+     */
+    public void clear() {
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            while (heads[slot] != null) {
+                cancel(heads[slot]);
+            }
+        }
+    }
+
+    /**
+     * Writes every pending timer as its kind, argument and ticks left.
+     *
+     * @param out the buffer to write to
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putInt(size);
+        for (int i = 1; i <= SLOT_COUNT; i++) {
+            // Walk the slots from the next tick onwards so timers come back in due order within a turn
+            for (Timer timer = heads[(int) ((tick + i) & SLOT_MASK)]; timer != null; timer = timer.next) {
+                out.putInt(timer.kind).putInt(timer.arg).putInt((int) (timer.due - tick));
+            }
+        }
+    }
+
+    /**
+     * Reads timers written by {@link #writeTo(ByteBuffer)} and schedules them, after cancelling
+     * the pending ones. Each timer is passed to the callback so the caller can keep hold of it.
+     *
+     * @param in       the buffer to read from
+     * @param restored called with each timer as it is scheduled
+     */
+    public void readFrom(ByteBuffer in, Listener restored) {
+        clear();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            int kind = in.getInt();
+            int arg = in.getInt();
+            restored.onTimer(schedule(in.getInt(), kind, arg));
+        }
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int size() {
+        return size;
+    }
+}
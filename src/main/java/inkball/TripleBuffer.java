@@ -0,0 +1,69 @@
+package inkball;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands the latest of a stream of values from one writer thread to one reader thread without locks.
+ * <p>
+ * Three slots rotate between the writer, the reader and a middle slot holding the newest finished
+ * value. The writer fills its slot and swaps it into the middle; the reader swaps the middle for its
+ * own slot when something new has arrived. Each swap is a single atomic exchange, so neither thread
+ * ever waits for the other, the writer never overwrites what the reader is looking at, and the
+ * reader skips values it was too slow to see.
+ * </p>
+ *
+ * @param <T> the type of the values, reused from slot to slot rather than reallocated
+ */
+public class TripleBuffer<T> {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4; // Set on the middle slot when the writer has published into it
+
+    private final Object[] slots = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0; // Owned by the writer
+    private int front = 2; // Owned by the reader
+
+    /**
+     * Creates a buffer with three values from a factory.
+     *
+     * @param factory creates the value of each slot
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = factory.get();
+        }
+    }
+
+    /**
+     * Retrieves the slot the writer fills next. Only the writer thread may call this.
+     *
+     * @return the writer's value
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) slots[back];
+    }
+
+    /**
+     * Makes the writer's value the newest one and gives the writer another slot.
+     * Only the writer thread may call this.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Retrieves the newest published value. Only the reader thread may call this.
+     * The value stays unchanged until the reader calls this method again.
+     *
+     * @return the newest value, or the reader's previous one if nothing new has been published
+     */
+    @SuppressWarnings("unchecked")
+    public T getFront() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return (T) slots[front];
+    }
+}
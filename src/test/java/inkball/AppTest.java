@@ -44,6 +44,8 @@ public class AppTest {
         app.mouseY = App.TOPBAR + 10;
         app.mouseButton = PConstants.LEFT;
         app.mousePressed();
+        assertTrue(app.getLines().isEmpty(), "Input should wait for the next tick.");
+        app.tick();
         assertFalse(app.getLines().isEmpty(), "A line should be added when the left mouse button is pressed below the top bar.");
     }
 
@@ -134,8 +136,10 @@ public class AppTest {
         app.mouseY = App.TOPBAR + 10;
         app.mouseButton = PConstants.LEFT;
         app.mousePressed();
+        app.tick();
         int initialPoints = app.getLines().get(0).getPoints().size();
         app.mouseDragged();
+        app.tick();
         assertTrue(app.getLines().get(0).getPoints().size() > initialPoints, "New points should be added to the line when mouse is dragged.");
     }
 
@@ -156,6 +160,7 @@ public class AppTest {
         app.mouseY = App.TOPBAR + 10;
         app.mouseButton = PConstants.LEFT;
         app.mousePressed();
+        app.tick();
         app.finishDrawing();
         assertFalse(app.getLines().isEmpty(), "A line should be added to the list when finishDrawing() is called.");
     }
@@ -176,14 +181,24 @@ public class AppTest {
     }
 
     @Test
-    public void testHitAnimation() {
-        assertDoesNotThrow(() -> app.HitAnimation(), "HitAnimation() should not throw an exception.");
+    public void testWallContactOncePerTick() {
+        Ball ball = new Ball(100, 100, 0, app);
+        app.getGrid().setWall(8, 8, 0);
+        assertEquals(TileGrid.HIT_DAMAGED, app.wallContact(8, 8, ball), "First contact should damage the wall.");
+        app.getGrid().endCooldown(8, 8);
+        assertEquals(TileGrid.HIT_IGNORED, app.wallContact(8, 8, ball), "Second contact in a tick should be dropped.");
+        assertEquals(1, app.getGrid().getDamage(8, 8), "Wall should be damaged once per tick.");
+        app.tick();
+        app.getGrid().endCooldown(8, 8);
+        assertEquals(TileGrid.HIT_DAMAGED, app.wallContact(8, 8, ball), "Contact in the next tick should damage the wall.");
+        assertEquals(2, app.getGrid().getDamage(8, 8), "Wall should take damage again in the next tick.");
     }
 
     @Test
     public void testKeyPressed() {
         app.key = 'r';
         app.keyPressed();
+        app.tick();
         assertEquals(0, app.getScore(), "Score should reset if 'r' is pressed to restart.");
     }
 
@@ -274,9 +289,11 @@ public class AppTest {
     @Test
     public void testBallCatched() {
         Ball ball = new Ball(0, 0, 0, app);
-        int initialCount = app.getBallsToRemove().size();
+        int handle = app.getBalls().add(ball);
+        int initialCount = app.getBalls().size();
         app.ballCatched(ball);
-        assertEquals(initialCount + 1, app.getBallsToRemove().size(), "Captured ball count should increase.");
+        assertEquals(initialCount - 1, app.getBalls().size(), "Captured ball should leave the board at once.");
+        assertNull(app.getBalls().resolve(handle), "The captured ball's handle should no longer resolve.");
     }
 
     @Test
@@ -339,11 +356,6 @@ public class AppTest {
         assertEquals(app.getTotalEdgeTiles() / 2, app.getYellowTile2(), "Initial yellow tile index 2 should be half the total edge tiles.");
     }
 
-    @Test
-    public void testGetBallsToRemove() {
-        assertNotNull(app.getBallsToRemove(), "Balls to remove list should not be null.");
-    }
-
     @Test
     public void testMain() {
         assertDoesNotThrow(() -> App.main(new String[]{}), "Main method should not throw an exception.");
@@ -358,4 +370,20 @@ public class AppTest {
     public void testLevelCompleteAnimation() {
         assertDoesNotThrow(() -> app.levelCompleteAnimation(), "levelCompleteAnimation() should execute without errors.");
     }
+
+    @Test
+    public void testSameSeedSameGame() {
+        App first = App.createHeadless("config.json", 1234L, 0);
+        App second = App.createHeadless("config.json", 1234L, 0);
+        for (int i = 0; i < 600; i++) {
+            first.tick();
+            second.tick();
+        }
+        assertEquals(1234L, first.getSeed(), "Session should expose its seed.");
+        assertEquals(first.getBalls().size(), second.getBalls().size(), "Same seed should spawn the same balls.");
+        for (int i = 0; i < first.getBalls().size(); i++) {
+            assertEquals(first.getBalls().get(i).getPosition(), second.getBalls().get(i).getPosition(),
+                    "Same seed should move balls identically.");
+        }
+    }
 }
@@ -0,0 +1,77 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import processing.core.PImage;
+
+public class BallListTest {
+
+    // A game that never opens a window, with blank ball images
+    private final App app = new App() {
+        @Override
+        public PImage getBallColourIndex(int colour) {
+            return new PImage(24, 24);
+        }
+    };
+
+    private Ball ball() {
+        return new Ball(0, 0, 0, app);
+    }
+
+    @Test
+    public void testSwapAndPop() {
+        BallList list = new BallList();
+        Ball a = ball(), b = ball(), c = ball();
+        list.add(a);
+        list.add(b);
+        list.add(c);
+        assertTrue(list.remove(a), "A ball on the board should be removed.");
+        assertEquals(2, list.size(), "One ball should be gone.");
+        assertSame(c, list.get(0), "The last ball should move into the gap.");
+        assertSame(b, list.get(1), "Other balls should stay in place.");
+        assertFalse(list.remove(a), "A removed ball should not be removed twice.");
+        assertFalse(list.contains(a), "A removed ball should not be on the board.");
+        assertTrue(list.contains(c), "The moved ball should still be found.");
+        assertTrue(list.remove(c), "The moved ball should still be removable.");
+        assertSame(b, list.get(0), "The remaining ball should fill the list.");
+    }
+
+    @Test
+    public void testStaleHandles() {
+        BallList list = new BallList();
+        Ball ball = ball();
+        int first = list.add(ball);
+        assertSame(ball, list.resolve(first), "A fresh handle should resolve.");
+        list.remove(ball);
+        assertNull(list.resolve(first), "A handle should not resolve after its ball is removed.");
+
+        // The same ball object put back on the board, as the pool does
+        int second = list.add(ball);
+        assertNotEquals(first, second, "A reused ball should get a new handle.");
+        assertNull(list.resolve(first), "The old handle should stay stale.");
+        assertSame(ball, list.resolve(second), "The new handle should resolve.");
+
+        list.clear();
+        assertNull(list.resolve(second), "Clearing should invalidate every handle.");
+        assertNull(list.resolve(BallList.NO_HANDLE), "The empty handle should never resolve.");
+        assertTrue(list.isEmpty(), "The list should be empty after clearing.");
+    }
+
+    @Test
+    public void testGrowsAndRejectsDuplicates() {
+        BallList list = new BallList();
+        Ball[] balls = new Ball[40];
+        for (int i = 0; i < balls.length; i++) {
+            balls[i] = ball();
+            list.add(balls[i]);
+        }
+        assertEquals(40, list.size(), "The list should grow past its first capacity.");
+        int count = 0;
+        for (Ball ball : list) {
+            assertSame(balls[count++], ball, "Iteration should follow the dense order.");
+        }
+        assertEquals(40, count, "Iteration should visit every ball.");
+        assertThrows(IllegalArgumentException.class, () -> list.add(balls[3]), "A ball should not be added twice.");
+    }
+}
@@ -0,0 +1,104 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BatchScorerTest {
+
+    @Test
+    public void testCsvQuoting() {
+        assertEquals("level1.txt", BatchScorer.csv("level1.txt"), "Plain fields should not be quoted.");
+        assertEquals("\"a,b\"", BatchScorer.csv("a,b"), "Fields with commas should be quoted.");
+        assertEquals("\"say \"\"hi\"\"\"", BatchScorer.csv("say \"hi\""), "Quotes should be doubled.");
+    }
+
+    @Test
+    public void testListLayouts(@TempDir Path dir) throws IOException {
+        Files.createFile(dir.resolve("b.txt"));
+        Files.createFile(dir.resolve("a.txt"));
+        Files.createFile(dir.resolve("notes.md"));
+        List<File> layouts = BatchScorer.listLayouts(dir.toFile());
+        assertEquals(2, layouts.size(), "Only layout files should be listed.");
+        assertEquals("a.txt", layouts.get(0).getName(), "Layouts should be in name order.");
+        assertThrows(IOException.class, () -> BatchScorer.listLayouts(dir.resolve("a.txt").toFile()),
+                "A file is not a layouts directory.");
+    }
+
+    @Test
+    public void testListReplays(@TempDir Path dir) throws IOException {
+        Path replays = Files.createDirectory(dir.resolve("replays"));
+        Files.createFile(replays.resolve("2.bin"));
+        Files.createFile(replays.resolve("1.bin"));
+        Path single = Files.createFile(dir.resolve("single.bin"));
+        List<File> files = BatchScorer.listReplays(Arrays.asList(single.toString(), replays.toString()));
+        assertEquals(3, files.size(), "Directories should be expanded.");
+        assertEquals("single.bin", files.get(0).getName(), "Arguments should keep their order.");
+        assertEquals("1.bin", files.get(1).getName(), "Directory contents should be in name order.");
+    }
+
+    @Test
+    public void testScoresReplayOnEveryLayout(@TempDir Path dir) throws IOException {
+        App recorded = App.createHeadless("config.json", 99L, 0);
+        recorded.startRecording(null);
+        while (recorded.getTickCount() < 600) {
+            ReplayTest.scriptInput(recorded);
+            recorded.tick();
+        }
+        Path replayFile = dir.resolve("run.bin");
+        Files.write(replayFile, recorded.stopRecording());
+        recorded.stopPrefetching();
+
+        List<File> layouts = Arrays.asList(new File("level0.txt"), new File("level1.txt"));
+        List<File> replayFiles = Collections.singletonList(replayFile.toFile());
+        List<Replay> replays = Collections.singletonList(Replay.read(replayFile.toString()));
+
+        List<String> parallel = score(layouts, replayFiles, replays, 4);
+        assertEquals(BatchScorer.HEADER, parallel.get(0), "The header should come first.");
+        assertEquals(3, parallel.size(), "There should be a row for each layout.");
+        for (String row : parallel.subList(1, parallel.size())) {
+            String[] fields = row.split(",", -1);
+            assertEquals(replayFile.toString(), fields[1], "Rows should name the replay.");
+            assertEquals("99", fields[2], "Rows should carry the replay's seed.");
+            assertEquals("600", fields[4], "The replay should be played to its last tick.");
+            assertEquals("", fields[11], "No run should fail.");
+            if (fields[0].equals("level0.txt")) {
+                assertEquals(String.valueOf(recorded.getScore()), fields[5],
+                        "The layout the replay was recorded on should reproduce its score.");
+            }
+        }
+
+        assertEquals(parallel, score(layouts, replayFiles, replays, 1),
+                "A sequential run should give the same rows.");
+    }
+
+    /**
+     * Runs a batch and returns its header and rows, without the timing column and with the rows sorted,
+     * as runs finish in any order.
+     */
+    private static List<String> score(List<File> layouts, List<File> replayFiles, List<Replay> replays, int threads) {
+        StringWriter text = new StringWriter();
+        BatchScorer batch = new BatchScorer("config.json", layouts, replayFiles, replays, new PrintWriter(text));
+        batch.run(threads);
+        assertEquals(0, batch.getFailures(), "Every run should succeed.");
+        List<String> lines = new ArrayList<>(Arrays.asList(text.toString().split("\\R")));
+        List<String> rows = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            rows.add(line.replaceAll(",[0-9]+,([^,]*)$", ",,$1"));
+        }
+        Collections.sort(rows);
+        rows.add(0, lines.get(0));
+        return rows;
+    }
+}
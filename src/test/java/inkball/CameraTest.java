@@ -0,0 +1,51 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CameraTest {
+    private Camera camera;
+
+    @BeforeEach
+    public void setUp() {
+        camera = new Camera(576, 576);
+        camera.reset(32 * 100, 32 * 100);
+    }
+
+    @Test
+    public void testDefaultViewMatchesScreen() {
+        assertEquals(100, camera.toBoardX(100), 0.001, "Unmoved camera should not change x.");
+        assertEquals(300, camera.toBoardY(300), 0.001, "Unmoved camera should not change y.");
+        assertEquals(App.TOPBAR, camera.getTop(), 0.001, "View should start below the top bar.");
+    }
+
+    @Test
+    public void testPan() {
+        camera.pan(64, 32);
+        assertEquals(164, camera.toBoardX(100), 0.001, "Panning should shift mouse x.");
+        assertEquals(332, camera.toBoardY(300), 0.001, "Panning should shift mouse y.");
+        assertTrue(camera.isVisible(600, 100, 610, 110), "Board revealed by panning should be visible.");
+        assertFalse(camera.isVisible(0, 100, 10, 110), "Board left behind should be culled.");
+    }
+
+    @Test
+    public void testPanStaysOnBoard() {
+        camera.pan(-100, -100);
+        assertEquals(0, camera.getLeft(), 0.001, "View should not move left of the board.");
+        camera.pan(1_000_000, 0);
+        assertEquals(32 * 100, camera.getRight(), 0.001, "View should not move right of the board.");
+    }
+
+    @Test
+    public void testZoomKeepsCentre() {
+        camera.pan(640, 640);
+        float centreX = (camera.getLeft() + camera.getRight()) / 2;
+        camera.zoomBy(2);
+        assertEquals(2, camera.getZoom(), 0.001, "Zoom should be applied.");
+        assertEquals(centreX, (camera.getLeft() + camera.getRight()) / 2, 0.001, "Zoom should keep the centre.");
+        assertEquals(288, camera.getRight() - camera.getLeft(), 0.001, "Zooming in should show less of the board.");
+        camera.zoomBy(100);
+        assertEquals(Camera.MAX_ZOOM, camera.getZoom(), 0.001, "Zoom should be limited.");
+    }
+}
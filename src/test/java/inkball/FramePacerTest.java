@@ -0,0 +1,42 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class FramePacerTest {
+
+    @Test
+    public void testPacesToDeadlines() {
+        Metrics metrics = new Metrics();
+        FramePacer pacer = new FramePacer(100, 0, metrics.frameJitter);
+        long begin = System.nanoTime();
+        pacer.await(); // Sets the first deadline to now
+        long last = 0;
+        for (int i = 0; i < 10; i++) {
+            last = pacer.await();
+        }
+        assertTrue(last - begin >= 10 * pacer.getPeriod(), "Frames should not start before their deadlines.");
+        assertEquals(10, metrics.frameJitter.getCount(), "Every interval should be measured.");
+    }
+
+    @Test
+    public void testStartsAgainWhenBehind() throws InterruptedException {
+        Metrics metrics = new Metrics();
+        FramePacer pacer = new FramePacer(100, 0, metrics.frameJitter);
+        pacer.await();
+        Thread.sleep(50); // Five periods late
+        long late = pacer.await();
+        long next = pacer.await();
+        assertTrue(next - late > pacer.getPeriod() / 2, "A late loop should not rush through the missed frames.");
+    }
+
+    @Test
+    public void testMark() {
+        Metrics metrics = new Metrics();
+        FramePacer pacer = new FramePacer(10, 0, metrics.frameJitter);
+        pacer.mark(1_000_000_000L);
+        pacer.mark(1_130_000_000L);
+        assertEquals(1, metrics.frameJitter.getCount(), "The first mark only starts the measurement.");
+        assertEquals(30_000_000, metrics.frameJitter.getSum(), "Jitter should be how far the interval strayed from the period.");
+    }
+}
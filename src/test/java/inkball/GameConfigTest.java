@@ -0,0 +1,75 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import processing.data.JSONObject;
+
+public class GameConfigTest {
+    private static final String LEVEL =
+            "{\"layout\": \"level1.txt\", \"time\": 120, \"spawn_interval\": 10,"
+            + " \"score_increase_from_hole_capture_modifier\": 1.5, \"balls\": [\"blue\", \"Grey\"]}";
+
+    private static GameConfig parse(String level, String scores) {
+        return GameConfig.parse(JSONObject.parse("{\"levels\": [" + level + "]" + scores + "}"));
+    }
+
+    @Test
+    public void testParseLevel() {
+        GameConfig config = parse(LEVEL, "");
+        LevelConfig level = config.getLevel(0);
+        assertEquals(1, config.getLevelCount(), "One level should be parsed.");
+        assertEquals("level1.txt", level.getLayout(), "Layout should be parsed.");
+        assertEquals(120, level.getTime(), "Time should be parsed.");
+        assertEquals(10, level.getSpawnInterval(), "Spawn interval should be parsed.");
+        assertEquals(1.5f, level.getIncreaseModifier(), "Increase modifier should be parsed.");
+        assertEquals(1.0f, level.getDecreaseModifier(), "Missing decrease modifier should default to 1.0.");
+        assertEquals(Colour.BLUE, level.getBall(0), "Ball colours should be parsed.");
+        assertEquals(Colour.GREY, level.getBall(1), "Ball colours should be case-insensitive.");
+    }
+
+    @Test
+    public void testScoreTables() {
+        GameConfig config = parse(LEVEL, ", \"score_increase_from_hole_capture\": {\"blue\": 50},"
+                + " \"score_decrease_from_wrong_hole\": {\"yellow\": 100}");
+        assertEquals(50, config.getScoreWon(Colour.BLUE), "Configured score should be used.");
+        assertEquals(GameConfig.DEFAULT_SCORE_WON, config.getScoreWon(Colour.GREEN), "Missing score should default.");
+        assertEquals(100, config.getScoreLost(Colour.YELLOW), "Configured penalty should be used.");
+        assertEquals(GameConfig.DEFAULT_SCORE_LOST, config.getScoreLost(Colour.ORANGE), "Missing penalty should default.");
+    }
+
+    @Test
+    public void testHoleAttraction() {
+        assertEquals(0, parse(LEVEL, "").getAttractionRadius(), "Magnetism should be off by default.");
+        GameConfig config = parse(LEVEL, ", \"hole_attraction\": {\"radius\": 64, \"strength\": 0.2}");
+        assertEquals(64, config.getAttractionRadius(), "Radius should be parsed.");
+        assertEquals(0.2f, config.getAttractionStrength(), "Strength should be parsed.");
+        assertThrows(IllegalArgumentException.class,
+                () -> parse(LEVEL, ", \"hole_attraction\": {\"radius\": -1, \"strength\": 0.2}"),
+                "Negative radius should be rejected.");
+    }
+
+    @Test
+    public void testUnknownBallColour() {
+        String level = LEVEL.replace("\"blue\"", "\"purple\"");
+        assertThrows(IllegalArgumentException.class, () -> parse(level, ""), "Unknown colours should be rejected.");
+    }
+
+    @Test
+    public void testMissingTime() {
+        String level = LEVEL.replace("\"time\": 120,", "");
+        assertThrows(IllegalArgumentException.class, () -> parse(level, ""), "Levels without time should be rejected.");
+    }
+
+    @Test
+    public void testNoLevels() {
+        assertThrows(IllegalArgumentException.class, () -> GameConfig.parse(JSONObject.parse("{\"levels\": []}")),
+                "Configs without levels should be rejected.");
+    }
+
+    @Test
+    public void testColourLookup() {
+        assertEquals(Colour.ORANGE, Colour.lookup("orange"), "Names should map to colours.");
+        assertNull(Colour.lookup("purple"), "Unknown names should map to null.");
+        assertEquals(Colour.GREY, Colour.fromIndex(9), "Out of range indices should default to grey.");
+    }
+}
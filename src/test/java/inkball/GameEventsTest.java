@@ -0,0 +1,79 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class GameEventsTest {
+
+    private static List<RecordedEvent> readEvents(Recording recording, String name) throws IOException {
+        Path file = Files.createTempFile("inkball", ".jfr");
+        try {
+            recording.dump(file);
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals(name)) {
+                    events.add(event);
+                }
+            }
+            return events;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testDisabledWithoutRecording() {
+        assertFalse(new GameEvents.Capture().shouldCommit(), "Events should be off while nothing is recording.");
+    }
+
+    @Test
+    public void testCaptureRecorded() throws IOException {
+        try (Recording recording = new Recording()) {
+            recording.enable("inkball.Capture");
+            recording.start();
+            GameEvents.Capture event = new GameEvents.Capture();
+            assertTrue(event.shouldCommit(), "Events should be on while recording.");
+            event.ballColour = 2;
+            event.holeColour = 3;
+            event.matching = false;
+            event.commit();
+            recording.stop();
+
+            List<RecordedEvent> events = readEvents(recording, "inkball.Capture");
+            assertEquals(1, events.size(), "The capture should be recorded once.");
+            assertEquals(2, events.get(0).getInt("ballColour"), "The ball colour should be recorded.");
+            assertEquals(3, events.get(0).getInt("holeColour"), "The hole colour should be recorded.");
+            assertFalse(events.get(0).getBoolean("matching"), "The mismatch should be recorded.");
+        }
+    }
+
+    @Test
+    public void testTickPhasesChain() throws IOException {
+        try (Recording recording = new Recording()) {
+            recording.enable("inkball.TickPhase");
+            recording.start();
+            GameEvents.TickPhase phase = GameEvents.TickPhase.start("first", 7);
+            phase = phase.next("second", 1);
+            phase.finish(2);
+            recording.stop();
+
+            List<RecordedEvent> events = readEvents(recording, "inkball.TickPhase");
+            assertEquals(2, events.size(), "Each phase should be recorded.");
+            events.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+            assertEquals("first", events.get(0).getString("phase"), "Phases should be recorded in order.");
+            assertEquals("second", events.get(1).getString("phase"), "Phases should be recorded in order.");
+            assertEquals(7, events.get(1).getInt("tick"), "Later phases should keep the tick.");
+            assertEquals(2, events.get(1).getInt("balls"), "The ball count should be taken at the end of the phase.");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import processing.core.PApplet;
+import processing.core.PVector;
+
+import java.io.File;
+import java.io.IOException;
+
+public class GameSnapshotTest {
+    static App app;
+
+    @BeforeAll
+    public static void setupClass() {
+        app = new App();
+        PApplet.runSketch(new String[] {"App"}, app);
+        app.noLoop(); // Prevents the sketch from looping for testing purposes
+    }
+
+    @BeforeEach
+    public void setup() {
+        app.setup();
+        app.loadLevel(0);
+    }
+
+    @Test
+    public void testRestoreRoundTrip() {
+        Line line = new Line();
+        line.addPoint(new PVector(100, 200));
+        line.addPoint(new PVector(150, 250));
+        app.getLines().add(line);
+        app.score = 42;
+
+        GameSnapshot snapshot = new GameSnapshot();
+        snapshot.capture(app);
+        app.getLines().clear();
+        app.score = 0;
+        snapshot.restore(app);
+
+        assertEquals(42, app.getScore(), "Score should be restored.");
+        assertEquals(1, app.getLines().size(), "Lines should be restored.");
+        assertEquals(2, app.getLines().get(0).getPoints().size(), "Line points should be restored.");
+
+        GameSnapshot again = new GameSnapshot();
+        again.capture(app);
+        assertArrayEquals(snapshot.toByteArray(), again.toByteArray(), "Restored state should capture identically.");
+    }
+
+    @Test
+    public void testRestartRestoresLevelStart() {
+        int queued = app.getBallsToSpawn().size();
+        app.getBallsToSpawn().pop();
+        app.restart();
+        assertEquals(queued, app.getBallsToSpawn().size(), "Restart should restore the spawn queue.");
+        assertEquals(0, app.getCurrentLevelIndex(), "Restart should stay on the current level.");
+
+        App game = App.createHeadless("config.json", 11L, 0);
+        try {
+            for (int i = 0; i < 60; i++) {
+                game.tick();
+            }
+            game.restart();
+            int inPlay = game.getBalls().size();
+            for (int i = 0; i <= 10 * App.FPS; i++) { // Past the level's spawn interval
+                game.tick();
+            }
+            assertEquals(inPlay + 1, game.getBalls().size(), "A ball should spawn again after a restart.");
+        } finally {
+            game.stopPrefetching();
+        }
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        File file = File.createTempFile("inkball", ".bin");
+        file.deleteOnExit();
+        GameSnapshot snapshot = new GameSnapshot();
+        snapshot.capture(app);
+        snapshot.save(file.getPath());
+
+        GameSnapshot loaded = GameSnapshot.load(file.getPath());
+        assertEquals(snapshot.getLevelIndex(), loaded.getLevelIndex(), "Level index should be saved.");
+        assertArrayEquals(snapshot.toByteArray(), loaded.toByteArray(), "Saved state should load unchanged.");
+    }
+
+    @Test
+    public void testRestoreEmpty() {
+        assertThrows(IllegalStateException.class, () -> new GameSnapshot().restore(app),
+                "Restoring before capturing should fail.");
+    }
+
+    @Test
+    public void testRestoredGameContinuesExactly() {
+        App game = App.createHeadless("config.json", 77L, 0);
+        App other = App.createHeadless("config.json", 5L, 1);
+        try {
+            for (int i = 0; i < 300; i++) {
+                game.tick();
+            }
+            game.isDrawing = true;
+            GameSnapshot saved = new GameSnapshot();
+            saved.capture(game);
+            game.isDrawing = false;
+
+            GameSnapshot first = runAndCapture(game, 600);
+            saved.restore(game);
+            assertTrue(game.isDrawing, "The drawing flag should be restored.");
+            game.isDrawing = false;
+            assertArrayEquals(first.toByteArray(), runAndCapture(game, 600).toByteArray(),
+                    "A restored game should draw the same random numbers and end in the same state.");
+
+            saved.restore(other);
+            other.isDrawing = false;
+            assertEquals(0, other.getCurrentLevelIndex(), "Loading should switch to the saved level.");
+            assertArrayEquals(first.toByteArray(), runAndCapture(other, 600).toByteArray(),
+                    "A game loaded into another session should continue as the saved one would have.");
+        } finally {
+            game.stopPrefetching();
+            other.stopPrefetching();
+        }
+    }
+
+    private static GameSnapshot runAndCapture(App game, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            game.tick();
+        }
+        GameSnapshot snapshot = new GameSnapshot();
+        snapshot.capture(game);
+        return snapshot;
+    }
+}
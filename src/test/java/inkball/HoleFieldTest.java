@@ -0,0 +1,44 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class HoleFieldTest {
+
+    private static Hole holeAt(int x, int y) {
+        return PreparedLevel.createHole(x, y, 0);
+    }
+
+    @Test
+    public void testDisabled() {
+        assertNull(HoleField.build(Collections.singletonList(holeAt(4, 4)), 576, 576, 0, 1),
+                "A zero radius should turn magnetism off.");
+        assertNull(HoleField.build(Collections.singletonList(holeAt(4, 4)), 576, 576, 64, 0),
+                "A zero strength should turn magnetism off.");
+    }
+
+    @Test
+    public void testPullsTowardsHole() {
+        // Hole covering tiles (4,4) to (5,5), centred at (160, 160 + TOPBAR)
+        HoleField field = HoleField.build(Collections.singletonList(holeAt(4, 4)), 576, 576, 64, 1);
+        float y = 160 + App.TOPBAR;
+        assertTrue(field.getPullX(120, y) > 0, "Balls left of the hole should be pulled right.");
+        assertTrue(field.getPullX(200, y) < 0, "Balls right of the hole should be pulled left.");
+        assertTrue(field.getPullY(160, y - 40) > 0, "Balls above the hole should be pulled down.");
+        assertTrue(Math.abs(field.getPullX(140, y)) > Math.abs(field.getPullX(110, y)),
+                "The pull should be stronger nearer the centre.");
+        assertEquals(0, field.getPullX(20, y), "Balls outside the radius should not be pulled.");
+        assertEquals(0, field.getPullX(-5, y), "Positions off the board should not be pulled.");
+    }
+
+    @Test
+    public void testPullsAdd() {
+        HoleField one = HoleField.build(Collections.singletonList(holeAt(4, 4)), 576, 576, 96, 1);
+        HoleField two = HoleField.build(Arrays.asList(holeAt(4, 4), holeAt(4, 4)), 576, 576, 96, 1);
+        float y = 160 + App.TOPBAR;
+        assertEquals(2 * one.getPullX(100, y), two.getPullX(100, y), 1e-6, "Overlapping pulls should add up.");
+    }
+}
@@ -0,0 +1,74 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InputQueueTest {
+
+    @Test
+    public void testDrainsInOrder() {
+        InputQueue queue = new InputQueue(4);
+        long before = System.nanoTime();
+        assertTrue(queue.offer(Replay.MOUSE_PRESS, 10, 20, 37, true), "An empty queue should take an event.");
+        assertTrue(queue.offer(Replay.KEY_PRESS, 'r', 82, 0, false), "The queue should take a second event.");
+        assertEquals(2, queue.size(), "Both events should be waiting.");
+
+        List<String> seen = new ArrayList<>();
+        int drained = queue.drain((type, first, second, button, control, stamp) -> {
+            assertTrue(stamp >= before, "Events should be stamped when they arrive.");
+            seen.add(type + ":" + first + ":" + second + ":" + button + ":" + control);
+        });
+        assertEquals(2, drained, "Drain should report the events it handed over.");
+        assertEquals(List.of("1:10:20:37:true", "4:114:82:0:false"), seen, "Events should come out oldest first.");
+        assertEquals(0, queue.size(), "Drained events should leave the queue.");
+    }
+
+    @Test
+    public void testDropsWhenFull() {
+        InputQueue queue = new InputQueue(3);
+        assertEquals(4, queue.getCapacity(), "Capacity should round up to a power of two.");
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(Replay.MOUSE_DRAG, i, i, 37, false), "The queue should fill to its capacity.");
+        }
+        assertFalse(queue.offer(Replay.MOUSE_DRAG, 9, 9, 37, false), "A full queue should drop the event.");
+        assertEquals(1, queue.getDropped(), "The dropped event should be counted.");
+
+        List<Integer> seen = new ArrayList<>();
+        queue.drain((type, first, second, button, control, stamp) -> seen.add(first));
+        assertEquals(List.of(0, 1, 2, 3), seen, "The events before the drop should be kept.");
+        assertTrue(queue.offer(Replay.MOUSE_DRAG, 4, 4, 37, false), "Draining should free the slots again.");
+    }
+
+    @Test
+    public void testOneProducerOneConsumer() throws InterruptedException {
+        InputQueue queue = new InputQueue(64);
+        int count = 20_000;
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count && System.nanoTime() < deadline; i++) {
+                while (!queue.offer(Replay.MOUSE_DRAG, i, -i, 37, false) && System.nanoTime() < deadline) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.setDaemon(true);
+        producer.start();
+
+        int[] next = {0};
+        while (next[0] < count && System.nanoTime() < deadline) {
+            int drained = queue.drain((type, first, second, button, control, stamp) -> {
+                assertEquals(next[0], first, "Events should arrive in order and intact.");
+                assertEquals(-next[0], second, "Each event's fields should belong together.");
+                next[0]++;
+            });
+            if (drained == 0) {
+                Thread.yield();
+            }
+        }
+        producer.join();
+        assertEquals(count, next[0], "Every event should get through.");
+    }
+}
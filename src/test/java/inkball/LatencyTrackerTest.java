@@ -0,0 +1,39 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class LatencyTrackerTest {
+
+    @Test
+    public void testAppliedThenPresented() {
+        Metrics metrics = new Metrics();
+        LatencyTracker tracker = new LatencyTracker(metrics);
+        long stamp = System.nanoTime() - 1_000_000;
+        tracker.applied(Replay.MOUSE_DRAG, stamp, 10);
+        assertEquals(1, tracker.getApplied(Replay.MOUSE_DRAG).getCount(), "Applying should be measured straight away.");
+        assertTrue(tracker.getApplied(Replay.MOUSE_DRAG).getSum() >= 1_000_000, "The wait should be measured from the stamp.");
+
+        tracker.presented(10, stamp + 5_000_000);
+        assertEquals(0, tracker.getPresented(Replay.MOUSE_DRAG).getCount(), "A frame from before the tick cannot show the event.");
+
+        tracker.presented(11, stamp + 20_000_000);
+        assertEquals(1, tracker.getPresented(Replay.MOUSE_DRAG).getCount(), "The first later frame should show the event.");
+        assertEquals(20_000_000, tracker.getPresented(Replay.MOUSE_DRAG).getSum(), "The frame time should be measured from the stamp.");
+
+        tracker.presented(12, stamp + 40_000_000);
+        assertEquals(1, tracker.getPresented(Replay.MOUSE_DRAG).getCount(), "An event is only shown for the first time once.");
+        assertEquals(0, tracker.getPresented(Replay.KEY_PRESS).getCount(), "Other event types should be kept apart.");
+    }
+
+    @Test
+    public void testExported() {
+        Metrics metrics = new Metrics();
+        LatencyTracker tracker = new LatencyTracker(metrics);
+        tracker.applied(Replay.KEY_RELEASE, System.nanoTime(), 0);
+        tracker.presented(1, System.nanoTime());
+        String text = metrics.toPrometheusText();
+        assertTrue(text.contains("inkball_input_key_release_to_tick_nanoseconds_count 1\n"), "Tick latency should be exported.");
+        assertTrue(text.contains("inkball_input_key_release_to_frame_nanoseconds_count 1\n"), "Frame latency should be exported.");
+    }
+}
@@ -0,0 +1,89 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class LevelAnalyserTest {
+
+    // A 10x5 board with an orange hole at the right, a spawner at the left and a wall across the middle
+    private static TileGrid walledBoard() {
+        TileGrid grid = new TileGrid(10, 5);
+        grid.set(8, 2, TileGrid.HOLE, 1);
+        grid.set(9, 2, TileGrid.HOLE_PART, 1);
+        grid.set(8, 3, TileGrid.HOLE_PART, 1);
+        grid.set(9, 3, TileGrid.HOLE_PART, 1);
+        grid.set(0, 2, TileGrid.SPAWNER, 0);
+        for (int y = 0; y < 5; y++) {
+            grid.setWall(5, y, y == 2 ? 2 : 0);
+        }
+        return grid;
+    }
+
+    @Test
+    public void testDistances() {
+        TileGrid grid = new TileGrid(10, 5);
+        grid.set(8, 2, TileGrid.HOLE, 1);
+        LevelAnalyser analyser = LevelAnalyser.analyse(grid);
+        assertEquals(0, analyser.getDistance(1, 8, 2), "Hole tiles should be at distance 0.");
+        assertEquals(8, analyser.getDistance(1, 0, 2), "Distance should count steps between tiles.");
+        assertEquals(8, analyser.getDistance(0, 0, 2), "Grey balls should go into any hole.");
+        assertEquals(LevelAnalyser.UNREACHABLE, analyser.getDistance(2, 0, 2), "Other colours have no hole.");
+        assertEquals(LevelAnalyser.UNREACHABLE, analyser.getDistance(1, -1, 0), "Off-board positions are unreachable.");
+        assertEquals(1, analyser.getStepX(1, 0, 2), "Flow should point towards the hole.");
+        assertEquals(0, analyser.getStepY(1, 0, 2), "Flow should take a shortest step.");
+    }
+
+    @Test
+    public void testWallsBlock() {
+        LevelAnalyser analyser = LevelAnalyser.analyse(walledBoard());
+        assertFalse(analyser.isReachableFromSpawners(1), "A wall across the board should cut the spawner off.");
+        assertEquals(LevelAnalyser.UNREACHABLE, analyser.getDistance(1, 5, 2), "Coloured walls are obstacles.");
+        SpawnQueue queue = new SpawnQueue();
+        queue.add(Colour.ORANGE);
+        assertFalse(analyser.isCompletable(queue), "The level cannot be completed.");
+    }
+
+    @Test
+    public void testWallRemoved() {
+        TileGrid grid = walledBoard();
+        LevelAnalyser analyser = LevelAnalyser.analyse(grid);
+        analyser.wallRemoved(5, 2);
+        assertTrue(analyser.isReachableFromSpawners(1), "Destroying a wall should open a path.");
+        assertEquals(8, analyser.getDistance(1, 0, 2), "Distances should be lowered through the gap.");
+
+        LevelAnalyser fresh = LevelAnalyser.analyse(grid);
+        assertFalse(fresh.isReachableFromSpawners(1), "Updates should not leak into the cached analysis.");
+    }
+
+    @Test
+    public void testContentHash() {
+        assertEquals(LevelAnalyser.contentHash(walledBoard()), LevelAnalyser.contentHash(walledBoard()),
+                "Equal boards should hash the same.");
+        TileGrid changed = walledBoard();
+        changed.clear(5, 0);
+        assertNotEquals(LevelAnalyser.contentHash(walledBoard()), LevelAnalyser.contentHash(changed),
+                "Different boards should hash differently.");
+    }
+
+    @Test
+    public void testHashCollisionIsNotShared() {
+        TileGrid open = walledBoard();
+        open.clear(5, 2);
+        LevelAnalyser opened = LevelAnalyser.analyse(open);
+        assertTrue(opened.isReachableFromSpawners(1), "The gap should let orange balls through.");
+
+        // Pretend the walled board hashes like the open one
+        TileGrid walled = walledBoard();
+        int[][] openDistances = new int[Colour.count()][];
+        for (int colour = 0; colour < openDistances.length; colour++) {
+            openDistances[colour] = new int[50];
+            for (int i = 0; i < 50; i++) {
+                openDistances[colour][i] = opened.getDistance(colour, i % 10, i / 10);
+            }
+        }
+        LevelAnalyser.CACHE.put(LevelAnalyser.contentHash(walled),
+                new LevelAnalyser.Search(10, 5, LevelAnalyser.tiles(open), openDistances));
+        assertFalse(LevelAnalyser.analyse(walled).isReachableFromSpawners(1),
+                "A cached search for other tiles should not be used.");
+    }
+}
@@ -0,0 +1,29 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LineListTest {
+
+    @Test
+    public void testIndexFollowsList() {
+        LineList lines = new LineList(App.WIDTH, App.HEIGHT);
+        Line line = new Line();
+        line.addPoint(100, App.TOPBAR + 100);
+        line.addPoint(200, App.TOPBAR + 100);
+        lines.add(line);
+        assertEquals(1, lines.getIndex().getLineCount(), "Added lines should be indexed.");
+
+        lines.removeIf(l -> l == line);
+        assertEquals(0, lines.getIndex().getLineCount(), "Lines removed by any route should leave the index.");
+
+        lines.add(line);
+        lines.clear();
+        List<Line> found = new ArrayList<>();
+        lines.getIndex().linesWithin(150, App.TOPBAR + 100, 4, found);
+        assertTrue(found.isEmpty(), "Clearing the list should clear the index.");
+    }
+}
@@ -154,5 +154,34 @@ public class LineTest {
         line.removeLastPoint();
         assertTrue(line.getPoints().isEmpty(), "The points should be empty after removing all points.");
     }
-}
 
+    @Test
+    public void testIntersects() {
+        line.addPoint(new PVector(50, App.TOPBAR + 50));
+        line.addPoint(new PVector(150, App.TOPBAR + 80));
+        assertTrue(line.intersects(100, App.TOPBAR, 200, App.TOPBAR + 100), "Overlapping area should intersect.");
+        assertFalse(line.intersects(300, App.TOPBAR, 400, App.TOPBAR + 100), "Area to the right should not intersect.");
+
+        line.removeLastPoint();
+        assertFalse(line.intersects(100, App.TOPBAR, 200, App.TOPBAR + 100), "Bounds should shrink when points are removed.");
+    }
+
+    @Test
+    public void testReset() {
+        line.addPoint(50, App.TOPBAR + 50);
+        line.addPoint(150, App.TOPBAR + 80);
+        PVector first = line.getPoints().get(0);
+        PVector second = line.getPoints().get(1);
+
+        line.reset(100, App.TOPBAR + 100);
+        assertTrue(line.getPoints().isEmpty(), "A reset line should have no points.");
+        assertFalse(line.intersects(0, App.TOPBAR, 576, App.TOPBAR + 576), "A reset line should have no bounds.");
+
+        line.addPoint(300, App.TOPBAR + 300);
+        assertEquals(1, line.getPoints().size(), "A reset line should take new points.");
+        PVector point = line.getPoints().get(0);
+        assertEquals(100, point.x, "Points should be clamped to the new board.");
+        assertEquals(App.TOPBAR + 100, point.y, "Points should be clamped to the new board.");
+        assertTrue(point == first || point == second, "Reset lines should reuse their point vectors.");
+    }
+}
@@ -0,0 +1,36 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+public class MetricsExporterTest {
+
+    @Test
+    public void testExports() throws Exception {
+        Metrics metrics = new Metrics();
+        metrics.spawns.add(7);
+        MetricsExporter exporter = MetricsExporter.start(metrics, 0);
+        try {
+            URL url = new URL("http://localhost:" + exporter.getPort() + "/metrics");
+            String body;
+            try (InputStream in = url.openStream()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertTrue(body.contains("inkball_spawns_total 7"), "The endpoint should serve the metrics.");
+
+            Object value = ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(new ObjectName(MetricsExporter.OBJECT_NAME), "inkball_spawns_total");
+            assertEquals(7L, value, "The MBean should expose the metrics.");
+        } finally {
+            exporter.stop();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(MetricsExporter.OBJECT_NAME)),
+                "Stopping should unregister the MBean.");
+    }
+}
@@ -0,0 +1,51 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class MetricsTest {
+
+    @Test
+    public void testCounterAndGauge() {
+        Metrics metrics = new Metrics();
+        metrics.spawns.increment();
+        metrics.spawns.add(2);
+        metrics.balls.set(4);
+        assertEquals(3, metrics.spawns.get(), "Counter should sum its increments.");
+        assertEquals(4, metrics.balls.get(), "Gauge should hold the latest value.");
+    }
+
+    @Test
+    public void testHistogram() {
+        Metrics metrics = new Metrics();
+        Metrics.Histogram histogram = metrics.histogram("test_sizes", "Sizes.", 1, 3); // Buckets 1, 2, 4, +Inf
+        histogram.observe(0);
+        histogram.observe(2);
+        histogram.observe(3);
+        histogram.observe(100);
+        assertEquals(4, histogram.getCount(), "Every observation should be counted.");
+        assertEquals(105, histogram.getSum(), "Observations should be summed.");
+        String text = metrics.toPrometheusText();
+        assertTrue(text.contains("test_sizes_bucket{le=\"1\"} 1\n"), "Buckets should hold values up to their bound.");
+        assertTrue(text.contains("test_sizes_bucket{le=\"4\"} 3\n"), "Buckets should be cumulative.");
+        assertTrue(text.contains("test_sizes_bucket{le=\"+Inf\"} 4\n"), "The last bucket should hold everything.");
+        assertEquals(2, histogram.quantile(0.5), "The median should fall in the second bucket.");
+        assertEquals(Long.MAX_VALUE, histogram.quantile(1), "The maximum should lie above the last bound.");
+    }
+
+    @Test
+    public void testPrometheusText() {
+        Metrics metrics = new Metrics();
+        metrics.captures.increment();
+        String text = metrics.toPrometheusText();
+        assertTrue(text.contains("# TYPE inkball_captures_total counter\n"), "Types should be declared.");
+        assertTrue(text.contains("\ninkball_captures_total 1\n"), "Values should follow their name.");
+    }
+
+    @Test
+    public void testDuplicateName() {
+        Metrics metrics = new Metrics();
+        assertThrows(IllegalArgumentException.class, () -> metrics.counter("inkball_ticks_total", "Again."),
+                "Names should be unique.");
+    }
+}
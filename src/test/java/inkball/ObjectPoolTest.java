@@ -0,0 +1,41 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class ObjectPoolTest {
+
+    @Test
+    public void testReuse() {
+        ObjectPool<Object> pool = new ObjectPool<>(2);
+        assertNull(pool.poll(), "An empty pool should have nothing to give.");
+        Object first = new Object();
+        Object second = new Object();
+        assertTrue(pool.release(first), "The pool should keep released objects.");
+        assertTrue(pool.release(second), "The pool should keep released objects.");
+        assertEquals(2, pool.size(), "Both objects should be pooled.");
+        assertSame(second, pool.poll(), "The last released object should come out first.");
+        assertSame(first, pool.poll(), "The earlier object should come out next.");
+        assertEquals(0, pool.size(), "The pool should be empty again.");
+    }
+
+    @Test
+    public void testBounded() {
+        ObjectPool<Object> pool = new ObjectPool<>(1);
+        assertTrue(pool.release(new Object()), "The first object should fit.");
+        assertFalse(pool.release(new Object()), "A full pool should drop further objects.");
+        assertEquals(1, pool.size(), "The pool should not grow past its capacity.");
+        assertThrows(IllegalArgumentException.class, () -> new ObjectPool<>(-1), "A negative capacity should be rejected.");
+    }
+
+    @Test
+    public void testDoubleRelease() {
+        ObjectPool<Object> pool = new ObjectPool<>(4);
+        Object item = new Object();
+        assertTrue(pool.release(item), "The object should be pooled.");
+        assertFalse(pool.release(item), "Releasing the same object twice should be ignored.");
+        assertSame(item, pool.poll(), "The object should come out once.");
+        assertNull(pool.poll(), "The object should not come out twice.");
+        assertFalse(pool.release(null), "Null should never be pooled.");
+    }
+}
@@ -0,0 +1,82 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import processing.core.PApplet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class PreparedLevelTest {
+    static App app;
+
+    @BeforeAll
+    public static void setupClass() {
+        app = new App();
+        PApplet.runSketch(new String[] {"App"}, app);
+        app.noLoop(); // Prevents the sketch from looping for testing purposes
+    }
+
+    @BeforeEach
+    public void setup() {
+        app.setup();
+        app.loadLevel(0);
+    }
+
+    @Test
+    public void testPrepare() {
+        PreparedLevel level = PreparedLevel.prepare(app, 1);
+        assertEquals(1, level.getIndex(), "Prepared level should keep its index.");
+        assertNotNull(level.getGrid(), "Prepared level should have a grid.");
+        assertFalse(level.getBallsToSpawn().isEmpty(), "Prepared level should have balls to spawn.");
+    }
+
+    @Test
+    public void testPrefetchedLevelIsUsed() {
+        app.prefetchLevel(1);
+        app.loadLevel(1);
+        assertEquals(App.GRID_HEIGHT, app.getGrid().getHeight(), "Prefetched level should be swapped in.");
+        assertFalse(app.getBallsToSpawn().isEmpty(), "Prefetched level should queue its balls.");
+    }
+
+    @Test
+    public void testPrepareLayout() {
+        PreparedLevel level = PreparedLevel.prepareLayout(app, "level1.txt");
+        assertNull(level.getConfig(), "A layout alone has no level settings.");
+        assertFalse(level.getHoles().isEmpty(), "Layout should contain holes.");
+    }
+
+    @Test
+    public void testLayoutDeclaresSize() throws IOException {
+        File file = File.createTempFile("marathon", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), Arrays.asList("size 500 300", "X   S", "", "    H1"));
+        PreparedLevel level = PreparedLevel.prepareLayout(app, file.getAbsolutePath());
+        assertEquals(500, level.getGrid().getWidth(), "Layout should set the board width.");
+        assertEquals(300, level.getGrid().getHeight(), "Layout should set the board height.");
+        assertEquals(TileGrid.WALL, level.getGrid().getType(0, 0), "Rows should start after the size line.");
+        assertEquals(1, level.getGrid().getAllocatedChunks(), "Only chunks with tiles should be allocated.");
+        assertEquals(1, level.getHoles().size(), "Layout should contain the hole.");
+    }
+
+    @Test
+    public void testPrepareDrawsNoRandomNumbers() {
+        App prepared = App.createHeadless("config.json", 42L, 0);
+        App untouched = App.createHeadless("config.json", 42L, 0);
+        try {
+            PreparedLevel level = PreparedLevel.prepare(prepared, 1);
+            assertFalse(level.getLoadedBalls().isEmpty(), "Level 1 should preload balls.");
+            for (int i = 0; i < 8; i++) {
+                assertEquals(untouched.getVelocityRandom().nextInt(1000), prepared.getVelocityRandom().nextInt(1000),
+                        "Building a level should leave the velocity stream alone.");
+            }
+        } finally {
+            prepared.stopPrefetching();
+            untouched.stopPrefetching();
+        }
+    }
+}
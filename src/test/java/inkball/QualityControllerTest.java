@@ -0,0 +1,47 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class QualityControllerTest {
+    private static final long BUDGET = 10_000_000;
+
+    private static void observe(QualityController controller, long nanos, int frames) {
+        for (int i = 0; i < frames; i++) {
+            controller.observe(nanos);
+        }
+    }
+
+    @Test
+    public void testDegradesInSteps() {
+        QualityController controller = new QualityController(BUDGET);
+        observe(controller, BUDGET * 2, QualityController.SETTLE_FRAMES);
+        assertEquals(QualityController.Level.CACHED_BOARD, controller.getLevel(), "Overrunning frames should drop one step.");
+        assertTrue(controller.cachesBoard(), "The first step should cache the board.");
+        assertEquals(1, controller.getLineStep(), "Lines should keep their quality for now.");
+
+        observe(controller, BUDGET * 2, QualityController.SETTLE_FRAMES - 1);
+        assertEquals(QualityController.Level.CACHED_BOARD, controller.getLevel(), "Each step should wait for the last to settle.");
+
+        observe(controller, BUDGET * 2, QualityController.SETTLE_FRAMES * 10);
+        assertEquals(QualityController.Level.SKIP_FRAMES, controller.getLevel(), "Quality should bottom out at skipping frames.");
+        assertFalse(controller.scalesBalls(), "Balls should not be scaled at the lowest level.");
+        assertTrue(controller.shouldDraw(0), "Every other frame should still be drawn.");
+        assertFalse(controller.shouldDraw(1), "Every other frame should be skipped.");
+    }
+
+    @Test
+    public void testRestoresWithHysteresis() {
+        QualityController controller = new QualityController(BUDGET);
+        observe(controller, BUDGET * 2, QualityController.SETTLE_FRAMES * 2);
+        assertEquals(QualityController.Level.SIMPLE_LINES, controller.getLevel(), "Two steps should have been dropped.");
+
+        observe(controller, BUDGET * 7 / 10, QualityController.RESTORE_FRAMES * 3);
+        assertEquals(QualityController.Level.SIMPLE_LINES, controller.getLevel(),
+                "Frames between the thresholds should leave the quality alone.");
+
+        observe(controller, BUDGET / 10, QualityController.RESTORE_FRAMES * 3);
+        assertEquals(QualityController.Level.FULL, controller.getLevel(), "Headroom should restore quality step by step.");
+        assertTrue(controller.shouldDraw(1), "Full quality should draw every frame.");
+    }
+}
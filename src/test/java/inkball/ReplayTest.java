@@ -0,0 +1,109 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import processing.core.PConstants;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class ReplayTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        ReplayRecorder recorder = new ReplayRecorder(null, 123456789L, 2);
+        recorder.recordMouse(10, Replay.MOUSE_PRESS, 100, 200, 37, true);
+        recorder.recordMouse(11, Replay.MOUSE_DRAG, 90, 210, 37, false);
+        recorder.recordKey(500, Replay.KEY_RELEASE, ' ', 32);
+        byte[] bytes = recorder.finish(900, -25);
+
+        Replay replay = Replay.read(new ByteArrayInputStream(bytes));
+        assertEquals(123456789L, replay.getSeed(), "Seed should round-trip.");
+        assertEquals(2, replay.getLevelIndex(), "Level index should round-trip.");
+        assertEquals(900, replay.getTotalTicks(), "Tick count should round-trip.");
+        assertEquals(-25, replay.getFinalScore(), "Negative scores should round-trip.");
+        assertEquals(3, replay.getEventCount(), "All events should be decoded.");
+
+        assertEquals(Replay.MOUSE_PRESS, replay.getType(0), "Event type should round-trip.");
+        assertEquals(100, replay.getFirst(0), "Mouse x should round-trip.");
+        assertTrue(replay.isControlHeld(0), "Ctrl flag should round-trip.");
+        assertEquals(90, replay.getFirst(1), "Delta-encoded x should decode.");
+        assertEquals(210, replay.getSecond(1), "Delta-encoded y should decode.");
+        assertEquals(11, replay.getTick(1), "Delta-encoded tick should decode.");
+        assertEquals(' ', replay.getFirst(2), "Key should round-trip.");
+        assertEquals(500, replay.getTick(2), "Tick of key event should decode.");
+    }
+
+    @Test
+    public void testVarint() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Replay.writeVarint(out, 5);
+        Replay.writeVarint(out, 300);
+        Replay.writeVarint(out, Integer.MAX_VALUE);
+        assertEquals(1 + 2 + 5, out.size(), "Small numbers should take fewer bytes.");
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertEquals(5, Replay.readVarint(in));
+        assertEquals(300, Replay.readVarint(in));
+        assertEquals(Integer.MAX_VALUE, Replay.readVarint(in));
+    }
+
+    @Test
+    public void testZigzag() {
+        assertEquals(-7, Replay.zigzagDecode(Replay.zigzagEncode(-7)), "Negative deltas should round-trip.");
+        assertEquals(1, Replay.zigzagEncode(-1), "Small negative numbers should stay small.");
+    }
+
+    @Test
+    public void testRejectsOtherFiles() {
+        byte[] notAReplay = {1, 2, 3, 4, 5, 6, 7, 8};
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(notAReplay)),
+                "Files without the replay header should be rejected.");
+    }
+
+    @Test
+    public void testRecordedSessionPlaysBackExactly() throws IOException {
+        App app = App.createHeadless("config.json", 2024L, 0);
+        try {
+            app.startRecording(null);
+            while (app.getTickCount() < 2400) {
+                scriptInput(app);
+                app.tick();
+            }
+            Replay replay = Replay.read(new ByteArrayInputStream(app.stopRecording()));
+            assertTrue(replay.getEventCount() > 0, "The scripted input should be recorded.");
+
+            App played = ReplayPlayer.runHeadless("config.json", replay);
+            try {
+                assertEquals(app.getTickCount(), played.getTickCount(), "Playback should run as many ticks as the recording.");
+                assertEquals(app.getScore(), played.getScore(), "Playback should reach the recorded score.");
+                assertEquals(replay.getFinalScore(), played.getScore(), "The replay should store the final score.");
+                assertEquals(app.getBalls().size(), played.getBalls().size(), "Playback should leave the same balls.");
+            } finally {
+                played.stopPrefetching();
+            }
+        } finally {
+            app.stopPrefetching();
+        }
+    }
+
+    /**
+     * Queues the mouse input of a short scripted game: two lines drawn across the board and a
+     * right-click erasing one of them.
+     */
+    static void scriptInput(App app) {
+        int tick = app.getTickCount();
+        InputQueue inputs = app.getInputQueue();
+        if (tick == 40 || tick == 400) {
+            int y = App.TOPBAR + (tick == 40 ? 200 : 380);
+            inputs.offer(Replay.MOUSE_PRESS, 40, y, PConstants.LEFT, false);
+            for (int x = 80; x <= 520; x += 40) {
+                inputs.offer(Replay.MOUSE_DRAG, x, y + x / 8, PConstants.LEFT, false);
+            }
+            inputs.offer(Replay.MOUSE_RELEASE, 520, y + 65, PConstants.LEFT, false);
+        } else if (tick == 1200) {
+            inputs.offer(Replay.MOUSE_PRESS, 300, App.TOPBAR + 237, PConstants.RIGHT, false);
+            inputs.offer(Replay.MOUSE_RELEASE, 300, App.TOPBAR + 237, PConstants.RIGHT, false);
+        }
+    }
+}
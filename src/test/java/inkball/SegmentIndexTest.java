@@ -0,0 +1,97 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import processing.core.PVector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SegmentIndexTest {
+
+    private static Line line(float... xy) {
+        Line line = new Line();
+        for (int i = 0; i < xy.length; i += 2) {
+            line.addPoint(xy[i], App.TOPBAR + xy[i + 1]);
+        }
+        return line;
+    }
+
+    @Test
+    public void testLinesWithin() {
+        SegmentIndex index = new SegmentIndex(App.WIDTH, App.HEIGHT);
+        Line near = line(100, 100, 200, 100);
+        Line far = line(400, 400, 500, 400);
+        index.add(near);
+        index.add(far);
+
+        List<Line> found = new ArrayList<>();
+        index.linesWithin(150, App.TOPBAR + 110, 8, found);
+        assertEquals(List.of(near), found, "Only the line under the brush should be found.");
+
+        found.clear();
+        index.linesWithin(300, App.TOPBAR + 300, 8, found);
+        assertTrue(found.isEmpty(), "Empty areas should find nothing.");
+    }
+
+    @Test
+    public void testNearestMatchesBruteForce() {
+        Random random = new Random(3);
+        SegmentIndex index = new SegmentIndex(App.WIDTH, App.HEIGHT);
+        List<Line> lines = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            float x = random.nextInt(500), y = random.nextInt(500);
+            Line line = line(x, y, x + random.nextInt(60), y + random.nextInt(60), x + 10, y + random.nextInt(40));
+            lines.add(line);
+            index.add(line);
+        }
+        for (int q = 0; q < 200; q++) {
+            PVector point = new PVector(random.nextInt(App.WIDTH), App.TOPBAR + random.nextInt(App.HEIGHT - App.TOPBAR));
+            float best = Float.MAX_VALUE;
+            for (Line line : lines) {
+                for (int i = 0; i < line.getPoints().size() - 1; i++) {
+                    best = Math.min(best, line.nearLineDistance(point, line.getPoints().get(i), line.getPoints().get(i + 1)));
+                }
+            }
+            List<Line> found = new ArrayList<>();
+            index.nearest(point.x, point.y, 3, found);
+            assertEquals(3, found.size(), "Three lines should be found.");
+            Line nearest = found.get(0);
+            float distance = Float.MAX_VALUE;
+            for (int i = 0; i < nearest.getPoints().size() - 1; i++) {
+                distance = Math.min(distance, nearest.nearLineDistance(point, nearest.getPoints().get(i), nearest.getPoints().get(i + 1)));
+            }
+            assertEquals(best, distance, 1e-3, "The nearest line should match a full scan.");
+        }
+    }
+
+    @Test
+    public void testUpdatesAndRemoval() {
+        SegmentIndex index = new SegmentIndex(App.WIDTH, App.HEIGHT);
+        Line line = line(100, 100, 120, 100);
+        index.add(line);
+        line.addPoint(300, App.TOPBAR + 300); // Filed as it is drawn
+
+        List<Line> found = new ArrayList<>();
+        index.linesWithin(300, App.TOPBAR + 300, 4, found);
+        assertEquals(1, found.size(), "New points should be filed while the line is in the index.");
+
+        index.add(line); // A second copy
+        index.remove(line);
+        found.clear();
+        index.linesWithin(110, App.TOPBAR + 100, 4, found);
+        assertEquals(1, found.size(), "A line should stay filed while a copy remains.");
+
+        index.remove(line);
+        found.clear();
+        index.linesWithin(110, App.TOPBAR + 100, 4, found);
+        assertTrue(found.isEmpty(), "A line should leave the index with its last copy.");
+        assertEquals(0, index.getLineCount(), "The index should be empty.");
+
+        found.clear();
+        index.nearest(110, App.TOPBAR + 100, 1, found);
+        assertTrue(found.isEmpty(), "An empty index should have no nearest line.");
+    }
+}
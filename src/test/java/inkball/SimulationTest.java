@@ -0,0 +1,91 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+public class SimulationTest {
+
+    @Test
+    public void testTicksAndPublishes() throws InterruptedException {
+        App app = App.createHeadless("config.json", 1L, 0);
+        Simulation simulation = new Simulation(app);
+        simulation.start();
+        try {
+            RenderState first = simulation.getLatest();
+            assertNotNull(first.grid, "The starting state should be published before the first tick.");
+            assertNotSame(first.grid, app.getGrid(), "The renderer should get its own copy of the board.");
+
+            assertTrue(app.getInputQueue().offer(Replay.KEY_RELEASE, ' ', 0, 0, false), "The input queue should take the key.");
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while ((simulation.getLatest().tick < 3 || !simulation.getLatest().paused) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            RenderState latest = simulation.getLatest();
+            assertTrue(latest.tick >= 3, "The simulation should tick on its own.");
+            assertTrue(latest.paused, "Queued input should be applied on the simulation thread.");
+            assertEquals(app.getBoardRight(), latest.boardRight, "The state should describe the board.");
+        } finally {
+            simulation.stop();
+            app.stopPrefetching();
+        }
+    }
+
+    @Test
+    public void testFastForward() throws InterruptedException {
+        App app = App.createHeadless("config.json", 1L, 0);
+        app.setSpeed(8);
+        Simulation simulation = new Simulation(app);
+        simulation.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (simulation.getLatest().tick < App.FPS * 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(simulation.getLatest().tick >= App.FPS * 2, "Fast-forward should run several ticks per period.");
+        } finally {
+            simulation.stop();
+            app.stopPrefetching();
+        }
+    }
+
+    @Test
+    public void testFastForwardKeepsOutcome() throws IOException {
+        App recorded = App.createHeadless("config.json", 314L, 0);
+        recorded.startRecording(null);
+        while (recorded.getTickCount() < 3000) {
+            ReplayTest.scriptInput(recorded);
+            recorded.tick();
+        }
+        Replay replay = Replay.read(new ByteArrayInputStream(recorded.stopRecording()));
+        recorded.stopPrefetching();
+
+        int[] speeds = {1, 8, App.SPEED_UNCAPPED};
+        int[] frames = new int[speeds.length];
+        for (int i = 0; i < speeds.length; i++) {
+            App app = App.createHeadless("config.json", replay.getSeed(), replay.getLevelIndex());
+            try {
+                app.setSpeed(speeds[i]);
+                app.playReplay(new ReplayPlayer(replay));
+                while (app.getTickCount() < replay.getTotalTicks()) {
+                    app.advanceFrame(System.nanoTime()); // The ticks of one frame, as draw() runs them
+                    frames[i]++;
+                }
+                String speed = speeds[i] == App.SPEED_UNCAPPED ? "turbo" : speeds[i] + "x";
+                assertEquals(replay.getTotalTicks(), app.getTickCount(), "Playback at " + speed + " should stop at the last tick.");
+                assertEquals(recorded.getScore(), app.getScore(), "The score at " + speed + " should match.");
+                assertEquals(recorded.getCaptures(), app.getCaptures(), "Captures at " + speed + " should match.");
+                assertEquals(recorded.getWrongCaptures(), app.getWrongCaptures(),
+                        "Wrong captures at " + speed + " should match.");
+            } finally {
+                app.stopPrefetching();
+            }
+        }
+        assertTrue(recorded.getCaptures() > 0, "The run should capture balls.");
+        assertTrue(frames[1] < frames[0], "Fast-forward should need fewer frames.");
+    }
+}
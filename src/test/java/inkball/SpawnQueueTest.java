@@ -0,0 +1,61 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SpawnQueueTest {
+    private SpawnQueue queue;
+
+    @BeforeEach
+    public void setUp() {
+        queue = new SpawnQueue();
+    }
+
+    @Test
+    public void testPushAndPopInOrder() {
+        queue.add(Colour.BLUE);
+        queue.push(4);
+        assertEquals(2, queue.size(), "Queue should hold both balls.");
+        assertEquals(Colour.BLUE.ordinal(), queue.pop(), "First ball pushed should be popped first.");
+        assertEquals(4, queue.pop(), "Second ball should follow.");
+        assertTrue(queue.isEmpty(), "Queue should be empty after popping everything.");
+    }
+
+    @Test
+    public void testPeekDoesNotRemove() {
+        queue.push(1);
+        queue.push(2);
+        assertEquals(2, queue.peek(1), "Peek should read the requested position.");
+        assertEquals(2, queue.size(), "Peek should not change the size.");
+        assertThrows(IndexOutOfBoundsException.class, () -> queue.peek(2), "Peeking past the end should fail.");
+    }
+
+    @Test
+    public void testGrowsAcrossWrapAround() {
+        // Move the head forward so the ring wraps before it has to grow
+        for (int i = 0; i < 10; i++) {
+            queue.push(0);
+            queue.pop();
+        }
+        for (int i = 0; i < 5000; i++) {
+            queue.push(i % 5);
+        }
+        assertEquals(5000, queue.size(), "Queue should hold thousands of balls.");
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i % 5, queue.pop(), "Order should survive growing.");
+        }
+    }
+
+    @Test
+    public void testPopEmpty() {
+        assertThrows(IllegalStateException.class, () -> queue.pop(), "Popping an empty queue should fail.");
+    }
+
+    @Test
+    public void testClear() {
+        queue.push(3);
+        queue.clear();
+        assertTrue(queue.isEmpty(), "Queue should be empty after clear.");
+    }
+}
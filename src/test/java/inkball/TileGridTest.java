@@ -0,0 +1,107 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+public class TileGridTest {
+
+    @Test
+    public void testEmptyBoardAllocatesNothing() {
+        TileGrid grid = new TileGrid(500, 500);
+        assertEquals(TileGrid.EMPTY, grid.getType(250, 250), "Open floor should have no tile.");
+        grid.clear(10, 10);
+        assertEquals(0, grid.getAllocatedChunks(), "Clearing open floor should not allocate chunks.");
+        assertEquals(32, grid.getChunkColumns(), "Chunks should cover the full width.");
+    }
+
+    @Test
+    public void testSetAndGet() {
+        TileGrid grid = new TileGrid(500, 500);
+        grid.setWall(499, 17, 3);
+        assertEquals(TileGrid.WALL, grid.getType(499, 17), "Placed wall should be found again.");
+        assertEquals(3, grid.getColour(499, 17), "Wall should keep its colour.");
+        assertTrue(grid.isSolid(499, 17), "Walls should be solid.");
+        assertEquals(TileGrid.EMPTY, grid.getType(498, 17), "Neighbouring floor should stay empty.");
+        assertEquals(1, grid.getAllocatedChunks(), "Only the chunk holding the wall should be allocated.");
+        assertTrue(grid.isChunkAllocated(31, 1), "Chunk of the wall should be allocated.");
+    }
+
+    @Test
+    public void testOutOfBounds() {
+        TileGrid grid = new TileGrid(18, 18);
+        assertEquals(TileGrid.EMPTY, grid.getType(-1, 0), "Positions left of the board are open floor.");
+        assertFalse(grid.isSolid(0, 18), "Positions below the board are not solid.");
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.setWall(18, 0, 0),
+                "Placing a wall off the board should fail.");
+        assertThrows(IllegalArgumentException.class, () -> new TileGrid(0, 5), "Empty boards should be rejected.");
+    }
+
+    @Test
+    public void testHitGreyWall() {
+        TileGrid grid = new TileGrid(18, 18);
+        grid.setWall(2, 2, 0);
+        assertEquals(TileGrid.HIT_DAMAGED, grid.hit(2, 2, 4), "Grey walls should be damaged by any ball.");
+        assertEquals(TileGrid.HIT_IGNORED, grid.hit(2, 2, 4), "Walls should ignore hits during the cooldown.");
+        grid.endCooldown(2, 2);
+        assertFalse(grid.isCoolingDown(2, 2), "Cooldown should end when told to.");
+        grid.hit(2, 2, 1);
+        assertTrue(grid.isCoolingDown(2, 2), "Damaged wall should be cooling down.");
+        grid.endCooldown(2, 2);
+        assertEquals(TileGrid.HIT_DESTROYED, grid.hit(2, 2, 2), "Third hit should destroy the wall.");
+        assertEquals(TileGrid.EMPTY, grid.getType(2, 2), "Destroyed wall should leave open floor.");
+    }
+
+    @Test
+    public void testHitColourWall() {
+        TileGrid grid = new TileGrid(18, 18);
+        grid.setWall(2, 2, 1);
+        assertEquals(TileGrid.HIT_IGNORED, grid.hit(2, 2, 2), "Other colours should not damage the wall.");
+        assertEquals(TileGrid.HIT_DAMAGED, grid.hit(2, 2, 1), "Matching colour should damage the wall.");
+        assertEquals(1, grid.getDamage(2, 2), "Damage should be recorded.");
+    }
+
+    @Test
+    public void testForEachCellIn() {
+        TileGrid grid = new TileGrid(100, 100);
+        grid.setWall(0, 0, 0);
+        grid.set(50, 50, TileGrid.SPAWNER, 0);
+        grid.setWall(99, 99, 2);
+        int[] visited = new int[1];
+        grid.forEachCellIn(0, 0, 60, 60, (x, y, type, colour, damage) -> visited[0]++);
+        assertEquals(2, visited[0], "Only cells inside the rectangle should be visited.");
+    }
+
+    @Test
+    public void testWriteAndRead() {
+        TileGrid grid = new TileGrid(40, 20);
+        grid.setWall(35, 5, 2);
+        grid.setWallState(35, 5, 2, 1);
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        grid.writeTo(buffer);
+        buffer.flip();
+        TileGrid copy = TileGrid.readFrom(buffer);
+        assertEquals(40, copy.getWidth(), "Width should round-trip.");
+        assertEquals(2, copy.getDamage(35, 5), "Damage should round-trip.");
+        assertTrue(copy.isCoolingDown(35, 5), "Cooldown should round-trip.");
+        assertEquals(1, copy.getAllocatedChunks(), "Unused chunks should stay unallocated.");
+    }
+
+    @Test
+    public void testCopyAndVersion() {
+        TileGrid grid = new TileGrid(40, 20);
+        grid.setWall(3, 3, 0);
+        int version = grid.getVersion();
+        TileGrid copy = grid.copy();
+
+        assertEquals(TileGrid.HIT_DAMAGED, grid.hit(3, 3, 1), "The original should take the hit.");
+        assertNotEquals(version, grid.getVersion(), "Damage should change the version.");
+        assertEquals(0, copy.getDamage(3, 3), "The copy should not see later changes.");
+        assertEquals(version, copy.getVersion(), "The copy should keep the version it was taken at.");
+
+        int damaged = grid.getVersion();
+        grid.endCooldown(3, 3);
+        assertEquals(damaged, grid.getVersion(), "Cooldowns should not change the version.");
+    }
+}
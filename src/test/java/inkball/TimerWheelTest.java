@@ -0,0 +1,96 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimerWheelTest {
+
+    @Test
+    public void testRunsWhenDue() {
+        List<Integer> fired = new ArrayList<>();
+        TimerWheel wheel = new TimerWheel(timer -> fired.add(timer.getArg()));
+        wheel.schedule(3, 0, 7);
+        wheel.advance();
+        wheel.advance();
+        assertTrue(fired.isEmpty(), "Timer should not run early.");
+        wheel.advance();
+        assertEquals(List.of(7), fired, "Timer should run on its tick.");
+        assertEquals(0, wheel.size(), "Run timers should leave the wheel.");
+    }
+
+    @Test
+    public void testLongDelays() {
+        List<Long> firedAt = new ArrayList<>();
+        TimerWheel[] wheel = new TimerWheel[1];
+        wheel[0] = new TimerWheel(timer -> firedAt.add(wheel[0].getTick()));
+        wheel[0].schedule(1000, 0, 0);
+        wheel[0].schedule(1000 - 256, 0, 0);
+        for (int i = 0; i < 1200; i++) {
+            wheel[0].advance();
+        }
+        assertEquals(List.of(744L, 1000L), firedAt, "Timers past one turn should wait for their own tick.");
+    }
+
+    @Test
+    public void testCancel() {
+        List<Integer> fired = new ArrayList<>();
+        TimerWheel wheel = new TimerWheel(timer -> fired.add(timer.getArg()));
+        TimerWheel.Timer timer = wheel.schedule(2, 0, 1);
+        wheel.schedule(2, 0, 2);
+        assertEquals(2, wheel.getRemaining(timer), "Remaining ticks should count down from the delay.");
+        wheel.cancel(timer);
+        wheel.cancel(timer);
+        assertFalse(timer.isPending(), "Cancelled timer should not be pending.");
+        wheel.advance();
+        wheel.advance();
+        assertEquals(List.of(2), fired, "Cancelled timer should not run.");
+    }
+
+    @Test
+    public void testCancelFromTimer() {
+        List<Integer> fired = new ArrayList<>();
+        TimerWheel[] wheel = new TimerWheel[1];
+        TimerWheel.Timer[] second = new TimerWheel.Timer[1];
+        wheel[0] = new TimerWheel(timer -> {
+            fired.add(timer.getArg());
+            wheel[0].cancel(second[0]);
+        });
+        wheel[0].schedule(1, 0, 1);
+        second[0] = wheel[0].schedule(1, 0, 2);
+        wheel[0].schedule(1, 0, 3);
+        wheel[0].advance();
+        assertEquals(List.of(1, 3), fired, "Timers after a cancelled one should still run.");
+    }
+
+    @Test
+    public void testRejectsPastTimers() {
+        TimerWheel wheel = new TimerWheel(timer -> { });
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule(0, 0, 0),
+                "Timers must be in the future.");
+    }
+
+    @Test
+    public void testRoundTrip() {
+        TimerWheel wheel = new TimerWheel(timer -> { });
+        wheel.advance();
+        wheel.schedule(5, 1, 10);
+        wheel.schedule(300, 2, 20);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        wheel.writeTo(buffer);
+        buffer.flip();
+
+        List<Integer> fired = new ArrayList<>();
+        TimerWheel copy = new TimerWheel(timer -> fired.add(timer.getKind()));
+        List<Integer> restored = new ArrayList<>();
+        copy.readFrom(buffer, timer -> restored.add(copy.getRemaining(timer)));
+        assertEquals(List.of(5, 300), restored, "Timers should keep their remaining ticks.");
+        for (int i = 0; i < 300; i++) {
+            copy.advance();
+        }
+        assertEquals(List.of(1, 2), fired, "Restored timers should run.");
+    }
+}
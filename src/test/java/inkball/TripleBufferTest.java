@@ -0,0 +1,52 @@
+package inkball;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class TripleBufferTest {
+
+    @Test
+    public void testLatestValueWins() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+        int[] initial = buffer.getFront();
+        assertSame(initial, buffer.getFront(), "Nothing published should leave the reader where it was.");
+
+        buffer.getBack()[0] = 1;
+        buffer.publish();
+        buffer.getBack()[0] = 2;
+        buffer.publish();
+        assertEquals(2, buffer.getFront()[0], "The reader should skip to the newest value.");
+        assertEquals(2, buffer.getFront()[0], "The value should stay while nothing new arrives.");
+
+        buffer.getBack()[0] = 3;
+        assertEquals(2, buffer.getFront()[0], "Unpublished writes should not be visible.");
+        buffer.publish();
+        assertEquals(3, buffer.getFront()[0], "Published writes should be visible.");
+    }
+
+    @Test
+    public void testWriterNeverTouchesReaderSlot() throws InterruptedException {
+        // Each value holds a number twice; a torn read would see two different numbers
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[2]);
+        int writes = 200_000;
+        Thread writer = new Thread(() -> {
+            for (long i = 1; i <= writes; i++) {
+                long[] value = buffer.getBack();
+                value[0] = i;
+                value[1] = i;
+                buffer.publish();
+            }
+        });
+        writer.start();
+        long last = 0;
+        while (last < writes) {
+            long[] value = buffer.getFront();
+            long first = value[0];
+            Thread.yield();
+            assertEquals(first, value[1], "A value should never change while the reader holds it.");
+            assertTrue(first >= last, "Values should never go backwards.");
+            last = first;
+        }
+        writer.join();
+    }
+}